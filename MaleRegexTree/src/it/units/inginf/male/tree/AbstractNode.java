@@ -18,6 +18,7 @@
 package it.units.inginf.male.tree;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -29,6 +30,9 @@ public abstract class AbstractNode implements Node {
     private List<Node> childrens;
     private long id;
     private int age = 0;
+    private long fingerprint;
+    private volatile boolean fingerprintValid = false;
+    private volatile CachedDescription[] descriptions;
 
     @Override
     public long getId() {
@@ -37,7 +41,7 @@ public abstract class AbstractNode implements Node {
 
     public AbstractNode() {
         id = IDFactory.getInstance().nextID();
-        childrens = new ArrayList<Node>(getMaxChildrenCount());
+        childrens = new ChildrenList(getMaxChildrenCount());
     }
 
     @Override
@@ -49,7 +53,106 @@ public abstract class AbstractNode implements Node {
     public void describe(StringBuilder builder) {
         describe(builder, new DescriptionContext(), RegexFlavour.JAVA);
     }
+
+    /**
+     * Appends the description of this subtree. Operators keep the rendered
+     * text for each flavour and reuse it until the subtree changes; the
+     * DescriptionContext counters are advanced as if the subtree was rendered
+     * again. The non-JAVA flavours number their groups starting from the
+     * context counters, their text is reused only for the same starting counters.
+     */
+    @Override
+    public final void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+        if (this instanceof Leaf) {
+            describeNode(builder, context, flavour);
+            return;
+        }
+        CachedDescription[] cached = descriptions;
+        CachedDescription description = cached != null ? cached[flavour.ordinal()] : null;
+        if (description != null && (flavour == RegexFlavour.JAVA || description.isValidFor(context))) {
+            builder.append(description.text);
+            context.groups += description.groupsDelta;
+            context.expansionGroups += description.expansionGroupsDelta;
+            return;
+        }
+        int groups = context.groups;
+        int expansionGroups = context.expansionGroups;
+        int start = builder.length();
+        describeNode(builder, context, flavour);
+        description = new CachedDescription(builder.substring(start), groups, expansionGroups,
+                context.groups - groups, context.expansionGroups - expansionGroups);
+        if (cached == null) {
+            cached = new CachedDescription[RegexFlavour.values().length];
+            descriptions = cached;
+        }
+        cached[flavour.ordinal()] = description;
+    }
+
+    /**
+     * Renders this node, the children are described through their describe method.
+     * @param builder where the description is appended
+     * @param context the group counters
+     * @param flavour the regex flavour
+     */
+    protected abstract void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour);
     
+    /**
+     * Computed bottom-up from the node class, the value of the leaves and the
+     * fingerprints of the children, which are cached in turn.
+     */
+    @Override
+    public long getFingerprint() {
+        if (!fingerprintValid) {
+            long value = Fingerprints.of(getClass().getName());
+            if (this instanceof Leaf) {
+                StringBuilder builder = new StringBuilder();
+                describeNode(builder, new DescriptionContext(), RegexFlavour.JAVA);
+                value = Fingerprints.combine(value, Fingerprints.of(builder));
+            } else {
+                value = Fingerprints.combine(value, childrens.size());
+                for (Node child : childrens) {
+                    value = Fingerprints.combine(value, child.getFingerprint());
+                }
+            }
+            fingerprint = value;
+            fingerprintValid = true;
+        }
+        return fingerprint;
+    }
+
+    /**
+     * Drops the cached fingerprint and descriptions of this node and of its
+     * ancestors. Changes to the children list call it automatically.
+     */
+    protected void invalidate() {
+        clearCachedValues();
+        Node parent = getParent();
+        if (parent instanceof AbstractNode) {
+            ((AbstractNode) parent).invalidate();
+        }
+    }
+
+    /**
+     * Drops the cached fingerprint and descriptions of this node only.
+     */
+    protected void clearCachedValues() {
+        fingerprintValid = false;
+        descriptions = null;
+    }
+
+    /**
+     * Used by cloneTree, the clone of a subtree has the same structure and
+     * description.
+     * @param source the cloned node
+     */
+    protected void copyCachedValues(AbstractNode source) {
+        descriptions = source.descriptions == null ? null : source.descriptions.clone();
+        if (source.fingerprintValid) {
+            fingerprint = source.fingerprint;
+            fingerprintValid = true;
+        }
+    }
+
     @Override
     public boolean isCharacterClass(){
         return false;
@@ -88,4 +191,94 @@ public abstract class AbstractNode implements Node {
 //    };
 //    
     
+    /**
+     * Children list that invalidates the fingerprint of its owner on changes.
+     */
+    private class ChildrenList extends ArrayList<Node> {
+
+        ChildrenList(int initialCapacity) {
+            super(initialCapacity);
+        }
+
+        @Override
+        public boolean add(Node e) {
+            invalidate();
+            return super.add(e);
+        }
+
+        @Override
+        public void add(int index, Node element) {
+            invalidate();
+            super.add(index, element);
+        }
+
+        @Override
+        public Node set(int index, Node element) {
+            invalidate();
+            return super.set(index, element);
+        }
+
+        @Override
+        public Node remove(int index) {
+            invalidate();
+            return super.remove(index);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            invalidate();
+            return super.remove(o);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends Node> c) {
+            invalidate();
+            return super.addAll(c);
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends Node> c) {
+            invalidate();
+            return super.addAll(index, c);
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            invalidate();
+            return super.removeAll(c);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            invalidate();
+            return super.retainAll(c);
+        }
+
+        @Override
+        public void clear() {
+            invalidate();
+            super.clear();
+        }
+    }
+
+    private static final class CachedDescription {
+
+        private final String text;
+        private final int groups;
+        private final int expansionGroups;
+        private final int groupsDelta;
+        private final int expansionGroupsDelta;
+
+        CachedDescription(String text, int groups, int expansionGroups, int groupsDelta, int expansionGroupsDelta) {
+            this.text = text;
+            this.groups = groups;
+            this.expansionGroups = expansionGroups;
+            this.groupsDelta = groupsDelta;
+            this.expansionGroupsDelta = expansionGroupsDelta;
+        }
+
+        boolean isValidFor(DescriptionContext context) {
+            return context.groups == groups && context.expansionGroups == expansionGroups;
+        }
+    }
 }
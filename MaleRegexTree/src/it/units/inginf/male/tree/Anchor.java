@@ -48,7 +48,7 @@ public class Anchor extends AbstractNode implements Leaf{
     }
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         builder.append(value);
     }
 
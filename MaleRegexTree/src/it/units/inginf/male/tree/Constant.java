@@ -57,7 +57,7 @@ public class Constant extends AbstractNode implements Leaf {
     }
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         builder.append(value);
     }
 
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.tree;
+
+/**
+ * 64 bit hashing helpers used for the node fingerprints.
+ */
+public final class Fingerprints {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private Fingerprints() {
+    }
+
+    /**
+     * FNV-1a over the chars of text, followed by a final avalanche step.
+     * @param text the text to hash
+     * @return the 64 bit hash of text
+     */
+    public static long of(CharSequence text) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < text.length(); i++) {
+            hash ^= text.charAt(i);
+            hash *= FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    /**
+     * Order dependent combination of two fingerprints.
+     * @param seed the fingerprint accumulated so far
+     * @param value the fingerprint to add
+     * @return the combined fingerprint
+     */
+    public static long combine(long seed, long value) {
+        return mix(seed * 31 + value);
+    }
+
+    private static long mix(long hash) {
+        hash ^= (hash >>> 33);
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= (hash >>> 33);
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= (hash >>> 33);
+        return hash;
+    }
+}
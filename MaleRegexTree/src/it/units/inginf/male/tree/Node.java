@@ -38,6 +38,14 @@ public interface Node {
     void describe(StringBuilder builder);
     void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour);
     //String describe();
+    /**
+     * A 64 bit hash of the structure of this subtree: node classes, children
+     * order and leaf values. Trees with the same description but a different
+     * structure have different fingerprints. It is cached by the node and
+     * dropped when the subtree changes.
+     * @return the fingerprint of this subtree
+     */
+    long getFingerprint();
     boolean isValid();
 
     public enum RegexFlavour {
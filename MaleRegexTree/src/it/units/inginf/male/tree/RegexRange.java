@@ -46,7 +46,7 @@ public class RegexRange extends AbstractNode implements Leaf {
     }
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         builder.append(value);
     }
 
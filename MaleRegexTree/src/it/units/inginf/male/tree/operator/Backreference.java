@@ -57,7 +57,7 @@ public class Backreference extends AbstractNode implements Leaf {
     }
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         builder.append("\\");
         switch (flavour) {
             case JAVA:
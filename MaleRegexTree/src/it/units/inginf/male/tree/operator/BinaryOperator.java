@@ -56,6 +56,7 @@ public abstract class BinaryOperator extends AbstractNode {
             newChild.setParent(bop);
             bopChilds.add(newChild);
         }
+        bop.copyCachedValues(this);
         return bop;
     }
 
@@ -31,7 +31,7 @@ public class Concatenator extends BinaryOperator {
     }
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         getLeft().describe(builder, context, flavour);
         getRight().describe(builder, context, flavour);
     }
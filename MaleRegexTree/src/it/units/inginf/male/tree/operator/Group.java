@@ -31,7 +31,7 @@ public class Group extends UnaryOperator{
     }
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         builder.append("(");
         context.incGroups();
         getChildrens().get(0).describe(builder, context, flavour);
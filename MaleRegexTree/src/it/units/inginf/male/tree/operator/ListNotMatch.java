@@ -34,7 +34,7 @@ public class ListNotMatch extends UnaryOperator {
     }
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         Node child = getChildrens().get(0);
         builder.append("[^");
         child.describe(builder, context, flavour);
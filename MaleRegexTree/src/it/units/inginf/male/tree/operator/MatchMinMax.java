@@ -37,7 +37,7 @@ public class MatchMinMax extends TernaryOperator {
     }
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         StringBuilder tmp = new StringBuilder();
         Node child = getFirst();
         // Immediately increment group count
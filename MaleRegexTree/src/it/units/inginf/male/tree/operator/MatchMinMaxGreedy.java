@@ -35,7 +35,7 @@ public class MatchMinMaxGreedy extends TernaryOperator {
     }
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         getFirst().describe(builder, context, flavour);
         builder.append("{");
         builder.append(Integer.parseInt(getSecond().toString()));
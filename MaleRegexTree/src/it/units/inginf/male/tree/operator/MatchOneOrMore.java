@@ -27,7 +27,7 @@ import it.units.inginf.male.tree.Node;
 public class MatchOneOrMore extends Quantifier {
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         StringBuilder tmp = new StringBuilder();
         Node child = getChildrens().get(0);
         // Immediately increment group count
@@ -28,7 +28,7 @@ import java.util.Random;
 public class MatchOneOrMoreGreedy extends Quantifier {
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         getChildrens().get(0).describe(builder, context, flavour);
         builder.append("+");
     }
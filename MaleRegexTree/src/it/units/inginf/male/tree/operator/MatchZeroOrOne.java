@@ -28,7 +28,7 @@ import java.util.Random;
 public class MatchZeroOrOne extends Quantifier {
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         StringBuilder tmp = new StringBuilder();
         Node child = getChildrens().get(0);
         // Immediately increment group count
@@ -26,7 +26,7 @@ import it.units.inginf.male.tree.DescriptionContext;
 public class MatchZeroOrOneGreedy extends Quantifier {
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         getChildrens().get(0).describe(builder, context, flavour);
         builder.append("?");
     }
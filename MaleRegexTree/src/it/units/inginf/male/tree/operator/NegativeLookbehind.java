@@ -41,7 +41,7 @@ public class NegativeLookbehind extends Lookaround {
     }
 
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         builder.append("(?<!");
         getChildrens().get(0).describe(builder, context, flavour);
         builder.append(")");
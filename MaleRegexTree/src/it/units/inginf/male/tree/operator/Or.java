@@ -17,7 +17,9 @@
  */
 package it.units.inginf.male.tree.operator;
 
+import it.units.inginf.male.tree.AbstractNode;
 import it.units.inginf.male.tree.DescriptionContext;
+import it.units.inginf.male.tree.Node;
 
 /**
  *
@@ -30,8 +32,27 @@ public class Or extends BinaryOperator {
         return new Or();
     }
 
+    /**
+     * The description is wrapped in a non capturing group under a quantifier,
+     * the cached one is dropped when this changes.
+     */
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    public void setParent(Node parent) {
+        if ((getParent() instanceof Quantifier) != (parent instanceof Quantifier)) {
+            clearCachedValues();
+        }
+        super.setParent(parent);
+    }
+
+    @Override
+    protected void copyCachedValues(AbstractNode source) {
+        if ((source.getParent() instanceof Quantifier) == (getParent() instanceof Quantifier)) {
+            super.copyCachedValues(source);
+        }
+    }
+
+    @Override
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         if (getParent() instanceof Quantifier) {
             builder.append("(?:");
         }
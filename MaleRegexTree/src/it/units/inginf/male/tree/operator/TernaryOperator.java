@@ -37,6 +37,7 @@ public abstract class TernaryOperator extends AbstractNode{
             newChild.setParent(top);
             topChilds.add(newChild);
         }
+        top.copyCachedValues(this);
         return top;
     }
 
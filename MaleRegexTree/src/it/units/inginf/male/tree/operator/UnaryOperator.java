@@ -48,6 +48,7 @@ public abstract class UnaryOperator extends AbstractNode {
             child.setParent(clone);
             clone.getChildrens().add(child);
         }
+        clone.copyCachedValues(this);
         return clone;
     }
 
@@ -36,6 +36,8 @@ import java.util.logging.Logger;
  */
 public class Main {
 
+    private static final String RESUME_OPTION = "--resume";
+
     /**
      * @param args the command line arguments
      */
@@ -46,6 +48,10 @@ public class Main {
         }
 
         Configuration configuration = Configurator.configure(args[0]);
+        //the jobs go on from their last checkpoint, see CheckpointStore
+        if (args.length > 1 && RESUME_OPTION.equals(args[1])) {
+            configuration.getCheckpoints().setResume(true);
+        }
         
         Logger.getLogger("").addHandler(new FileHandler(new File(configuration.getOutputFolder(), "log.xml").getCanonicalPath()));
         Results results = new Results(configuration);
@@ -63,6 +69,6 @@ public class Main {
     }
 
     private static void printUsage() {
-        System.out.println("Usage: java -jar \"Random_Regex_Turtle.jar\" config");
+        System.out.println("Usage: java -jar \"Random_Regex_Turtle.jar\" config [" + RESUME_OPTION + "]");
     }
 }
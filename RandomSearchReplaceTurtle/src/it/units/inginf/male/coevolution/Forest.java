@@ -18,6 +18,7 @@
 package it.units.inginf.male.coevolution;
 
 import it.units.inginf.male.tree.DescriptionContext;
+import it.units.inginf.male.tree.Fingerprints;
 import it.units.inginf.male.tree.Node;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -101,6 +102,18 @@ public class Forest extends ArrayList<Node> implements Node{
         throw new UnsupportedOperationException("Only plain describe(StringBuffer) is supported");
     }
 
+    /**
+     * Combines the fingerprints of the trees, the forest itself caches nothing.
+     */
+    @Override
+    public long getFingerprint() {
+        long fingerprint = size();
+        for (Node thi : this) {
+            fingerprint = Fingerprints.combine(fingerprint, thi.getFingerprint());
+        }
+        return fingerprint;
+    }
+
     @Override
     public boolean isValid() {
         boolean isValidValue = true;
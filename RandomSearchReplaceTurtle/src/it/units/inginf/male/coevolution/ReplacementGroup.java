@@ -26,7 +26,7 @@ import it.units.inginf.male.tree.operator.UnaryOperator;
  */
 public class ReplacementGroup extends UnaryOperator {
     @Override
-    public void describe(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
+    protected void describeNode(StringBuilder builder, DescriptionContext context, RegexFlavour flavour) {
         Node child = getChildrens().get(0);
         switch (flavour) {
             case JAVA:
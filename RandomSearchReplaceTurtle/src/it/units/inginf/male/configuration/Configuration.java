@@ -30,6 +30,8 @@ import it.units.inginf.male.postprocessing.Json2Postprocessor;
 import it.units.inginf.male.selections.best.BasicLearningBestSelector;
 import it.units.inginf.male.selections.best.BestSelector;
 import it.units.inginf.male.strategy.ExecutionStrategy;
+import it.units.inginf.male.strategy.CheckpointStore;
+import it.units.inginf.male.strategy.ExperimentCoordinator;
 import it.units.inginf.male.strategy.impl.MultithreadStrategy;
 import it.units.inginf.male.terminalsets.EmptyTerminalSetBuilder;
 import it.units.inginf.male.utils.Range;
@@ -58,8 +60,10 @@ public class Configuration {
     private String outputFolderName;
     private transient Objective objective;
     private String objectiveClass;
+    private Map<String, String> objectiveParameters;
     private transient CoevolutionaryEvaluator evaluator;
     private String evaluatorClass;
+    private Map<String, String> evaluatorParameters;
     private transient ExecutionStrategy strategy;    
     private String strategyClass;
     private Map<String, String> strategyParameters;  
@@ -75,6 +79,9 @@ public class Configuration {
     private String forestBuilderClass;
     private Map<String, String> forestBuilderParameters;
     private transient ForestBuilder forestBuilder;
+    //shared by the copies made for the jobs of the same experiment
+    private transient ExperimentCoordinator coordinator;
+    private transient CheckpointStore checkpoints;
     private String datasetName;
 
     private Configuration() {
@@ -92,8 +99,10 @@ public class Configuration {
         this.outputFolderName = configuration.getOutputFolderName();
         this.objective = configuration.getObjective();
         this.objectiveClass = configuration.getObjectiveClass();
+        this.objectiveParameters = configuration.getObjectiveParameters();
         this.evaluator = configuration.getEvaluator();
         this.evaluatorClass = configuration.getEvaluatorClass();
+        this.evaluatorParameters = configuration.getEvaluatorParameters();
         this.strategy = configuration.getStrategy();
         this.strategyClass = configuration.getStrategyClass();
         this.strategyParameters = configuration.getStrategyParameters();
@@ -108,6 +117,8 @@ public class Configuration {
         this.bestSelectorParameters = configuration.getBestSelectorParameters();
         this.forestBuilder = configuration.getForestBuilder();
         this.generations = configuration.getGenerations();
+        this.coordinator = configuration.getCoordinator();
+        this.checkpoints = configuration.getCheckpoints();
     }
 
     
@@ -129,6 +140,8 @@ public class Configuration {
         this.postprocessor = buildpostProcessor();
         this.bestSelector = buildBestSelector(); 
         this.forestBuilder = buildForestBuilder();
+        this.coordinator = new ExperimentCoordinator();
+        this.checkpoints = CheckpointStore.fromParameters(this.outputFolder, this.strategyParameters);
     }
 
     public int getGenerations() {
@@ -183,6 +196,14 @@ public class Configuration {
     public void setEvaluatorClass(String evaluatorClass) {
         this.evaluatorClass = evaluatorClass;
     }
+
+    public Map<String, String> getEvaluatorParameters() {
+        return evaluatorParameters;
+    }
+
+    public void setEvaluatorParameters(Map<String, String> evaluatorParameters) {
+        this.evaluatorParameters = evaluatorParameters;
+    }
     
     public String getStrategyClass() {
         return strategyClass;
@@ -247,6 +268,14 @@ public class Configuration {
     public void setObjectiveClass(String objectiveClass) {
         this.objectiveClass = objectiveClass;
     }
+
+    public Map<String, String> getObjectiveParameters() {
+        return objectiveParameters;
+    }
+
+    public void setObjectiveParameters(Map<String, String> objectiveParameters) {
+        this.objectiveParameters = objectiveParameters;
+    }
     
     public CoevolutionaryEvaluator getEvaluator() {
         return evaluator;
@@ -356,6 +385,36 @@ public class Configuration {
     public void setForestBuilder(ForestBuilder forestBuilder) {
         this.forestBuilder = forestBuilder;
     }
+
+    /**
+     * @return the coordinator of the experiment, created on first request when
+     * the configuration has not been set up
+     */
+    public synchronized ExperimentCoordinator getCoordinator() {
+        if (coordinator == null) {
+            coordinator = new ExperimentCoordinator();
+        }
+        return coordinator;
+    }
+
+    public synchronized void setCoordinator(ExperimentCoordinator coordinator) {
+        this.coordinator = coordinator;
+    }
+
+    /**
+     * @return the checkpoints of the experiment, created on first request when
+     * the configuration has not been set up
+     */
+    public synchronized CheckpointStore getCheckpoints() {
+        if (checkpoints == null) {
+            checkpoints = CheckpointStore.fromParameters(outputFolder, strategyParameters);
+        }
+        return checkpoints;
+    }
+
+    public synchronized void setCheckpoints(CheckpointStore checkpoints) {
+        this.checkpoints = checkpoints;
+    }
         
     
     
@@ -373,7 +432,8 @@ public class Configuration {
     }
     
     private CoevolutionaryEvaluator buildEvaluator() {
-        Map<String, String> parameters = Collections.emptyMap();
+        Map<String, String> parameters = this.evaluatorParameters;
+        parameters = parameters == null ? Collections.<String, String>emptyMap() : parameters;
 
         try {
             Class<? extends CoevolutionaryEvaluator> operatorClass = Class.forName(this.evaluatorClass).asSubclass(CoevolutionaryEvaluator.class);
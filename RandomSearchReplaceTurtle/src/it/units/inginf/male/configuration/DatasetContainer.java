@@ -253,9 +253,7 @@ public class DatasetContainer {
         this.validationDataset.updateStats();
         this.testingDataset.updateStats();
 
-        this.learningDataset = new DataSetReplace("learning");
-        this.learningDataset.getExamples().addAll(this.trainingDataset.getExamples());
-        this.learningDataset.getExamples().addAll(this.validationDataset.getExamples());
+        this.learningDataset = DataSetReplace.concat("learning", this.trainingDataset, this.validationDataset);
         this.learningDataset.updateStats();
 
     }
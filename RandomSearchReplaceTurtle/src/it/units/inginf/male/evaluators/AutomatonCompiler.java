@@ -0,0 +1,701 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles a search regex to an AutomatonProgram. Only the subset of the
+ * java.util.regex syntax on which a Pike VM finds the same first match of the
+ * backtracking engine is accepted: literals, escapes, character classes,
+ * <code>.</code>, <code>^</code>, <code>$</code>, <code>\b</code>, capturing
+ * and non capturing groups, alternations, greedy quantifiers over expressions
+ * which do not match the empty string (the automaton would try the following
+ * alternatives before leaving the loop), possessive quantifiers over fixed
+ * sequences of chars without groups.
+ * Anything else (backreferences, lookarounds, lazy quantifiers, nested
+ * classes, ...) is rejected and the regex is left to java.util.regex.
+ * The regex is parsed from its description rather than from the tree: the
+ * description does not always nest the operators like the tree does (e.g. an
+ * Or inside a Concatenator), and the description is what the fitness is
+ * computed on.
+ */
+final class AutomatonCompiler {
+
+    static final int MAX_PROGRAM_SIZE = 4096;
+    private static final int MAX_REPETITIONS = 1000;
+    private static final int CHARS = Character.MAX_VALUE + 1;
+
+    private static final BitSet DIGITS = new BitSet();
+    private static final BitSet WORDS = new BitSet();
+    private static final BitSet SPACES = new BitSet();
+    private static final BitSet DOT = new BitSet();
+
+    static {
+        DIGITS.set('0', '9' + 1);
+        WORDS.set('a', 'z' + 1);
+        WORDS.set('A', 'Z' + 1);
+        WORDS.or(DIGITS);
+        WORDS.set('_');
+        for (char c : " \t\n\u000B\f\r".toCharArray()) {
+            SPACES.set(c);
+        }
+        DOT.set(0, CHARS);
+        for (char c : "\n\r\u0085".toCharArray()) {
+            DOT.clear(c);
+        }
+        DOT.clear(0x2028, 0x2029 + 1);
+    }
+
+    private static final class UnsupportedException extends RuntimeException {
+
+        UnsupportedException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final UnsupportedException UNSUPPORTED = new UnsupportedException();
+
+    private final String regex;
+    private int position = 0;
+    private int groups = 0;
+    private int size = 0;
+    private int[] op = new int[64];
+    private int[] x = new int[64];
+    private int[] y = new int[64];
+    private final List<AutomatonProgram.CharSet> sets = new ArrayList<>();
+    private final List<AutomatonProgram.CharSet[]> guards = new ArrayList<>();
+
+    private AutomatonCompiler(String regex) {
+        this.regex = regex;
+    }
+
+    /**
+     * @param pattern a valid regex
+     * @return the program, null when the regex is not supported
+     */
+    static AutomatonProgram compile(Pattern pattern) {
+        AutomatonCompiler compiler = new AutomatonCompiler(pattern.pattern());
+        try {
+            Expr expr = compiler.parse();
+            if (compiler.groups != pattern.matcher("").groupCount()) {
+                return null;
+            }
+            compiler.emit(AutomatonProgram.SAVE, 0, 0);
+            expr.emit(compiler);
+            compiler.emit(AutomatonProgram.SAVE, 1, 0);
+            compiler.emit(AutomatonProgram.MATCH, 0, 0);
+        } catch (UnsupportedException ex) {
+            return null;
+        }
+        return new AutomatonProgram(Arrays.copyOf(compiler.op, compiler.size), Arrays.copyOf(compiler.x, compiler.size), Arrays.copyOf(compiler.y, compiler.size),
+                compiler.sets.toArray(new AutomatonProgram.CharSet[compiler.sets.size()]),
+                compiler.guards.toArray(new AutomatonProgram.CharSet[compiler.guards.size()][]), compiler.groups, pattern);
+    }
+
+    private int emit(int instruction, int first, int second) {
+        if (size == MAX_PROGRAM_SIZE) {
+            throw UNSUPPORTED;
+        }
+        if (size == op.length) {
+            op = Arrays.copyOf(op, size * 2);
+            x = Arrays.copyOf(x, size * 2);
+            y = Arrays.copyOf(y, size * 2);
+        }
+        op[size] = instruction;
+        x[size] = first;
+        y[size] = second;
+        return size++;
+    }
+
+    private Expr parse() {
+        Expr expr = parseAlternation();
+        if (position < regex.length()) {
+            throw UNSUPPORTED;
+        }
+        return expr;
+    }
+
+    private boolean peek(char c) {
+        return position < regex.length() && regex.charAt(position) == c;
+    }
+
+    private char next() {
+        if (position >= regex.length()) {
+            throw UNSUPPORTED;
+        }
+        return regex.charAt(position++);
+    }
+
+    private Expr parseAlternation() {
+        List<Expr> alternatives = new ArrayList<>();
+        alternatives.add(parseSequence());
+        while (peek('|')) {
+            position++;
+            alternatives.add(parseSequence());
+        }
+        return alternatives.size() == 1 ? alternatives.get(0) : new Alternation(alternatives);
+    }
+
+    private Expr parseSequence() {
+        List<Expr> items = new ArrayList<>();
+        while (position < regex.length() && !peek('|') && !peek(')')) {
+            items.add(parseQuantifier(parseAtom()));
+        }
+        return items.size() == 1 ? items.get(0) : new Sequence(items);
+    }
+
+    private Expr parseAtom() {
+        char c = next();
+        switch (c) {
+            case '(':
+                int group = 0;
+                if (peek('?')) {
+                    position++;
+                    if (next() != ':') {
+                        throw UNSUPPORTED;
+                    }
+                } else {
+                    group = ++groups;
+                }
+                Expr child = parseAlternation();
+                if (next() != ')') {
+                    throw UNSUPPORTED;
+                }
+                if (group > 0) {
+                    return new Capture(group, child);
+                }
+                //(?:(x))* is not (x)* for the repetitions
+                return child instanceof Capture ? new Sequence(Collections.singletonList(child)) : child;
+            case '[':
+                return new CharClass(parseClass());
+            case '.':
+                return new CharClass(DOT);
+            case '^':
+                return new Assertion(AutomatonProgram.BEGIN);
+            case '$':
+                return new Assertion(AutomatonProgram.END);
+            case '\\':
+                char escaped = next();
+                if (escaped == 'b') {
+                    return new Assertion(AutomatonProgram.WORD_BOUNDARY);
+                }
+                if (escaped == 'B') {
+                    return new Assertion(AutomatonProgram.NOT_WORD_BOUNDARY);
+                }
+                return new CharClass(escapeSet(escaped));
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+            case '}':
+            case ']':
+                throw UNSUPPORTED;
+            default:
+                return new CharClass(single(literal(c)));
+        }
+    }
+
+    private BitSet parseClass() {
+        BitSet set = new BitSet();
+        boolean negated = false;
+        if (peek('^')) {
+            position++;
+            negated = true;
+        }
+        if (peek(']')) {
+            throw UNSUPPORTED;
+        }
+        boolean first = true;
+        for (char c = next(); c != ']'; c = next(), first = false) {
+            if (c == '[' || (c == '&' && peek('&'))) {
+                throw UNSUPPORTED;
+            }
+            if (c == '-') {
+                //a literal only at the edges of the class
+                if (!first && !peek(']')) {
+                    throw UNSUPPORTED;
+                }
+                set.set('-');
+                continue;
+            }
+            int low;
+            if (c == '\\') {
+                char escaped = next();
+                if (isClassEscape(escaped)) {
+                    set.or(escapeSet(escaped));
+                    continue;
+                }
+                low = escapedChar(escaped);
+            } else {
+                low = literal(c);
+            }
+            if (peek('-') && position + 1 < regex.length() && regex.charAt(position + 1) != ']') {
+                position++;
+                char h = next();
+                int high = h == '\\' ? escapedChar(next()) : literal(h);
+                if (h == '[' || high < low) {
+                    throw UNSUPPORTED;
+                }
+                set.set(low, high + 1);
+            } else {
+                set.set(low);
+            }
+        }
+        if (negated) {
+            set.flip(0, CHARS);
+        }
+        return set;
+    }
+
+    private Expr parseQuantifier(Expr atom) {
+        if (position >= regex.length()) {
+            return atom;
+        }
+        int min;
+        int max;
+        char quantifier = regex.charAt(position);
+        switch (quantifier) {
+            case '*':
+                min = 0;
+                max = -1;
+                break;
+            case '+':
+                min = 1;
+                max = -1;
+                break;
+            case '?':
+                min = 0;
+                max = 1;
+                break;
+            case '{':
+                position++;
+                min = parseNumber();
+                max = min;
+                if (peek(',')) {
+                    position++;
+                    max = peek('}') ? -1 : parseNumber();
+                }
+                if (!peek('}')) {
+                    throw UNSUPPORTED;
+                }
+                break;
+            default:
+                return atom;
+        }
+        position++;
+        boolean possessive = false;
+        if (peek('+')) {
+            possessive = true;
+            position++;
+        } else if (peek('?')) {
+            throw UNSUPPORTED;
+        }
+        if (peek('*') || peek('+') || peek('?') || peek('{')) {
+            throw UNSUPPORTED;
+        }
+        if (atom instanceof Assertion || (max != -1 && max < min)) {
+            throw UNSUPPORTED;
+        }
+        //java.util.regex stops repeating after an empty iteration, even below the minimum
+        if (atom.isNullable() && quantifier != '?') {
+            throw UNSUPPORTED;
+        }
+        return new Repeat(atom, min, max, possessive);
+    }
+
+    private int parseNumber() {
+        int value = 0;
+        int digits = 0;
+        while (position < regex.length() && Character.isDigit(regex.charAt(position)) && regex.charAt(position) < 128) {
+            value = value * 10 + regex.charAt(position++) - '0';
+            if (++digits > 4 || value > MAX_REPETITIONS) {
+                throw UNSUPPORTED;
+            }
+        }
+        if (digits == 0) {
+            throw UNSUPPORTED;
+        }
+        return value;
+    }
+
+    private static boolean isClassEscape(char c) {
+        return "dDwWsS".indexOf(c) >= 0;
+    }
+
+    private static BitSet escapeSet(char c) {
+        switch (c) {
+            case 'd':
+                return DIGITS;
+            case 'w':
+                return WORDS;
+            case 's':
+                return SPACES;
+            case 'D':
+                return complement(DIGITS);
+            case 'W':
+                return complement(WORDS);
+            case 'S':
+                return complement(SPACES);
+            default:
+                return single(escapedChar(c));
+        }
+    }
+
+    private static int escapedChar(char c) {
+        switch (c) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case 'a':
+                return '\u0007';
+            case 'e':
+                return '\u001B';
+        }
+        if (Character.isLetterOrDigit(c)) {
+            throw UNSUPPORTED;
+        }
+        return literal(c);
+    }
+
+    private static int literal(char c) {
+        if (Character.isSurrogate(c)) {
+            throw UNSUPPORTED;
+        }
+        return c;
+    }
+
+    private static BitSet single(int c) {
+        BitSet set = new BitSet();
+        set.set(c);
+        return set;
+    }
+
+    private static BitSet complement(BitSet set) {
+        BitSet complement = (BitSet) set.clone();
+        complement.flip(0, CHARS);
+        return complement;
+    }
+
+    private static abstract class Expr {
+
+        abstract boolean isNullable();
+
+        abstract boolean hasCaptures();
+
+        /**
+         * @return the set matched by each char, null when the expression does
+         * not match a fixed sequence of chars
+         */
+        abstract List<AutomatonProgram.CharSet> fixedSets();
+
+        abstract void emit(AutomatonCompiler compiler);
+    }
+
+    private static class CharClass extends Expr {
+
+        private final AutomatonProgram.CharSet set;
+        private int index = -1;
+
+        CharClass(BitSet chars) {
+            this.set = new AutomatonProgram.CharSet(chars);
+        }
+
+        @Override
+        boolean isNullable() {
+            return false;
+        }
+
+        @Override
+        boolean hasCaptures() {
+            return false;
+        }
+
+        @Override
+        List<AutomatonProgram.CharSet> fixedSets() {
+            List<AutomatonProgram.CharSet> fixed = new ArrayList<>();
+            fixed.add(set);
+            return fixed;
+        }
+
+        @Override
+        void emit(AutomatonCompiler compiler) {
+            if (index < 0) {
+                index = compiler.sets.size();
+                compiler.sets.add(set);
+            }
+            compiler.emit(AutomatonProgram.CHAR, index, 0);
+        }
+    }
+
+    private static class Assertion extends Expr {
+
+        private final int assertion;
+
+        Assertion(int assertion) {
+            this.assertion = assertion;
+        }
+
+        @Override
+        boolean isNullable() {
+            return true;
+        }
+
+        @Override
+        boolean hasCaptures() {
+            return false;
+        }
+
+        @Override
+        List<AutomatonProgram.CharSet> fixedSets() {
+            return null;
+        }
+
+        @Override
+        void emit(AutomatonCompiler compiler) {
+            compiler.emit(AutomatonProgram.ASSERT, assertion, 0);
+        }
+    }
+
+    private static class Sequence extends Expr {
+
+        private final List<Expr> items;
+
+        Sequence(List<Expr> items) {
+            this.items = items;
+        }
+
+        @Override
+        boolean isNullable() {
+            for (Expr item : items) {
+                if (!item.isNullable()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        boolean hasCaptures() {
+            for (Expr item : items) {
+                if (item.hasCaptures()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        List<AutomatonProgram.CharSet> fixedSets() {
+            List<AutomatonProgram.CharSet> fixed = new ArrayList<>();
+            for (Expr item : items) {
+                List<AutomatonProgram.CharSet> itemSets = item.fixedSets();
+                if (itemSets == null) {
+                    return null;
+                }
+                fixed.addAll(itemSets);
+            }
+            return fixed;
+        }
+
+        @Override
+        void emit(AutomatonCompiler compiler) {
+            for (Expr item : items) {
+                item.emit(compiler);
+            }
+        }
+    }
+
+    private static class Alternation extends Expr {
+
+        private final List<Expr> alternatives;
+
+        Alternation(List<Expr> alternatives) {
+            this.alternatives = alternatives;
+        }
+
+        @Override
+        boolean isNullable() {
+            for (Expr alternative : alternatives) {
+                if (alternative.isNullable()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        boolean hasCaptures() {
+            for (Expr alternative : alternatives) {
+                if (alternative.hasCaptures()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        List<AutomatonProgram.CharSet> fixedSets() {
+            return null;
+        }
+
+        @Override
+        void emit(AutomatonCompiler compiler) {
+            List<Integer> jumps = new ArrayList<>();
+            for (int a = 0; a < alternatives.size() - 1; a++) {
+                int split = compiler.emit(AutomatonProgram.SPLIT, compiler.size + 1, 0);
+                alternatives.get(a).emit(compiler);
+                jumps.add(compiler.emit(AutomatonProgram.JMP, 0, 0));
+                compiler.y[split] = compiler.size;
+            }
+            alternatives.get(alternatives.size() - 1).emit(compiler);
+            for (int jump : jumps) {
+                compiler.x[jump] = compiler.size;
+            }
+        }
+    }
+
+    private static class Capture extends Expr {
+
+        private final int group;
+        private final Expr child;
+
+        Capture(int group, Expr child) {
+            this.group = group;
+            this.child = child;
+        }
+
+        @Override
+        boolean isNullable() {
+            return child.isNullable();
+        }
+
+        @Override
+        boolean hasCaptures() {
+            return true;
+        }
+
+        @Override
+        List<AutomatonProgram.CharSet> fixedSets() {
+            return child.fixedSets();
+        }
+
+        @Override
+        void emit(AutomatonCompiler compiler) {
+            compiler.emit(AutomatonProgram.SAVE, 2 * group, 0);
+            child.emit(compiler);
+            compiler.emit(AutomatonProgram.SAVE, 2 * group + 1, 0);
+        }
+    }
+
+    /**
+     * Repetitions of an expression with capturing groups, other than the
+     * repeated group itself, are rejected: java.util.regex does not restore
+     * those groups when it backs off the iterations of a deterministic body,
+     * and reports the groups of the abandoned iterations. Possessive
+     * repetitions do not restore the repeated group either.
+     * A possessive repetition of a fixed sequence of chars takes as many
+     * repetitions as possible: the automaton exits the loop only when the
+     * next chars do not match the sequence.
+     */
+    private static class Repeat extends Expr {
+
+        private final Expr child;
+        private final int min;
+        private final int max;
+        private final boolean possessive;
+        private final List<AutomatonProgram.CharSet> sequence;
+
+        Repeat(Expr child, int min, int max, boolean possessive) {
+            this.child = child;
+            this.min = min;
+            this.max = max;
+            this.possessive = possessive;
+            if (possessive ? child.hasCaptures() : (child instanceof Capture ? ((Capture) child).child : child).hasCaptures()) {
+                throw UNSUPPORTED;
+            }
+            if (possessive) {
+                this.sequence = child.fixedSets();
+                if (sequence == null || sequence.isEmpty()) {
+                    throw UNSUPPORTED;
+                }
+            } else {
+                this.sequence = null;
+            }
+        }
+
+        @Override
+        boolean isNullable() {
+            return min == 0 || child.isNullable();
+        }
+
+        @Override
+        boolean hasCaptures() {
+            return child.hasCaptures();
+        }
+
+        @Override
+        List<AutomatonProgram.CharSet> fixedSets() {
+            return null;
+        }
+
+        @Override
+        void emit(AutomatonCompiler compiler) {
+            for (int i = 0; i < min; i++) {
+                child.emit(compiler);
+            }
+            List<Integer> exits = new ArrayList<>();
+            if (max == -1) {
+                int loop = compiler.emit(AutomatonProgram.SPLIT, compiler.size + 1, 0);
+                child.emit(compiler);
+                compiler.emit(AutomatonProgram.JMP, loop, 0);
+                exits.add(loop);
+            } else {
+                for (int i = min; i < max; i++) {
+                    exits.add(compiler.emit(AutomatonProgram.SPLIT, compiler.size + 1, 0));
+                    child.emit(compiler);
+                }
+            }
+            int end;
+            if (possessive) {
+                int jump = max == -1 ? -1 : compiler.emit(AutomatonProgram.JMP, 0, 0);
+                int guard = compiler.emit(AutomatonProgram.GUARD, compiler.guards.size(), 0);
+                compiler.guards.add(sequence.toArray(new AutomatonProgram.CharSet[sequence.size()]));
+                if (jump >= 0) {
+                    compiler.x[jump] = compiler.size;
+                }
+                end = guard;
+            } else {
+                end = compiler.size;
+            }
+            for (int exit : exits) {
+                compiler.y[exit] = end;
+            }
+        }
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.regex.Pattern;
+
+/**
+ * A search regex compiled by the AutomatonCompiler to a Thompson NFA, matched
+ * by a Pike VM: all the threads advance together over the text, each char is
+ * read once and the matching time is linear in the text length whatever the
+ * regex is. Threads are kept in priority order and each one carries its
+ * capture slots, so the first match and its groups are the same the
+ * backtracking engine finds.
+ * The texts which the automaton does not read like java.util.regex (surrogate
+ * pairs, or non ASCII chars when the regex has word boundaries) are matched by
+ * the Pattern the program has been compiled from.
+ */
+final class AutomatonProgram implements RegexEngine.Regex {
+
+    static final int CHAR = 0;
+    static final int SPLIT = 1;
+    static final int JMP = 2;
+    static final int SAVE = 3;
+    static final int ASSERT = 4;
+    static final int GUARD = 5;
+    static final int MATCH = 6;
+
+    static final int BEGIN = 0;
+    static final int END = 1;
+    static final int WORD_BOUNDARY = 2;
+    static final int NOT_WORD_BOUNDARY = 3;
+
+    //op: the instruction; x: the char set, the first target, the slot, the assertion or the guard; y: the second target
+    private final int[] op;
+    private final int[] x;
+    private final int[] y;
+    private final CharSet[] sets;
+    //a guard succeeds when the next chars are not matched by its sequence of sets
+    private final CharSet[][] guards;
+    private final int groupCount;
+    private final boolean wordBoundaries;
+    private final Pattern fallback;
+
+    AutomatonProgram(int[] op, int[] x, int[] y, CharSet[] sets, CharSet[][] guards, int groupCount, Pattern fallback) {
+        this.op = op;
+        this.x = x;
+        this.y = y;
+        this.sets = sets;
+        this.guards = guards;
+        this.groupCount = groupCount;
+        this.fallback = fallback;
+        boolean boundaries = false;
+        for (int pc = 0; pc < op.length; pc++) {
+            boundaries |= op[pc] == ASSERT && (x[pc] == WORD_BOUNDARY || x[pc] == NOT_WORD_BOUNDARY);
+        }
+        this.wordBoundaries = boundaries;
+    }
+
+    int size() {
+        return op.length;
+    }
+
+    @Override
+    public int groupCount() {
+        return groupCount;
+    }
+
+    @Override
+    public RegexEngine.Finder finder() {
+        return new AutomatonFinder();
+    }
+
+    /**
+     * A set of BMP chars, with a bitmap for the ASCII ones.
+     */
+    static final class CharSet {
+
+        private final long low;
+        private final long high;
+        //sorted and disjoint inclusive ranges of the chars over 127
+        private final int[] ranges;
+
+        CharSet(BitSet chars) {
+            long l = 0;
+            long h = 0;
+            for (int c = chars.nextSetBit(0); c >= 0 && c < 128; c = chars.nextSetBit(c + 1)) {
+                if (c < 64) {
+                    l |= 1L << c;
+                } else {
+                    h |= 1L << (c - 64);
+                }
+            }
+            this.low = l;
+            this.high = h;
+            int[] r = new int[16];
+            int size = 0;
+            for (int from = chars.nextSetBit(128); from >= 0; from = chars.nextSetBit(from + 1)) {
+                int to = chars.nextClearBit(from) - 1;
+                if (size + 2 > r.length) {
+                    r = Arrays.copyOf(r, r.length * 2);
+                }
+                r[size++] = from;
+                r[size++] = to;
+                from = to;
+            }
+            this.ranges = Arrays.copyOf(r, size);
+        }
+
+        boolean contains(int c) {
+            if (c < 64) {
+                return (low & (1L << c)) != 0;
+            }
+            if (c < 128) {
+                return (high & (1L << (c - 64))) != 0;
+            }
+            int lo = 0;
+            int hi = ranges.length / 2 - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                if (c < ranges[2 * mid]) {
+                    hi = mid - 1;
+                } else if (c > ranges[2 * mid + 1]) {
+                    lo = mid + 1;
+                } else {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class FallbackException extends RuntimeException {
+
+        FallbackException() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final FallbackException FALLBACK = new FallbackException();
+
+    private static boolean isWordChar(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+
+    /**
+     * The threads at a position of the text, in priority order. The pcs
+     * visited while adding them are marked, so each instruction is reached
+     * once per position.
+     */
+    private final class ThreadList {
+
+        private final int[] pcs = new int[op.length];
+        private final int[] caps;
+        private final int[] marks = new int[op.length];
+        private int generation = 1;
+        private int size = 0;
+
+        ThreadList(int slots) {
+            this.caps = new int[op.length * slots];
+        }
+
+        void clear() {
+            size = 0;
+            generation++;
+        }
+
+        boolean mark(int pc) {
+            if (marks[pc] == generation) {
+                return false;
+            }
+            marks[pc] = generation;
+            return true;
+        }
+    }
+
+    private final class AutomatonFinder implements RegexEngine.Finder {
+
+        private final int slots = 2 * (groupCount + 1);
+        private ThreadList current = new ThreadList(slots);
+        private ThreadList next = new ThreadList(slots);
+        //explore frames are pcs, restore frames are the old value followed by -1 - slot
+        private final int[] stack = new int[2 * op.length + 2];
+        private final int[] caps = new int[slots];
+        private final int[] match = new int[slots];
+        //the chars read at the last positions, indexed by position modulo 4
+        private final int[] readPositions = new int[4];
+        private final int[] readChars = new int[4];
+        private CharSequence text;
+        private int length;
+        private RegexEngine.Finder fallbackFinder;
+        private boolean fellBack;
+
+        @Override
+        public boolean find(CharSequence text) {
+            fellBack = false;
+            try {
+                return run(text);
+            } catch (FallbackException ex) {
+                fellBack = true;
+                if (fallbackFinder == null) {
+                    fallbackFinder = JavaRegexEngine.wrap(fallback).finder();
+                }
+                return fallbackFinder.find(text);
+            } finally {
+                this.text = null;
+            }
+        }
+
+        @Override
+        public int start(int group) {
+            return fellBack ? fallbackFinder.start(group) : match[2 * group];
+        }
+
+        @Override
+        public int end(int group) {
+            return fellBack ? fallbackFinder.end(group) : match[2 * group + 1];
+        }
+
+        private boolean run(CharSequence text) {
+            this.text = text;
+            this.length = text.length();
+            Arrays.fill(readPositions, -1);
+            current.clear();
+            boolean matched = false;
+            for (int i = 0; i <= length; i++) {
+                if (!matched) {
+                    Arrays.fill(caps, -1);
+                    add(current, 0, i);
+                }
+                if (current.size == 0) {
+                    if (matched) {
+                        break;
+                    }
+                    current.clear();
+                    continue;
+                }
+                int c = i < length ? read(i) : -1;
+                next.clear();
+                for (int t = 0; t < current.size; t++) {
+                    int pc = current.pcs[t];
+                    if (op[pc] == MATCH) {
+                        System.arraycopy(current.caps, t * slots, match, 0, slots);
+                        matched = true;
+                        //the threads after this one have a lower priority
+                        break;
+                    }
+                    if (c >= 0 && sets[x[pc]].contains(c)) {
+                        System.arraycopy(current.caps, t * slots, caps, 0, slots);
+                        add(next, pc + 1, i + 1);
+                    }
+                }
+                ThreadList swap = current;
+                current = next;
+                next = swap;
+            }
+            return matched;
+        }
+
+        /**
+         * Adds to the list the threads reached from pc without reading chars,
+         * with the captures in caps.
+         */
+        private void add(ThreadList list, int start, int position) {
+            int top = 0;
+            stack[top++] = start;
+            while (top > 0) {
+                int pc = stack[--top];
+                if (pc < 0) {
+                    caps[-1 - pc] = stack[--top];
+                    continue;
+                }
+                while (list.mark(pc)) {
+                    switch (op[pc]) {
+                        case JMP:
+                            pc = x[pc];
+                            continue;
+                        case SPLIT:
+                            stack[top++] = y[pc];
+                            pc = x[pc];
+                            continue;
+                        case SAVE:
+                            stack[top++] = caps[x[pc]];
+                            stack[top++] = -1 - x[pc];
+                            caps[x[pc]] = position;
+                            pc++;
+                            continue;
+                        case ASSERT:
+                            if (!check(x[pc], position)) {
+                                break;
+                            }
+                            pc++;
+                            continue;
+                        case GUARD:
+                            if (!guard(guards[x[pc]], position)) {
+                                break;
+                            }
+                            pc++;
+                            continue;
+                        default:
+                            list.pcs[list.size] = pc;
+                            System.arraycopy(caps, 0, list.caps, list.size * slots, slots);
+                            list.size++;
+                    }
+                    break;
+                }
+            }
+        }
+
+        private boolean check(int assertion, int position) {
+            switch (assertion) {
+                case BEGIN:
+                    return position == 0;
+                case END:
+                    if (position == length) {
+                        return true;
+                    }
+                    if (position == length - 2) {
+                        return read(position) == '\r' && read(position + 1) == '\n';
+                    }
+                    if (position == length - 1) {
+                        int c = read(position);
+                        if (c == '\n') {
+                            return position == 0 || read(position - 1) != '\r';
+                        }
+                        return c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+                    }
+                    return false;
+                case WORD_BOUNDARY:
+                    return isWord(position - 1) != isWord(position);
+                default:
+                    return isWord(position - 1) == isWord(position);
+            }
+        }
+
+        private boolean isWord(int position) {
+            return position >= 0 && position < length && isWordChar(read(position));
+        }
+
+        private boolean guard(CharSet[] sequence, int position) {
+            if (position + sequence.length > length) {
+                return true;
+            }
+            for (int j = 0; j < sequence.length; j++) {
+                if (!sequence[j].contains(read(position + j))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int read(int position) {
+            int slot = position & 3;
+            if (readPositions[slot] == position) {
+                return readChars[slot];
+            }
+            char c = text.charAt(position);
+            if (Character.isSurrogate(c) || (wordBoundaries && c >= 128)) {
+                throw FALLBACK;
+            }
+            readPositions[slot] = position;
+            readChars[slot] = c;
+            return c;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Backreference;
+import it.units.inginf.male.tree.operator.Lookaround;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Matches the search regexes without backreferences and lookarounds with a
+ * Pike VM, in linear time on the length of the examples; the other regexes,
+ * and those the AutomatonCompiler does not support, are matched by
+ * java.util.regex.
+ */
+public class AutomatonRegexEngine implements RegexEngine {
+
+    private final AtomicLong automata = new AtomicLong(0);
+    private final AtomicLong fallbacks = new AtomicLong(0);
+
+    /**
+     * @param tree the search regex tree, null when only the description is
+     * known
+     */
+    @Override
+    public Regex compile(Node tree, Pattern pattern) {
+        if (tree == null || !needsBacktracking(tree)) {
+            AutomatonProgram program = AutomatonCompiler.compile(pattern);
+            if (program != null) {
+                automata.incrementAndGet();
+                return program;
+            }
+        }
+        fallbacks.incrementAndGet();
+        return JavaRegexEngine.wrap(pattern);
+    }
+
+    private static boolean needsBacktracking(Node node) {
+        if (node instanceof Backreference || node instanceof Lookaround) {
+            return true;
+        }
+        for (Node child : node.getChildrens()) {
+            if (needsBacktracking(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the regexes compiled to an automaton
+     */
+    public long getAutomata() {
+        return automata.get();
+    }
+
+    /**
+     * @return the regexes left to java.util.regex
+     */
+    public long getFallbacks() {
+        return fallbacks.get();
+    }
+
+    @Override
+    public String toString() {
+        return "automata: " + getAutomata() + ", fallbacks: " + getFallbacks();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+/**
+ * The text of an example as seen by a Matcher, with a bound on the work the
+ * regex engine can do on it: every charAt is a step, a match which exceeds the
+ * step budget of the example, which grows with its length, or the time budget
+ * of all the matches done through this sequence, is aborted with a
+ * BudgetExceededException.
+ * Regexes with nested quantifiers can backtrack for an exponential number of
+ * steps, this way a single individual cannot stall an evaluation thread.
+ * Not thread safe, each Matcher has its own sequence.
+ */
+class BudgetedCharSequence implements CharSequence {
+
+    //the clock is read once every 4096 steps
+    private static final int CLOCK_MASK = 0xFFF;
+
+    private final long stepBudget;
+    private final long stepsPerChar;
+    private final long timeBudgetNanos;
+    private String text = "";
+    private long steps;
+    private long exampleStepBudget;
+    private long startNanos;
+    private long elapsedNanos;
+
+    /**
+     * @param stepBudget the maximum number of steps of a match on an empty
+     * example, 0 or negative values disable the step budget
+     * @param stepsPerChar the steps added to the budget of a match for each
+     * char of the example
+     * @param timeBudgetNanos the maximum time spent in the matches done through
+     * this sequence, 0 or negative values disable it
+     */
+    BudgetedCharSequence(long stepBudget, long stepsPerChar, long timeBudgetNanos) {
+        this.stepBudget = stepBudget > 0 ? stepBudget : Long.MAX_VALUE;
+        this.stepsPerChar = Math.max(stepsPerChar, 0);
+        this.exampleStepBudget = this.stepBudget;
+        this.timeBudgetNanos = timeBudgetNanos > 0 ? timeBudgetNanos : Long.MAX_VALUE;
+    }
+
+    /**
+     * Starts the match of a new example, the time of the previous match is
+     * charged to the time budget.
+     * @param text the string of the example
+     * @return this sequence
+     */
+    BudgetedCharSequence reset(String text) {
+        stop();
+        this.text = text;
+        this.steps = 0;
+        if (stepBudget != Long.MAX_VALUE) {
+            exampleStepBudget = stepBudget + stepsPerChar * text.length();
+        }
+        this.startNanos = System.nanoTime();
+        return this;
+    }
+
+    /**
+     * Charges the time of the current match to the time budget.
+     */
+    void stop() {
+        if (startNanos != 0) {
+            elapsedNanos += System.nanoTime() - startNanos;
+            startNanos = 0;
+        }
+    }
+
+    @Override
+    public char charAt(int index) {
+        steps++;
+        if (steps > exampleStepBudget) {
+            throw new BudgetExceededException();
+        }
+        if ((steps & CLOCK_MASK) == 0 && timeBudgetNanos != Long.MAX_VALUE
+                && elapsedNanos + System.nanoTime() - startNanos > timeBudgetNanos) {
+            throw new BudgetExceededException();
+        }
+        return text.charAt(index);
+    }
+
+    @Override
+    public int length() {
+        return text.length();
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return text.subSequence(start, end);
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * Thrown from inside the regex engine, it unwinds the match without
+     * filling the stack trace.
+     */
+    static class BudgetExceededException extends RuntimeException {
+
+        BudgetExceededException() {
+            super("Match budget exceeded", null, false, false);
+        }
+    }
+}
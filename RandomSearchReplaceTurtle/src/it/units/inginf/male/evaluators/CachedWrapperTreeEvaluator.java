@@ -21,11 +21,10 @@ import it.units.inginf.male.inputs.Context;
 import it.units.inginf.male.inputs.Context.EvaluationPhases;
 import it.units.inginf.male.inputs.Bounds;
 import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.utils.BoundedCache;
 import it.units.inginf.male.utils.Pair;
-import it.units.inginf.male.utils.Triplet;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 
 /**
  *
@@ -33,63 +32,56 @@ import java.util.WeakHashMap;
  */
 public class CachedWrapperTreeEvaluator  implements CachedEvaluator{
 
-    private final WeakHashMap<Pair<EvaluationPhases, String>, List<List<Bounds>>> cache = new WeakHashMap<>();
-    private long hit = 0;
-    private long miss = 0;
+    public static final long DEFAULT_CACHE_SIZE_BYTES = 256L * 1024 * 1024;
+
+    private BoundedCache<Pair<EvaluationPhases, Long>, List<List<Bounds>>> cache = buildCache(DEFAULT_CACHE_SIZE_BYTES);
     private TreeEvaluator treeEvaluator;
 
     public CachedWrapperTreeEvaluator(TreeEvaluator treeEvaluator) {
         this.treeEvaluator = treeEvaluator;
     }
 
+    private static BoundedCache<Pair<EvaluationPhases, Long>, List<List<Bounds>>> buildCache(long sizeBytes) {
+        return new BoundedCache<>(sizeBytes, (key, results) -> {
+            long size = 24 + 16 + 40 + 8 * results.size();
+            for (List<Bounds> exampleResult : results) {
+                size += 40 + 32 * exampleResult.size();
+            }
+            return size;
+        });
+    }
+
     @Override
     public List<List<Bounds>> evaluate(Node root, Context context) throws TreeEvaluationException {
 
-        StringBuilder sb = new StringBuilder();
-        root.describe(sb);
-        List<List<Bounds>> results;
-        Pair<EvaluationPhases, String> key = new Pair<>(context.getPhase(), sb.toString());
-        synchronized (cache) {
-            results = cache.get(key);
-        }
+        Pair<EvaluationPhases, Long> key = new Pair<>(context.getPhase(), root.getFingerprint());
+        List<List<Bounds>> results = cache.get(key);
         if (results != null) {
-            hit++;
             return results;
         }
         
-        miss++;
         results = treeEvaluator.evaluate(root, context);
         
-        synchronized (cache) {
-            cache.put(key, results);
-        }
+        cache.put(key, results);
         return results;
     }
 
     public double getRatio(){
-        return (double)this.hit/(this.hit+this.miss);
+        return cache.getRatio();
     }
     
     public long getCacheSizeBytes(){
-        long cacheSize = 0;
-        for (Map.Entry<Pair<EvaluationPhases, String>, List<List<Bounds>>> entry : cache.entrySet()) {
-            //Triplet<EvaluationPhases, Boolean, String> triplet = entry.getKey();
-            List<List<Bounds>> list = entry.getValue();
-            for (List<Bounds> exampleResult : list) {
-                cacheSize+=exampleResult.size();
-            }            
-        }
-        cacheSize*=(Integer.SIZE/4);
-        return cacheSize;
+        return cache.getCacheSizeBytes();
     }
 
     @Override
     public int getCacheSize() {
-        return cache.size();
+        return cache.getCacheSize();
     }
 
     @Override
     public void setup(Map<String, String> parameters) {
+        this.cache = buildCache(BoundedCache.readSizeBytes(parameters, DEFAULT_CACHE_SIZE_BYTES));
     }
 
     @Override
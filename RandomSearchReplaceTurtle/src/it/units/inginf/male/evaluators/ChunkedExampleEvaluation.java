@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.inputs.ExampleReplace;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies search regexes to the examples of a dataset. Datasets bigger than
+ * the threshold are split in chunks evaluated as fork/join tasks, in the pool
+ * of the calling worker when there is one; each chunk uses its own Matchers.
+ * The results are always in example order.
+ */
+public class ChunkedExampleEvaluation extends RecursiveAction {
+
+    public static final String PARALLEL_THRESHOLD_KEY = "parallelExamplesThreshold";
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 8192;
+    private static final int MIN_CHUNK_SIZE = 512;
+
+    /**
+     * Evaluates a single example with a Matcher owned by the caller.
+     */
+    public interface ExampleEvaluator {
+
+        ReplaceResult evaluate(Matcher matcher, ExampleReplace example);
+    }
+
+    /**
+     * Evaluates a single example with a Matcher owned by the caller and stores
+     * the outcome at the example index.
+     */
+    public interface IndexedExampleEvaluator {
+
+        void evaluate(Matcher matcher, int index, ExampleReplace example);
+    }
+
+    /**
+     * Evaluates the examples in [from, to), the Matchers it needs are created
+     * for the range.
+     */
+    public interface RangeEvaluator {
+
+        void evaluate(int from, int to);
+    }
+
+    private final RangeEvaluator evaluator;
+    private final int from;
+    private final int to;
+    private final int chunkSize;
+
+    private ChunkedExampleEvaluation(RangeEvaluator evaluator, int from, int to, int chunkSize) {
+        this.evaluator = evaluator;
+        this.from = from;
+        this.to = to;
+        this.chunkSize = chunkSize;
+    }
+
+    public static int readThreshold(Map<String, String> parameters) {
+        if (parameters != null && parameters.containsKey(PARALLEL_THRESHOLD_KEY)) {
+            return Integer.valueOf(parameters.get(PARALLEL_THRESHOLD_KEY));
+        }
+        return DEFAULT_PARALLEL_THRESHOLD;
+    }
+
+    /**
+     * @param regex the compiled search regex
+     * @param examples the examples to evaluate
+     * @param threshold the minimum number of examples for a chunked evaluation,
+     * zero or negative values disable it
+     * @param evaluator evaluates a single example
+     * @return the results, in example order
+     */
+    public static List<ReplaceResult> evaluate(Pattern regex, List<ExampleReplace> examples, int threshold, ExampleEvaluator evaluator) {
+        ReplaceResult[] results = new ReplaceResult[examples.size()];
+        evaluate(regex, examples, threshold, (matcher, index, example) -> results[index] = evaluator.evaluate(matcher, example));
+        return new ArrayList<>(Arrays.asList(results));
+    }
+
+    /**
+     * @param regex the compiled search regex
+     * @param examples the examples to evaluate
+     * @param threshold the minimum number of examples for a chunked evaluation,
+     * zero or negative values disable it
+     * @param evaluator evaluates a single example and stores its outcome, the
+     * stores of the chunks are visible to the caller when this method returns
+     */
+    public static void evaluate(Pattern regex, List<ExampleReplace> examples, int threshold, IndexedExampleEvaluator evaluator) {
+        ExampleReplace[] exampleArray = examples.toArray(new ExampleReplace[examples.size()]);
+        evaluate(exampleArray.length, threshold, (from, to) -> {
+            Matcher matcher = regex.matcher("");
+            for (int i = from; i < to; i++) {
+                evaluator.evaluate(matcher, i, exampleArray[i]);
+            }
+        });
+    }
+
+    /**
+     * @param size the number of examples
+     * @param threshold the minimum number of examples for a chunked evaluation,
+     * zero or negative values disable it
+     * @param evaluator evaluates a range of examples, the stores of the chunks
+     * are visible to the caller when this method returns
+     */
+    public static void evaluate(int size, int threshold, RangeEvaluator evaluator) {
+        if (threshold <= 0 || size < threshold) {
+            evaluator.evaluate(0, size);
+            return;
+        }
+        ForkJoinPool pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+        int chunkSize = Math.max(MIN_CHUNK_SIZE, size / (4 * pool.getParallelism()));
+        ChunkedExampleEvaluation task = new ChunkedExampleEvaluation(evaluator, 0, size, chunkSize);
+        if (ForkJoinTask.inForkJoinPool()) {
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= chunkSize) {
+            evaluator.evaluate(from, to);
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new ChunkedExampleEvaluation(evaluator, from, middle, chunkSize),
+                new ChunkedExampleEvaluation(evaluator, middle, to, chunkSize));
+    }
+}
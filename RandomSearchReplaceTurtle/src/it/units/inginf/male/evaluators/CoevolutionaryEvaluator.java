@@ -20,6 +20,7 @@ package it.units.inginf.male.evaluators;
 import it.units.inginf.male.inputs.Context;
 import it.units.inginf.male.coevolution.Forest;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -32,5 +33,34 @@ public interface CoevolutionaryEvaluator<T> {
 
     public void setup(Map<String,String> parameters);
     List<T> evaluate(Forest root, Context context) throws TreeEvaluationException;
-     
+
+    /**
+     * Evaluates a batch of forests, implementations may share work among them
+     * (e.g. a single scan over the examples for all the regexes).
+     * @param forests the forests to evaluate
+     * @param context the evaluation context
+     * @return the results of each forest in the same order, null for the
+     * forests whose evaluation failed
+     */
+    default List<List<T>> evaluateAll(List<Forest> forests, Context context) {
+        List<List<T>> results = new ArrayList<>(forests.size());
+        for (Forest forest : forests) {
+            try {
+                results.add(evaluate(forest, context));
+            } catch (TreeEvaluationException ex) {
+                results.add(null);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Called with forests that are going to be evaluated one at a time, lets
+     * the implementations precompute what they share; by default nothing is
+     * done. It never changes the results of evaluate.
+     * @param forests the forests about to be evaluated
+     * @param context the evaluation context
+     */
+    default void prepare(List<Forest> forests, Context context) {
+    }
 }
@@ -18,73 +18,112 @@
 
 import it.units.inginf.male.inputs.Context;
 import it.units.inginf.male.coevolution.Forest;
+import it.units.inginf.male.utils.BoundedCache;
 import it.units.inginf.male.utils.Pair;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
 
 /**
  * Created by andrea on 21/11/16.
  */
 public class DefaultCachedReplaceEvaluatorFix extends DefaultReplaceEvaluatorFix implements CachedReplaceEvaluator {
 
-    private final WeakHashMap<Pair<Context.EvaluationPhases, String>, List<ReplaceResult>> cache = new WeakHashMap<>();
-    private long hit = 0;
-    private long miss = 0;
+    public static final long DEFAULT_CACHE_SIZE_BYTES = 256L * 1024 * 1024;
+
+    private BoundedCache<Pair<Context.EvaluationPhases, Long>, List<ReplaceResult>> cache = buildCache(DEFAULT_CACHE_SIZE_BYTES);
+
+    private static BoundedCache<Pair<Context.EvaluationPhases, Long>, List<ReplaceResult>> buildCache(long sizeBytes) {
+        return new BoundedCache<>(sizeBytes, (key, results) -> 24 + 16 + ReplaceResults.sizeBytes(results));
+    }
 
     @Override
     public double getRatio(){
-        return (double)this.hit/(this.hit+this.miss);
+        return cache.getRatio();
     }
 
     @Override
     public long getCacheSizeBytes(){
-        long cacheSize = 0;
-        for (Map.Entry<Pair<Context.EvaluationPhases, String>, List<ReplaceResult>> entry : cache.entrySet()) {
-            //Triplet<EvaluationPhases, Boolean, String> triplet = entry.getKey();
-            List<ReplaceResult> list = entry.getValue();
-            for (ReplaceResult exampleResult : list) {
-                cacheSize+=exampleResult.length();
-            }
-        }
-        cacheSize*=(Integer.SIZE/4);
-        return cacheSize;
+        return cache.getCacheSizeBytes();
     }
 
     @Override
     public int getCacheSize() {
-        return cache.size();
+        return cache.getCacheSize();
     }
 
     @Override
     public void setup(Map<String, String> parameters) {
-
+        super.setup(parameters);
+        this.cache = buildCache(BoundedCache.readSizeBytes(parameters, DEFAULT_CACHE_SIZE_BYTES));
     }
 
     @Override
     public List<ReplaceResult> evaluate(Forest root, Context context) throws TreeEvaluationException {
-        StringBuilder sb = new StringBuilder();
-        root.describe(sb);
-        List<ReplaceResult> results;
-        Pair<Context.EvaluationPhases, String> key = new Pair<>(context.getPhase(), sb.toString());
-        synchronized (cache) {
-            results = cache.get(key);
-        }
+        Pair<Context.EvaluationPhases, Long> key = new Pair<>(context.getPhase(), root.getFingerprint());
+        List<ReplaceResult> results = cache.get(key);
         if (results != null) {
-            hit++;
             return results;
         }
 
-        miss++;
         results = super.evaluate(root, context);
 
-        synchronized (cache) {
-            cache.put(key, results);
+        cache.put(key, results);
+        return results;
+    }
+
+    /**
+     * Only the forests missing from the cache are evaluated, as a batch.
+     */
+    @Override
+    public List<List<ReplaceResult>> evaluateAll(List<Forest> forests, Context context) {
+        List<List<ReplaceResult>> results = new ArrayList<>(forests.size());
+        List<Forest> missing = new ArrayList<>();
+        for (Forest forest : forests) {
+            List<ReplaceResult> cached = cache.get(new Pair<>(context.getPhase(), forest.getFingerprint()));
+            results.add(cached);
+            if (cached == null) {
+                missing.add(forest);
+            }
+        }
+        if (missing.isEmpty()) {
+            return results;
+        }
+        List<List<ReplaceResult>> evaluated = super.evaluateAll(missing, context);
+        int m = 0;
+        for (int i = 0; i < results.size(); i++) {
+            if (results.get(i) == null) {
+                List<ReplaceResult> forestResults = evaluated.get(m++);
+                if (forestResults != null) {
+                    cache.put(new Pair<>(context.getPhase(), forests.get(i).getFingerprint()), forestResults);
+                }
+                results.set(i, forestResults);
+            }
         }
         return results;
     }
 
+    /**
+     * The forests missing from the cache are evaluated as a batch and cached,
+     * the evaluations that follow are cache hits.
+     */
+    @Override
+    public void prepare(List<Forest> forests, Context context) {
+        List<Forest> missing = new ArrayList<>();
+        for (Forest forest : forests) {
+            if (!cache.containsKey(new Pair<>(context.getPhase(), forest.getFingerprint()))) {
+                missing.add(forest);
+            }
+        }
+        List<List<ReplaceResult>> evaluated = super.evaluateAll(missing, context);
+        for (int m = 0; m < missing.size(); m++) {
+            if (evaluated.get(m) != null) {
+                cache.put(new Pair<>(context.getPhase(), missing.get(m).getFingerprint()), evaluated.get(m));
+            }
+        }
+    }
+
     @Override
     public Object getCache() {
         return cache;
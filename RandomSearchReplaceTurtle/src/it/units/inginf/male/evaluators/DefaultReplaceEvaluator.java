@@ -21,6 +21,7 @@ import it.units.inginf.male.inputs.DataSetReplace;
 import it.units.inginf.male.inputs.ExampleReplace;
 import it.units.inginf.male.coevolution.Forest;
 import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.utils.PatternCache;
 
 import java.util.*;
 import java.util.regex.Matcher;
@@ -31,15 +32,27 @@ import java.util.regex.PatternSyntaxException;
  * Created by andrea on 21/11/16.
  */
 public class DefaultReplaceEvaluator implements ReplaceEvaluator {
+
+    public static final String PATTERN_CACHE_SIZE_KEY = "patternCacheSize";
+
+    private PatternCache patternCache = PatternCache.getInstance();
+    private int parallelThreshold = ChunkedExampleEvaluation.DEFAULT_PARALLEL_THRESHOLD;
+
     @Override
     public void setup(Map<String, String> parameters) {
+        if (parameters != null && parameters.containsKey(PATTERN_CACHE_SIZE_KEY)) {
+            this.patternCache = new PatternCache(Integer.valueOf(parameters.get(PATTERN_CACHE_SIZE_KEY)));
+        }
+        this.parallelThreshold = ChunkedExampleEvaluation.readThreshold(parameters);
+    }
 
+    @Override
+    public PatternCache getPatternCache() {
+        return patternCache;
     }
 
     @Override
     public List<ReplaceResult> evaluate(Forest root, Context context) throws TreeEvaluationException {
-        List<ReplaceResult> results = new ArrayList<>(context.getCurrentDataSetLength());
-
         Node first = root.get(0);
         Node second = root.get(1);
 
@@ -51,38 +64,34 @@ public class DefaultReplaceEvaluator implements ReplaceEvaluator {
         String replace = rb.toString();
 
         try {
-            Pattern regex = Pattern.compile(sb.toString());
-            Matcher matcher = regex.matcher("");
-
+            Pattern regex = patternCache.compile(sb.toString());
             DataSetReplace dataSet = context.getCurrentDataSet();
-            for (ExampleReplace example : dataSet.getExamples()) {
-                try {
-                    Matcher m = matcher.reset(example.getString());
-                    int s = 0;
-                    int e = 0;
-                    if (matcher.matches()) {
-                        s = m.start();
-                        e = m.end();
-                    }
-                    String replaced = m.replaceFirst(replace);
-                    ReplaceResult result = new ReplaceResult(replaced, s, e);
-                    results.add(result);
-                } catch (StringIndexOutOfBoundsException ex) {
-                    /**
-                     * Workaround: riferimento BUG: 6984178
-                     * http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6984178
-                     * con i quantificatori greedy restituisce una eccezzione
-                     * invece che restituire un "false".
-                     */
-                    results.add(new ReplaceResult(example.getString(), 0, 0));
-                }
-
-            }
-
+            return ChunkedExampleEvaluation.evaluate(regex, dataSet.getExamples(), parallelThreshold,
+                    (matcher, example) -> evaluateExample(matcher, example, replace));
         } catch (PatternSyntaxException ex) {
             throw new TreeEvaluationException(ex);
         }
-        return results;
+    }
 
+    private ReplaceResult evaluateExample(Matcher matcher, ExampleReplace example, String replace) {
+        try {
+            Matcher m = matcher.reset(example.getString());
+            int s = 0;
+            int e = 0;
+            if (matcher.matches()) {
+                s = m.start();
+                e = m.end();
+            }
+            String replaced = m.replaceFirst(replace);
+            return new ReplaceResult(replaced, s, e);
+        } catch (StringIndexOutOfBoundsException ex) {
+            /**
+             * Workaround: riferimento BUG: 6984178
+             * http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6984178
+             * con i quantificatori greedy restituisce una eccezzione
+             * invece che restituire un "false".
+             */
+            return new ReplaceResult(example.getString(), 0, 0);
+        }
     }
 }
@@ -17,10 +17,13 @@
  */package it.units.inginf.male.evaluators;
 
 import it.units.inginf.male.inputs.Context;
-import it.units.inginf.male.inputs.DataSetReplace;
 import it.units.inginf.male.inputs.ExampleReplace;
 import it.units.inginf.male.coevolution.Forest;
 import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.utils.BoundedCache;
+import it.units.inginf.male.utils.CacheInterface;
+import it.units.inginf.male.utils.Pair;
+import it.units.inginf.male.utils.PatternCache;
 
 import java.util.*;
 import java.util.regex.Matcher;
@@ -29,60 +32,225 @@ import java.util.regex.PatternSyntaxException;
 
 /**
  * Created by andrea on 21/11/16.
+ * The matches of a search regex are cached, per evaluation phase, in a
+ * <code>matchCacheSizeBytes</code> bounded cache (0 disables it): the forests
+ * pairing the same regex with different replacements only expand their
+ * replacement over the cached spans.
+ * The matching work of a regex is bound by a MatchBudget
+ * (<code>matchStepBudget</code>, <code>matchStepsPerChar</code>,
+ * <code>matchTimeoutMillis</code>), forests whose
+ * regex exceeds it fail with a MatchAbortedException and are counted in the
+ * Context.
+ * Before compiling, search regexes are checked by a RegexAnalyzer: skipped
+ * ones fail with a RegexRejectedException (counted in the Context), penalized
+ * ones get the smaller penalized match budget.
+ * The matching is done by the RegexEngine chosen with the
+ * <code>regexEngine</code> parameter, java.util.regex by default.
  */
 public class DefaultReplaceEvaluatorFix implements ReplaceEvaluator {
+
+    public static final String PATTERN_CACHE_SIZE_KEY = "patternCacheSize";
+    public static final String MATCH_CACHE_SIZE_BYTES_KEY = "matchCacheSizeBytes";
+    public static final long DEFAULT_MATCH_CACHE_SIZE_BYTES = 32L * 1024 * 1024;
+
+    private PatternCache patternCache = PatternCache.getInstance();
+    private BoundedCache<Pair<Context.EvaluationPhases, String>, MatchSpans> matchCache = buildMatchCache(DEFAULT_MATCH_CACHE_SIZE_BYTES);
+    private int parallelThreshold = ChunkedExampleEvaluation.DEFAULT_PARALLEL_THRESHOLD;
+    private MatchBudget matchBudget = MatchBudget.DEFAULT;
+    private MatchBudget penalizedBudget = MatchBudget.penalizedFromParameters(null);
+    private RegexAnalyzer regexAnalyzer = new RegexAnalyzer();
+    private RegexEngine regexEngine = JavaRegexEngine.getInstance();
+
+    private static BoundedCache<Pair<Context.EvaluationPhases, String>, MatchSpans> buildMatchCache(long sizeBytes) {
+        if (sizeBytes == 0) {
+            return null;
+        }
+        return new BoundedCache<>(sizeBytes, (key, spans) -> 24 + 16 + BoundedCache.sizeOf(key.getSecond()) + spans.sizeBytes());
+    }
+
     @Override
     public void setup(Map<String, String> parameters) {
+        if (parameters != null && parameters.containsKey(PATTERN_CACHE_SIZE_KEY)) {
+            this.patternCache = new PatternCache(Integer.valueOf(parameters.get(PATTERN_CACHE_SIZE_KEY)));
+        }
+        if (parameters != null && parameters.containsKey(MATCH_CACHE_SIZE_BYTES_KEY)) {
+            this.matchCache = buildMatchCache(Long.parseLong(parameters.get(MATCH_CACHE_SIZE_BYTES_KEY)));
+        }
+        this.parallelThreshold = ChunkedExampleEvaluation.readThreshold(parameters);
+        this.matchBudget = MatchBudget.fromParameters(parameters);
+        this.penalizedBudget = MatchBudget.penalizedFromParameters(parameters);
+        this.regexAnalyzer = new RegexAnalyzer(parameters);
+        this.regexEngine = RegexEngine.fromParameters(parameters);
+    }
+
+    public RegexEngine getRegexEngine() {
+        return regexEngine;
+    }
+
+    /**
+     * @return the analyzer of the search regexes, with the counters of the
+     * rejection reasons
+     */
+    public RegexAnalyzer getRegexAnalyzer() {
+        return regexAnalyzer;
+    }
+
+    /**
+     * @return the statistics of the match cache, null when it is disabled
+     */
+    public CacheInterface getMatchCache() {
+        return matchCache;
+    }
 
+    @Override
+    public PatternCache getPatternCache() {
+        return patternCache;
     }
 
     @Override
     public List<ReplaceResult> evaluate(Forest root, Context context) throws TreeEvaluationException {
-        List<ReplaceResult> results = new ArrayList<>(context.getCurrentDataSetLength());
+        return evaluate(root, context, null);
+    }
+
+    /**
+     * The distinct search regexes of the forests are matched with a single
+     * scan over the examples, then each forest only expands its replacement.
+     */
+    @Override
+    public List<List<ReplaceResult>> evaluateAll(List<Forest> forests, Context context) {
+        Map<String, MatchSpans> matched = matchAll(forests, context);
+        List<List<ReplaceResult>> results = new ArrayList<>(forests.size());
+        for (Forest forest : forests) {
+            try {
+                results.add(evaluate(forest, context, matched));
+            } catch (TreeEvaluationException ex) {
+                results.add(null);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Stores the matches of the forests regexes in the match cache, with a
+     * single scan over the examples.
+     */
+    @Override
+    public void prepare(List<Forest> forests, Context context) {
+        if (matchCache != null) {
+            matchAll(forests, context);
+        }
+    }
 
-        Node first = root.get(0);
-        Node second = root.get(1);
+    private Map<String, MatchSpans> matchAll(List<Forest> forests, Context context) {
+        List<ExampleReplace> examples = context.getCurrentDataSet().getExamples();
+        Map<String, MatchSpans> matched = new HashMap<>();
+        Map<String, RegexEngine.Regex> missing = new LinkedHashMap<>();
+        List<MatchBudget> budgets = new ArrayList<>();
+        for (Forest forest : forests) {
+            String search = describe(forest.get(0));
+            if (matched.containsKey(search) || missing.containsKey(search)) {
+                continue;
+            }
+            RegexAnalyzer.Verdict verdict = regexAnalyzer.analyze(forest.get(0));
+            if (verdict == RegexAnalyzer.Verdict.SKIP) {
+                continue;
+            }
+            MatchSpans spans = matchCache == null ? null : matchCache.get(new Pair<>(context.getPhase(), search));
+            if (spans != null && spans.isMatching(examples)) {
+                matched.put(search, spans);
+                continue;
+            }
+            try {
+                missing.put(search, regexEngine.compile(forest.get(0), patternCache.compile(search)));
+                budgets.add(verdict == RegexAnalyzer.Verdict.PENALIZE ? penalizedBudget : matchBudget);
+            } catch (PatternSyntaxException ex) {
+                //the error is raised by the evaluation of the forest
+            }
+        }
+        if (missing.isEmpty()) {
+            return matched;
+        }
+        MatchSpans[] spans = MatchSpans.match(missing.values().toArray(new RegexEngine.Regex[missing.size()]),
+                budgets.toArray(new MatchBudget[budgets.size()]), examples, parallelThreshold);
+        int r = 0;
+        for (String search : missing.keySet()) {
+            matched.put(search, spans[r]);
+            if (matchCache != null) {
+                matchCache.put(new Pair<>(context.getPhase(), search), spans[r]);
+            }
+            r++;
+        }
+        return matched;
+    }
 
-        StringBuilder sb = new StringBuilder();
-        first.describe(sb);
+    private static String describe(Node node) {
+        StringBuilder builder = new StringBuilder();
+        node.describe(builder);
+        return builder.toString();
+    }
 
-        StringBuilder rb = new StringBuilder();
-        second.describe(rb);
-        String replace = rb.toString();
+    private List<ReplaceResult> evaluate(Forest root, Context context, Map<String, MatchSpans> matched) throws TreeEvaluationException {
+        String search = describe(root.get(0));
+        String replace = describe(root.get(1));
+        RegexAnalyzer.Verdict verdict = regexAnalyzer.filter(root.get(0));
+        if (verdict == RegexAnalyzer.Verdict.SKIP) {
+            context.countRejectedEvaluation();
+            throw new RegexRejectedException(search);
+        }
+        MatchBudget budget = verdict == RegexAnalyzer.Verdict.PENALIZE ? penalizedBudget : matchBudget;
 
         try {
-            Pattern regex = Pattern.compile(sb.toString());
-            Matcher matcher = regex.matcher("");
-
-            DataSetReplace dataSet = context.getCurrentDataSet();
-            for (ExampleReplace example : dataSet.getExamples()) {
-                try {
-                    Matcher m = matcher.reset(example.getString());
-                    int s = 0;
-                    int e = 0;
-                    if (matcher.find()) {
-                        s = m.start();
-                        e = m.end();
-                    }
-                    String replaced = m.replaceFirst(replace);
-                    ReplaceResult result = new ReplaceResult(replaced, s, e);
-                    results.add(result);
-                } catch (StringIndexOutOfBoundsException ex) {
-                    /**
-                     * Workaround: riferimento BUG: 6984178
-                     * http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6984178
-                     * con i quantificatori greedy restituisce una eccezzione
-                     * invece che restituire un "false".
-                     */
-                    results.add(new ReplaceResult(example.getString(), 0, 0));
+            Pattern regex = patternCache.compile(search);
+            ReplacementTemplate template = ReplacementTemplate.compile(replace, regex.matcher("").groupCount());
+            List<ExampleReplace> examples = context.getCurrentDataSet().getExamples();
+            MatchSpans spans = matched == null ? null : matched.get(search);
+            if (spans == null) {
+                spans = matchSpans(root.get(0), regex, search, examples, context.getPhase(), budget);
+            }
+            if (spans.isAborted()) {
+                context.countAbortedEvaluation();
+                throw new MatchAbortedException(search);
+            }
+            ReplaceSpans results = new ReplaceSpans(examples);
+            Matcher matcher = template == null ? regex.matcher("") : null;
+            for (int i = 0; i < examples.size(); i++) {
+                if (!spans.isMatched(i)) {
+                    results.set(i, 0, 0, "");
+                    continue;
                 }
-
+                String string = examples.get(i).getString();
+                String replacement = template != null ? template.expand(spans, i, string) : expand(matcher, string, replace);
+                results.set(i, spans.getStart(i, 0), spans.getEnd(i, 0), replacement);
             }
-
+            return results;
         } catch (PatternSyntaxException ex) {
             throw new TreeEvaluationException(ex);
         }
-        return results;
+    }
+
+    private MatchSpans matchSpans(Node tree, Pattern regex, String search, List<ExampleReplace> examples, Context.EvaluationPhases phase, MatchBudget budget) {
+        if (matchCache == null) {
+            return MatchSpans.match(regexEngine.compile(tree, regex), examples, parallelThreshold, budget);
+        }
+        Pair<Context.EvaluationPhases, String> key = new Pair<>(phase, search);
+        MatchSpans spans = matchCache.get(key);
+        if (spans == null || !spans.isMatching(examples)) {
+            spans = MatchSpans.match(regexEngine.compile(tree, regex), examples, parallelThreshold, budget);
+            matchCache.put(key, spans);
+        }
+        return spans;
+    }
 
+    /**
+     * The same replacement Matcher.replaceFirst would do, for the replacements
+     * that the ReplacementTemplate does not handle: the Matcher expands (or
+     * rejects) them. The example is known to match within the budget.
+     */
+    private static String expand(Matcher matcher, String string, String replace) {
+        Matcher m = matcher.reset(string);
+        m.find();
+        StringBuffer buffer = new StringBuffer();
+        m.appendReplacement(buffer, replace);
+        return buffer.substring(m.start());
     }
 }
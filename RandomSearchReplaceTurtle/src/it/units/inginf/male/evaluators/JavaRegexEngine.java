@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.tree.Node;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Matches the search regexes with java.util.regex, a backtracking engine which
+ * supports every regex the trees can describe.
+ */
+public class JavaRegexEngine implements RegexEngine {
+
+    private static final JavaRegexEngine instance = new JavaRegexEngine();
+
+    public static JavaRegexEngine getInstance() {
+        return instance;
+    }
+
+    private JavaRegexEngine() {
+    }
+
+    @Override
+    public Regex compile(Node tree, Pattern pattern) {
+        return wrap(pattern);
+    }
+
+    static Regex wrap(Pattern pattern) {
+        int groupCount = pattern.matcher("").groupCount();
+        return new Regex() {
+
+            @Override
+            public int groupCount() {
+                return groupCount;
+            }
+
+            @Override
+            public Finder finder() {
+                return new PatternFinder(pattern);
+            }
+        };
+    }
+
+    private static class PatternFinder implements Finder {
+
+        private final Matcher matcher;
+
+        PatternFinder(Pattern pattern) {
+            this.matcher = pattern.matcher("");
+        }
+
+        @Override
+        public boolean find(CharSequence text) {
+            return matcher.reset(text).find();
+        }
+
+        @Override
+        public int start(int group) {
+            return matcher.start(group);
+        }
+
+        @Override
+        public int end(int group) {
+            return matcher.end(group);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The bound on the work of the regex engine while matching a search regex
+ * against the examples, read from the evaluator parameters: the match of an
+ * example can read <code>matchStepBudget</code> chars plus
+ * <code>matchStepsPerChar</code> chars for each char of the example, so a
+ * regex which scans the example in linear time is never aborted however long
+ * the example is; <code>matchTimeoutMillis</code> is the maximum time spent
+ * matching a chunk of examples (0 disables them). The regexes penalized by the
+ * RegexAnalyzer get <code>penalizedMatchStepBudget</code> steps, by default a
+ * tenth of the step budget, plus a tenth of the steps per char: their shape
+ * alone does not make them fail on long examples.
+ * The step budget does not depend on the load of the machine, so it keeps the
+ * runs reproducible; the time budget does not.
+ */
+class MatchBudget {
+
+    public static final String STEP_BUDGET_KEY = "matchStepBudget";
+    public static final String TIMEOUT_MILLIS_KEY = "matchTimeoutMillis";
+    public static final String PENALIZED_STEP_BUDGET_KEY = "penalizedMatchStepBudget";
+    public static final String STEPS_PER_CHAR_KEY = "matchStepsPerChar";
+    public static final long DEFAULT_STEP_BUDGET = 1000000;
+    public static final long DEFAULT_STEPS_PER_CHAR = 100;
+
+    static final MatchBudget DEFAULT = new MatchBudget(DEFAULT_STEP_BUDGET, DEFAULT_STEPS_PER_CHAR, 0);
+
+    private final long stepBudget;
+    private final long stepsPerChar;
+    private final long timeBudgetNanos;
+
+    /**
+     * A step budget which does not depend on the length of the examples.
+     */
+    MatchBudget(long stepBudget, long timeBudgetNanos) {
+        this(stepBudget, 0, timeBudgetNanos);
+    }
+
+    MatchBudget(long stepBudget, long stepsPerChar, long timeBudgetNanos) {
+        this.stepBudget = stepBudget;
+        this.stepsPerChar = stepsPerChar;
+        this.timeBudgetNanos = timeBudgetNanos;
+    }
+
+    static MatchBudget fromParameters(Map<String, String> parameters) {
+        if (parameters == null) {
+            return DEFAULT;
+        }
+        long stepBudget = DEFAULT_STEP_BUDGET;
+        long stepsPerChar = DEFAULT_STEPS_PER_CHAR;
+        long timeBudgetNanos = 0;
+        if (parameters.containsKey(STEP_BUDGET_KEY)) {
+            stepBudget = Long.parseLong(parameters.get(STEP_BUDGET_KEY));
+        }
+        if (parameters.containsKey(STEPS_PER_CHAR_KEY)) {
+            stepsPerChar = Long.parseLong(parameters.get(STEPS_PER_CHAR_KEY));
+        }
+        if (parameters.containsKey(TIMEOUT_MILLIS_KEY)) {
+            timeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(parameters.get(TIMEOUT_MILLIS_KEY)));
+        }
+        return new MatchBudget(stepBudget, stepsPerChar, timeBudgetNanos);
+    }
+
+    /**
+     * @param parameters the evaluator parameters, may be null
+     * @return the budget of the regexes penalized by the RegexAnalyzer
+     */
+    static MatchBudget penalizedFromParameters(Map<String, String> parameters) {
+        MatchBudget budget = fromParameters(parameters);
+        long stepBudget = budget.stepBudget > 0 ? budget.stepBudget / 10 : DEFAULT_STEP_BUDGET / 10;
+        if (parameters != null && parameters.containsKey(PENALIZED_STEP_BUDGET_KEY)) {
+            stepBudget = Long.parseLong(parameters.get(PENALIZED_STEP_BUDGET_KEY));
+        }
+        return new MatchBudget(stepBudget, budget.stepsPerChar / 10, budget.timeBudgetNanos);
+    }
+
+    /**
+     * @return a sequence charging the matches done through it to this budget
+     */
+    BudgetedCharSequence newSequence() {
+        return new BudgetedCharSequence(stepBudget, stepsPerChar, timeBudgetNanos);
+    }
+}
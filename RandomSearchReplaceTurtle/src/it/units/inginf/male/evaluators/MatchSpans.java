@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.inputs.ExampleReplace;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * The first match of a search regex on each example of a dataset: the span of
+ * the match and of every capturing group, in a single primitive array.
+ * The spans only depend on the search regex, so they are computed once and
+ * shared by all the replacements paired with it; expanding a replacement over
+ * them needs no further matching.
+ * Matches are bound by a MatchBudget, when a regex exceeds it the remaining
+ * examples are skipped and the spans are marked as aborted.
+ */
+class MatchSpans {
+
+    private final List<ExampleReplace> examples;
+    private final int groupCount;
+    //start and end of group 0..groupCount for each example, -1 when the group did not participate
+    private final int[] spans;
+    private volatile boolean aborted = false;
+
+    private MatchSpans(List<ExampleReplace> examples, int groupCount) {
+        this.examples = examples;
+        this.groupCount = groupCount;
+        this.spans = new int[examples.size() * 2 * (groupCount + 1)];
+    }
+
+    /**
+     * @param regex the compiled search regex
+     * @param examples the examples to match
+     * @param threshold the parallel threshold of ChunkedExampleEvaluation
+     * @param budget the bound on the matching work
+     * @return the spans of the first match on each example
+     */
+    static MatchSpans match(Pattern regex, List<ExampleReplace> examples, int threshold, MatchBudget budget) {
+        return match(JavaRegexEngine.wrap(regex), examples, threshold, budget);
+    }
+
+    /**
+     * @param regex the search regex, compiled by a RegexEngine
+     * @param examples the examples to match
+     * @param threshold the parallel threshold of ChunkedExampleEvaluation
+     * @param budget the bound on the matching work
+     * @return the spans of the first match on each example
+     */
+    static MatchSpans match(RegexEngine.Regex regex, List<ExampleReplace> examples, int threshold, MatchBudget budget) {
+        return match(new RegexEngine.Regex[]{regex}, new MatchBudget[]{budget}, examples, threshold)[0];
+    }
+
+    /**
+     * @param regexes the compiled search regexes
+     * @param examples the examples to match
+     * @param threshold the parallel threshold of ChunkedExampleEvaluation
+     * @param budget the bound on the matching work of each regex
+     * @return the spans of each regex, in the same order
+     */
+    static MatchSpans[] match(Pattern[] regexes, List<ExampleReplace> examples, int threshold, MatchBudget budget) {
+        RegexEngine.Regex[] compiled = new RegexEngine.Regex[regexes.length];
+        for (int r = 0; r < regexes.length; r++) {
+            compiled[r] = JavaRegexEngine.wrap(regexes[r]);
+        }
+        MatchBudget[] budgets = new MatchBudget[regexes.length];
+        Arrays.fill(budgets, budget);
+        return match(compiled, budgets, examples, threshold);
+    }
+
+    /**
+     * Matches several regexes with a single scan over the examples: for each
+     * example all the regexes are applied before moving to the next one, so
+     * the chars of the example are read from cache by all but the first.
+     * @param regexes the search regexes, compiled by a RegexEngine
+     * @param budgets the bound on the matching work of each regex
+     * @param examples the examples to match
+     * @param threshold the parallel threshold of ChunkedExampleEvaluation
+     * @return the spans of each regex, in the same order
+     */
+    static MatchSpans[] match(RegexEngine.Regex[] regexes, MatchBudget[] budgets, List<ExampleReplace> examples, int threshold) {
+        MatchSpans[] spans = new MatchSpans[regexes.length];
+        for (int r = 0; r < regexes.length; r++) {
+            spans[r] = new MatchSpans(examples, regexes[r].groupCount());
+        }
+        ExampleReplace[] exampleArray = examples.toArray(new ExampleReplace[examples.size()]);
+        ChunkedExampleEvaluation.evaluate(exampleArray.length, threshold, (from, to) -> {
+            RegexEngine.Finder[] finders = new RegexEngine.Finder[regexes.length];
+            BudgetedCharSequence[] sequences = new BudgetedCharSequence[regexes.length];
+            for (int r = 0; r < regexes.length; r++) {
+                finders[r] = regexes[r].finder();
+                sequences[r] = budgets[r].newSequence();
+            }
+            for (int i = from; i < to; i++) {
+                for (int r = 0; r < regexes.length; r++) {
+                    if (!spans[r].aborted) {
+                        spans[r].store(finders[r], sequences[r].reset(exampleArray[i].getString()), i);
+                    }
+                }
+            }
+        });
+        return spans;
+    }
+
+    private void store(RegexEngine.Finder finder, BudgetedCharSequence text, int index) {
+        int offset = index * 2 * (groupCount + 1);
+        try {
+            if (finder.find(text)) {
+                for (int group = 0; group <= groupCount; group++) {
+                    spans[offset + 2 * group] = finder.start(group);
+                    spans[offset + 2 * group + 1] = finder.end(group);
+                }
+                return;
+            }
+        } catch (StringIndexOutOfBoundsException ex) {
+            /**
+             * Workaround: riferimento BUG: 6984178
+             * http://bugs.sun.com/bugdatabase/view_bug.do?bug_id=6984178
+             * con i quantificatori greedy restituisce una eccezzione
+             * invece che restituire un "false".
+             */
+        } catch (BudgetedCharSequence.BudgetExceededException ex) {
+            aborted = true;
+        } finally {
+            text.stop();
+        }
+        spans[offset] = -1;
+        spans[offset + 1] = -1;
+    }
+
+    /**
+     * @return true when the regex exceeded the match budget, the spans are
+     * incomplete
+     */
+    boolean isAborted() {
+        return aborted;
+    }
+
+    /**
+     * @param examples the examples of the current dataset
+     * @return true when the spans have been computed on these examples
+     */
+    boolean isMatching(List<ExampleReplace> examples) {
+        return this.examples == examples;
+    }
+
+    int getGroupCount() {
+        return groupCount;
+    }
+
+    boolean isMatched(int example) {
+        return spans[example * 2 * (groupCount + 1)] != -1;
+    }
+
+    /**
+     * @return the start of the group in the example, -1 when it did not
+     * participate in the match
+     */
+    int getStart(int example, int group) {
+        return spans[example * 2 * (groupCount + 1) + 2 * group];
+    }
+
+    int getEnd(int example, int group) {
+        return spans[example * 2 * (groupCount + 1) + 2 * group + 1];
+    }
+
+    long sizeBytes() {
+        return 32 + 16 + 4L * spans.length;
+    }
+}
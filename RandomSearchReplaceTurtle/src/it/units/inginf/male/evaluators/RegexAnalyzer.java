@@ -0,0 +1,275 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.tree.Anchor;
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Leaf;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Concatenator;
+import it.units.inginf.male.tree.operator.Group;
+import it.units.inginf.male.tree.operator.Lookaround;
+import it.units.inginf.male.tree.operator.MatchMinMax;
+import it.units.inginf.male.tree.operator.MatchMinMaxGreedy;
+import it.units.inginf.male.tree.operator.MatchOneOrMore;
+import it.units.inginf.male.tree.operator.MatchOneOrMoreGreedy;
+import it.units.inginf.male.tree.operator.MatchZeroOrMore;
+import it.units.inginf.male.tree.operator.MatchZeroOrMoreGreedy;
+import it.units.inginf.male.tree.operator.NegativeLookbehind;
+import it.units.inginf.male.tree.operator.NonCapturingGroup;
+import it.units.inginf.male.tree.operator.Or;
+import it.units.inginf.male.tree.operator.PositiveLookbehind;
+import it.units.inginf.male.tree.operator.Quantifier;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Static analysis of a search regex tree, done before the regex is compiled.
+ * Individuals which are structurally useless or dangerous get a verdict:
+ * <ul>
+ * <li>EMPTY_MATCH: the regex only matches the empty string (e.g. empty
+ * constants or {0,0} repetitions) and has no anchors, word boundaries or
+ * lookarounds, so it always matches at the start of the string like any
+ * other regex of this kind; skipped by default.</li>
+ * <li>NESTED_QUANTIFIERS: more than <code>maxQuantifierNesting</code> nested
+ * backtracking (greedy) quantifiers, possessive ones are not counted;
+ * penalized by default.</li>
+ * <li>UNBOUNDED_LOOKBEHIND: a lookbehind containing a * or + quantifier, which
+ * the regex engine retries from every position; penalized by default.</li>
+ * </ul>
+ * Skipped individuals are not evaluated, penalized ones are matched with a
+ * smaller budget. The verdict of each reason is read from the evaluator
+ * parameters (e.g. <code>nestedQuantifiersVerdict=skip</code>) and the
+ * individuals found for each reason are counted.
+ */
+public class RegexAnalyzer {
+
+    public static final String MAX_QUANTIFIER_NESTING_KEY = "maxQuantifierNesting";
+    public static final int DEFAULT_MAX_QUANTIFIER_NESTING = 2;
+
+    public enum Verdict {
+
+        EVALUATE, PENALIZE, SKIP
+    }
+
+    public enum Reason {
+
+        EMPTY_MATCH("emptyMatchVerdict", Verdict.SKIP),
+        NESTED_QUANTIFIERS("nestedQuantifiersVerdict", Verdict.PENALIZE),
+        UNBOUNDED_LOOKBEHIND("unboundedLookbehindVerdict", Verdict.PENALIZE);
+
+        private final String parameter;
+        private final Verdict defaultVerdict;
+
+        Reason(String parameter, Verdict defaultVerdict) {
+            this.parameter = parameter;
+            this.defaultVerdict = defaultVerdict;
+        }
+
+        public String getParameter() {
+            return parameter;
+        }
+    }
+
+    private static final Set<String> WORD_BOUNDARIES = new HashSet<>(Arrays.asList("\\b", "\\B"));
+
+    private final Map<Reason, Verdict> verdicts = new EnumMap<>(Reason.class);
+    private final int maxQuantifierNesting;
+    private final AtomicLongArray counters = new AtomicLongArray(Reason.values().length);
+
+    public RegexAnalyzer() {
+        this(null);
+    }
+
+    /**
+     * @param parameters the evaluator parameters, may be null
+     */
+    public RegexAnalyzer(Map<String, String> parameters) {
+        for (Reason reason : Reason.values()) {
+            Verdict verdict = reason.defaultVerdict;
+            if (parameters != null && parameters.containsKey(reason.parameter)) {
+                verdict = Verdict.valueOf(parameters.get(reason.parameter).toUpperCase(Locale.ROOT));
+            }
+            verdicts.put(reason, verdict);
+        }
+        if (parameters != null && parameters.containsKey(MAX_QUANTIFIER_NESTING_KEY)) {
+            this.maxQuantifierNesting = Integer.valueOf(parameters.get(MAX_QUANTIFIER_NESTING_KEY));
+        } else {
+            this.maxQuantifierNesting = DEFAULT_MAX_QUANTIFIER_NESTING;
+        }
+    }
+
+    /**
+     * Analyzes the regex and counts the reasons it has been flagged for.
+     * @param regex the search regex tree
+     * @return the most severe verdict among the reasons found
+     */
+    public Verdict filter(Node regex) {
+        Verdict verdict = Verdict.EVALUATE;
+        for (Reason reason : Reason.values()) {
+            if (isFlagged(regex, reason)) {
+                counters.incrementAndGet(reason.ordinal());
+                verdict = max(verdict, verdicts.get(reason));
+            }
+        }
+        return verdict;
+    }
+
+    /**
+     * The same verdict of filter, without counting.
+     * @param regex the search regex tree
+     * @return the most severe verdict among the reasons found
+     */
+    public Verdict analyze(Node regex) {
+        Verdict verdict = Verdict.EVALUATE;
+        for (Reason reason : Reason.values()) {
+            if (isFlagged(regex, reason)) {
+                verdict = max(verdict, verdicts.get(reason));
+            }
+        }
+        return verdict;
+    }
+
+    /**
+     * @param reason
+     * @return the individuals flagged for the reason by filter
+     */
+    public long getCount(Reason reason) {
+        return counters.get(reason.ordinal());
+    }
+
+    private static Verdict max(Verdict a, Verdict b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    boolean isFlagged(Node regex, Reason reason) {
+        switch (reason) {
+            case EMPTY_MATCH:
+                return matchesOnlyEmpty(regex) && !isPositional(regex);
+            case NESTED_QUANTIFIERS:
+                return backtrackingDepth(regex) > maxQuantifierNesting;
+            case UNBOUNDED_LOOKBEHIND:
+                return hasUnboundedLookbehind(regex);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Conservative: false when the node may match a non empty string.
+     */
+    private static boolean matchesOnlyEmpty(Node node) {
+        if (isPositionalNode(node)) {
+            return true;
+        }
+        if (node instanceof Leaf) {
+            return node.toString().isEmpty();
+        }
+        if (node instanceof Concatenator || node instanceof Or) {
+            for (Node child : node.getChildrens()) {
+                if (!matchesOnlyEmpty(child)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        if (node instanceof MatchMinMax || node instanceof MatchMinMaxGreedy) {
+            return "0".equals(node.getChildrens().get(2).toString()) || matchesOnlyEmpty(node.getChildrens().get(0));
+        }
+        if (node instanceof Quantifier || node instanceof Group || node instanceof NonCapturingGroup) {
+            return matchesOnlyEmpty(node.getChildrens().get(0));
+        }
+        return false;
+    }
+
+    private static boolean isPositionalNode(Node node) {
+        return node instanceof Anchor || node instanceof Lookaround
+                || (node instanceof Constant && WORD_BOUNDARIES.contains(node.toString()));
+    }
+
+    private static boolean isPositional(Node node) {
+        if (isPositionalNode(node)) {
+            return true;
+        }
+        for (Node child : node.getChildrens()) {
+            if (isPositional(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int backtrackingDepth(Node node) {
+        if (node instanceof Leaf) {
+            return 0;
+        }
+        int depth = 0;
+        if (node instanceof MatchMinMax || node instanceof MatchMinMaxGreedy) {
+            //the other children are the repetition bounds
+            depth = backtrackingDepth(node.getChildrens().get(0));
+        } else {
+            for (Node child : node.getChildrens()) {
+                depth = Math.max(depth, backtrackingDepth(child));
+            }
+        }
+        boolean backtracking = node instanceof MatchOneOrMoreGreedy || node instanceof MatchZeroOrMoreGreedy || node instanceof MatchMinMaxGreedy;
+        return backtracking ? depth + 1 : depth;
+    }
+
+    private static boolean hasUnboundedLookbehind(Node node) {
+        if (node instanceof PositiveLookbehind || node instanceof NegativeLookbehind) {
+            return hasUnboundedQuantifier(node.getChildrens().get(0));
+        }
+        for (Node child : node.getChildrens()) {
+            if (hasUnboundedLookbehind(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasUnboundedQuantifier(Node node) {
+        if (node instanceof MatchOneOrMore || node instanceof MatchOneOrMoreGreedy
+                || node instanceof MatchZeroOrMore || node instanceof MatchZeroOrMoreGreedy) {
+            return true;
+        }
+        for (Node child : node.getChildrens()) {
+            if (hasUnboundedQuantifier(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (Reason reason : Reason.values()) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(reason).append(" (").append(verdicts.get(reason)).append("): ").append(getCount(reason));
+        }
+        return builder.toString();
+    }
+}
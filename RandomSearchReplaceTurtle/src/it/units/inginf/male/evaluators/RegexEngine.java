@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.tree.Node;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * The backend that finds the first match of the search regexes. The regex is
+ * always compiled by java.util.regex first, which validates it and is used
+ * for the replacement expansion; an engine may run the matching on its own
+ * representation of the regex, or on the Pattern itself.
+ * The engine is chosen with the <code>regexEngine</code> evaluator parameter:
+ * <code>java</code> (default) or <code>automaton</code>.
+ */
+public interface RegexEngine {
+
+    public static final String REGEX_ENGINE_KEY = "regexEngine";
+
+    /**
+     * @param tree the search regex tree
+     * @param pattern the compiled description of the tree
+     * @return the regex to match, never null
+     */
+    Regex compile(Node tree, Pattern pattern);
+
+    static RegexEngine fromParameters(Map<String, String> parameters) {
+        String engine = parameters == null ? null : parameters.get(REGEX_ENGINE_KEY);
+        if (engine == null || engine.equals("java")) {
+            return JavaRegexEngine.getInstance();
+        }
+        if (engine.equals("automaton")) {
+            return new AutomatonRegexEngine();
+        }
+        throw new IllegalArgumentException("Unknown regex engine: " + engine);
+    }
+
+    /**
+     * A compiled search regex, thread safe.
+     */
+    interface Regex {
+
+        int groupCount();
+
+        /**
+         * @return a new Finder, which is not thread safe
+         */
+        Finder finder();
+    }
+
+    /**
+     * Finds the first match of a Regex, the same as Matcher.find() after a
+     * reset.
+     */
+    interface Finder {
+
+        boolean find(CharSequence text);
+
+        /**
+         * @return the start of the group in the last match, -1 when it did
+         * not participate
+         */
+        int start(int group);
+
+        int end(int group);
+    }
+}
@@ -16,9 +16,17 @@
  * along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */package it.units.inginf.male.evaluators;
 
+import it.units.inginf.male.utils.PatternCache;
+
 /**
  * Created by andrea on 21/11/16.
  */
 public interface ReplaceEvaluator extends CoevolutionaryEvaluator<ReplaceResult> {
 
+    /**
+     * The cache where the evaluator gets its compiled search regexes.
+     * @return the pattern cache in use
+     */
+    PatternCache getPatternCache();
+
 }
@@ -17,6 +17,7 @@
  */package it.units.inginf.male.evaluators;
 
 import it.units.inginf.male.inputs.Bounds;
+import it.units.inginf.male.utils.BoundedCache;
 
 /**
  * Created by andrea on 29/11/16.
@@ -24,10 +25,24 @@ import it.units.inginf.male.inputs.Bounds;
 public class ReplaceResult {
     private String replacedString;
     private Bounds bounds;
+    private boolean replacedSpan;
 
     public ReplaceResult(String replacedString, int start, int end) {
+        this(replacedString, start, end, false);
+    }
+
+    /**
+     * @param replacedString the string after the replacement
+     * @param start the start of the match
+     * @param end the end of the match
+     * @param replacedSpan true when the match is the only span rewritten in
+     * replacedString, i.e. replacedString is the original string with the
+     * chars between start and end replaced
+     */
+    public ReplaceResult(String replacedString, int start, int end, boolean replacedSpan) {
         this.replacedString = replacedString;
-        bounds = new Bounds(start, end);
+        this.bounds = new Bounds(start, end);
+        this.replacedSpan = replacedSpan;
     }
 
     public String getReplacedString() {
@@ -38,7 +53,19 @@ public class ReplaceResult {
         return replacedString.length() + 8;
     }
 
+    /**
+     * Estimated memory footprint, this object plus bounds and replaced string.
+     * @return the size in bytes
+     */
+    public long sizeBytes() {
+        return 24 + 24 + BoundedCache.sizeOf(replacedString);
+    }
+
     public Bounds getBounds() {
         return bounds;
     }
+
+    public boolean isReplacedSpan() {
+        return replacedSpan;
+    }
 }
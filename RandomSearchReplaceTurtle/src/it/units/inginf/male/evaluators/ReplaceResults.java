@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.inputs.ExampleReplace;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * The outcomes of a replace evaluation over the examples of a dataset, in
+ * example order. Objectives read the match bounds and the edit distances with
+ * the indexed accessors, which do not need the replaced strings; the List
+ * methods are kept for listeners and postprocessors.
+ */
+public abstract class ReplaceResults extends AbstractList<ReplaceResult> implements RandomAccess {
+
+    /**
+     * Wraps the results of an evaluator, results that are already a
+     * ReplaceResults are returned as they are.
+     * @param results the results of the examples
+     * @param examples the evaluated examples, in the same order
+     * @return the indexed view of the results
+     */
+    public static ReplaceResults of(List<ReplaceResult> results, List<ExampleReplace> examples) {
+        if (results instanceof ReplaceResults) {
+            return (ReplaceResults) results;
+        }
+        return new RenderedResults(results, examples);
+    }
+
+    /**
+     * Estimated memory footprint of a list of results.
+     * @param results the results
+     * @return the size in bytes
+     */
+    public static long sizeBytes(List<ReplaceResult> results) {
+        if (results instanceof ReplaceResults) {
+            return ((ReplaceResults) results).sizeBytes();
+        }
+        long size = 40 + 8 * results.size();
+        for (ReplaceResult result : results) {
+            size += result.sizeBytes();
+        }
+        return size;
+    }
+
+    public abstract int getStart(int index);
+
+    public abstract int getEnd(int index);
+
+    /**
+     * @param index the example index
+     * @param bound the maximum distance of interest
+     * @return the edit distance between the outcome and the target string of
+     * the example, bound + 1 when it is greater than bound
+     */
+    public abstract int getEditDistance(int index, int bound);
+
+    public abstract long sizeBytes();
+
+    private static class RenderedResults extends ReplaceResults {
+
+        private final List<ReplaceResult> results;
+        private final List<ExampleReplace> examples;
+
+        RenderedResults(List<ReplaceResult> results, List<ExampleReplace> examples) {
+            this.results = results;
+            this.examples = examples;
+        }
+
+        @Override
+        public ReplaceResult get(int index) {
+            return results.get(index);
+        }
+
+        @Override
+        public int size() {
+            return results.size();
+        }
+
+        @Override
+        public int getStart(int index) {
+            return results.get(index).getBounds().start;
+        }
+
+        @Override
+        public int getEnd(int index) {
+            return results.get(index).getBounds().end;
+        }
+
+        @Override
+        public int getEditDistance(int index, int bound) {
+            return examples.get(index).getEditDistance(results.get(index), bound);
+        }
+
+        @Override
+        public long sizeBytes() {
+            return sizeBytes(results);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.inputs.ExampleReplace;
+import it.units.inginf.male.utils.BoundedCache;
+import java.util.List;
+
+/**
+ * Compact results of a find() based replacement: for each example the span of
+ * the first match and its expanded replacement, in primitive arrays. Examples
+ * without a match have an empty span at 0 and an empty replacement.
+ * The replaced strings are never stored, get renders one on each call.
+ * Distinct examples can be set concurrently.
+ */
+public class ReplaceSpans extends ReplaceResults {
+
+    private final ExampleReplace[] examples;
+    private final int[] starts;
+    private final int[] ends;
+    private final String[] replacements;
+
+    public ReplaceSpans(List<ExampleReplace> examples) {
+        this.examples = examples.toArray(new ExampleReplace[examples.size()]);
+        this.starts = new int[examples.size()];
+        this.ends = new int[examples.size()];
+        this.replacements = new String[examples.size()];
+    }
+
+    public void set(int index, int start, int end, String replacement) {
+        starts[index] = start;
+        ends[index] = end;
+        replacements[index] = replacement;
+    }
+
+    @Override
+    public ReplaceResult get(int index) {
+        String string = examples[index].getString();
+        String replacement = replacements[index];
+        int start = starts[index];
+        int end = ends[index];
+        String replaced = string;
+        if (start != end || !replacement.isEmpty()) {
+            replaced = new StringBuilder(string.length() - (end - start) + replacement.length())
+                    .append(string, 0, start).append(replacement).append(string, end, string.length()).toString();
+        }
+        return new ReplaceResult(replaced, start, end, true);
+    }
+
+    @Override
+    public int size() {
+        return starts.length;
+    }
+
+    @Override
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    @Override
+    public int getEnd(int index) {
+        return ends[index];
+    }
+
+    public String getReplacement(int index) {
+        return replacements[index];
+    }
+
+    @Override
+    public int getEditDistance(int index, int bound) {
+        return examples[index].getEditDistance(starts[index], ends[index], replacements[index], bound);
+    }
+
+    /**
+     * The arrays plus the replacements, a replacement shared with the previous
+     * example (constant replacements are) is counted once.
+     * @return the size in bytes
+     */
+    @Override
+    public long sizeBytes() {
+        long size = 32 + 4 * 16 + 16L * replacements.length;
+        String previous = null;
+        for (String replacement : replacements) {
+            if (replacement != previous) {
+                size += BoundedCache.sizeOf(replacement);
+                previous = replacement;
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+
+/**
+ * A replacement string parsed once for a given search regex, it expands the
+ * $n references of a match the same way Matcher.appendReplacement does,
+ * without copying the chars that precede the match.
+ * Replacements that the template does not reproduce exactly (named groups,
+ * malformed references, groups the regex does not have) are not compiled, the
+ * callers fall back to the Matcher methods which also raise their errors.
+ */
+class ReplacementTemplate {
+
+    private final String[] literals;
+    private final int[] groups;
+
+    private ReplacementTemplate(String[] literals, int[] groups) {
+        this.literals = literals;
+        this.groups = groups;
+    }
+
+    /**
+     * @param replacement the replacement string
+     * @param groupCount the number of capturing groups of the search regex
+     * @return the template, or null when the replacement has to be expanded by
+     * the Matcher
+     */
+    static ReplacementTemplate compile(String replacement, int groupCount) {
+        List<String> literals = new ArrayList<>();
+        List<Integer> groups = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int cursor = 0;
+        while (cursor < replacement.length()) {
+            char c = replacement.charAt(cursor);
+            if (c == '\\') {
+                cursor++;
+                if (cursor == replacement.length()) {
+                    return null;
+                }
+                literal.append(replacement.charAt(cursor));
+                cursor++;
+            } else if (c == '$') {
+                cursor++;
+                if (cursor == replacement.length()) {
+                    return null;
+                }
+                int refNum = replacement.charAt(cursor) - '0';
+                if (refNum < 0 || refNum > 9) {
+                    return null;
+                }
+                cursor++;
+                //the longest reference that is still a group of the regex, as Matcher does
+                while (cursor < replacement.length()) {
+                    int nextDigit = replacement.charAt(cursor) - '0';
+                    if (nextDigit < 0 || nextDigit > 9 || refNum * 10 + nextDigit > groupCount) {
+                        break;
+                    }
+                    refNum = refNum * 10 + nextDigit;
+                    cursor++;
+                }
+                if (refNum > groupCount) {
+                    return null;
+                }
+                literals.add(literal.toString());
+                groups.add(refNum);
+                literal.setLength(0);
+            } else {
+                literal.append(c);
+                cursor++;
+            }
+        }
+        literals.add(literal.toString());
+        int[] groupArray = new int[groups.size()];
+        for (int i = 0; i < groupArray.length; i++) {
+            groupArray[i] = groups.get(i);
+        }
+        return new ReplacementTemplate(literals.toArray(new String[literals.size()]), groupArray);
+    }
+
+    /**
+     * @param matcher a matcher positioned on a match
+     * @param input the string the matcher is working on
+     * @return the replacement for the current match, constant replacements
+     * are returned without copies
+     */
+    String expand(Matcher matcher, String input) {
+        if (groups.length == 0) {
+            return literals[0];
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < groups.length; i++) {
+            builder.append(literals[i]);
+            int start = matcher.start(groups[i]);
+            if (start != -1) {
+                builder.append(input, start, matcher.end(groups[i]));
+            }
+        }
+        return builder.append(literals[groups.length]).toString();
+    }
+
+    /**
+     * @param spans the spans of the search regex the template was compiled for
+     * @param example the index of a matched example
+     * @param input the string of the example
+     * @return the replacement for the match of the example, constant
+     * replacements are returned without copies
+     */
+    String expand(MatchSpans spans, int example, String input) {
+        if (groups.length == 0) {
+            return literals[0];
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < groups.length; i++) {
+            builder.append(literals[i]);
+            int start = spans.getStart(example, groups[i]);
+            if (start != -1) {
+                builder.append(input, start, spans.getEnd(example, groups[i]));
+            }
+        }
+        return builder.append(literals[groups.length]).toString();
+    }
+}
@@ -160,7 +160,11 @@ public class Bounds implements Comparable<Bounds> {
     }
 
     public int getOverlappingCharsNumber(Bounds target) {
-        int d = Math.min(target.end, this.end) - Math.max(target.start, this.start);
+        return getOverlappingCharsNumber(target.start, target.end);
+    }
+
+    public int getOverlappingCharsNumber(int targetStart, int targetEnd) {
+        int d = Math.min(targetEnd, this.end) - Math.max(targetStart, this.start);
         if (d < 0) {
             d = 0;
         }
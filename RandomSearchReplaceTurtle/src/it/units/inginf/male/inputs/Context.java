@@ -20,6 +20,7 @@ package it.units.inginf.male.inputs;
 import it.units.inginf.male.configuration.Configuration;
 import it.units.inginf.male.configuration.DatasetContainer;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  *
@@ -39,6 +40,8 @@ public class Context {
     private Random random;
     private Configuration configuration;
     private long seed;
+    private final AtomicLong abortedEvaluations = new AtomicLong(0);
+    private final AtomicLong rejectedEvaluations = new AtomicLong(0);
 
     public Context(EvaluationPhases phase, final Configuration configuration) {
         this.phase = phase;
@@ -51,6 +54,46 @@ public class Context {
         return random;
     }
 
+    /**
+     * Replaces the random generator, an evolution resumed from a checkpoint
+     * goes on with the generator state it had.
+     * @param random the generator
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Counts an individual whose evaluation has been aborted by the evaluator,
+     * evaluations may run concurrently.
+     */
+    public void countAbortedEvaluation() {
+        abortedEvaluations.incrementAndGet();
+    }
+
+    /**
+     * @return the individuals whose evaluation has been aborted so far, in
+     * every phase
+     */
+    public long getAbortedEvaluations() {
+        return abortedEvaluations.get();
+    }
+
+    /**
+     * Counts an individual that the evaluator has rejected without evaluating
+     * it, evaluations may run concurrently.
+     */
+    public void countRejectedEvaluation() {
+        rejectedEvaluations.incrementAndGet();
+    }
+
+    /**
+     * @return the individuals rejected so far, in every phase
+     */
+    public long getRejectedEvaluations() {
+        return rejectedEvaluations.get();
+    }
+
     public EvaluationPhases getPhase() {
         return phase;
     }
@@ -18,14 +18,19 @@
 package it.units.inginf.male.inputs;
 
 import it.units.inginf.male.utils.Range;
-import java.util.LinkedList;
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
+import java.util.RandomAccess;
 import java.util.logging.Logger;
 
 /**
  * New dataset structure, this is intended to be serialized in Json format using
  * Gson
+ * The examples are kept in an array backed list; the datasets returned by
+ * subDataset and concat are read-only index views over the examples of the
+ * original dataset, the examples are never copied.
  *
  * @author Fabiano
  */
@@ -49,7 +54,7 @@ public class DataSetReplace {
     public String description;
     public String regexTarget;
     public String replaceExpressionTarget;
-    public List<ExampleReplace> examples = new LinkedList<>();
+    public List<ExampleReplace> examples = new ArrayList<>();
 
     private transient int numberOfChars;
     private transient int editDistance;
@@ -168,16 +173,94 @@ public class DataSetReplace {
      */
     public DataSetReplace subDataset(String name, List<Range> ranges) {
         // ranges are inclusive
-        DataSetReplace subDataset = new DataSetReplace(name);
+        int size = 0;
+        for (Range range : ranges) {
+            size += range.getLength();
+        }
+        int[] indexes = new int[size];
+        int position = 0;
         for (Range range : ranges) {
             for (int index = range.getStartIndex(); index <= range.getEndIndex(); index++) {
-                subDataset.getExamples().add(this.getExamples().get(index));
+                indexes[position++] = sourceIndex(index);
             }
         }
-        return subDataset;
+        return new DataSetReplace(name, new IndexView(source(), indexes));
+    }
+
+    /**
+     * Create a dataset which is a "view" of the examples of first followed by
+     * the examples of second. When they are not views of the same dataset the
+     * examples are copied.
+     *
+     * @param name
+     * @param first
+     * @param second
+     * @return
+     */
+    public static DataSetReplace concat(String name, DataSetReplace first, DataSetReplace second) {
+        if (first.source() != second.source()) {
+            DataSetReplace concat = new DataSetReplace(name);
+            concat.examples.addAll(first.examples);
+            concat.examples.addAll(second.examples);
+            return concat;
+        }
+        int[] indexes = new int[first.getNumberExamples() + second.getNumberExamples()];
+        for (int i = 0; i < first.getNumberExamples(); i++) {
+            indexes[i] = first.sourceIndex(i);
+        }
+        for (int i = 0; i < second.getNumberExamples(); i++) {
+            indexes[first.getNumberExamples() + i] = second.sourceIndex(i);
+        }
+        return new DataSetReplace(name, new IndexView(first.source(), indexes));
+    }
+
+    private DataSetReplace(String name, IndexView examples) {
+        this.name = name;
+        this.examples = examples;
+    }
+
+    private List<ExampleReplace> source() {
+        if (this.examples instanceof IndexView) {
+            return ((IndexView) this.examples).source;
+        }
+        if (!(this.examples instanceof RandomAccess)) {
+            this.examples = new ArrayList<>(this.examples);
+        }
+        return this.examples;
+    }
+
+    private int sourceIndex(int index) {
+        if (this.examples instanceof IndexView) {
+            return ((IndexView) this.examples).indexes[index];
+        }
+        return index;
     }
 
     public ExampleReplace getExample(int index) {
         return examples.get(index);
     }
+
+    /**
+     * Read-only list of the examples at the given indexes of the source list.
+     */
+    private static class IndexView extends AbstractList<ExampleReplace> implements RandomAccess {
+
+        private final List<ExampleReplace> source;
+        private final int[] indexes;
+
+        IndexView(List<ExampleReplace> source, int[] indexes) {
+            this.source = source;
+            this.indexes = indexes;
+        }
+
+        @Override
+        public ExampleReplace get(int index) {
+            return source.get(indexes[index]);
+        }
+
+        @Override
+        public int size() {
+            return indexes.length;
+        }
+    }
 }
@@ -17,6 +17,8 @@
  */
 package it.units.inginf.male.inputs;
 
+import it.units.inginf.male.evaluators.ReplaceResult;
+import it.units.inginf.male.utils.EditDistance;
 import it.units.inginf.male.utils.Pair;
 import it.units.inginf.male.utils.Triplet;
 import it.units.inginf.male.utils.Utils;
@@ -42,6 +44,7 @@ public class ExampleReplace {
     public String string;
     public String targetString;
 
+    private transient volatile int[] commonFlanks = null;
     private Pair<String, String> cachedBeforeAndAfter = null;
     private Bounds cachedBeforeAndAfterBounds = null;
     //public transient List<Bounds> changed = new LinkedList<>();
@@ -88,6 +91,68 @@ public class ExampleReplace {
         return Utils.computeLevenshteinDistance(string, targetString);
     }
 
+    /**
+     * Edit distance between targetString and the outcome of a replacement.
+     * When the result knows the rewritten span, the chars before and after it
+     * that string already shares with targetString are skipped without being
+     * compared, so the work is proportional to the window around the edit.
+     *
+     * @param result the outcome of the replacement on this example
+     * @param bound the maximum distance of interest
+     * @return the distance when it is not greater than bound, otherwise bound + 1
+     */
+    public int getEditDistance(ReplaceResult result, int bound) {
+        String outcome = result.getReplacedString();
+        if (!result.isReplacedSpan()) {
+            return EditDistance.distance(targetString, outcome, bound);
+        }
+        int[] flanks = getCommonFlanks();
+        Bounds span = result.getBounds();
+        int prefix = Math.min(span.start, flanks[0]);
+        int suffix = Math.min(string.length() - span.end, flanks[1]);
+        return EditDistance.distance(targetString, prefix, targetString.length() - suffix, outcome, prefix, outcome.length() - suffix, bound);
+    }
+
+    /**
+     * Edit distance between targetString and string with the chars between
+     * start and end replaced by replacement, the replaced string is not built.
+     *
+     * @param start the start of the replaced span
+     * @param end the end of the replaced span
+     * @param replacement the text that replaces the span
+     * @param bound the maximum distance of interest
+     * @return the distance when it is not greater than bound, otherwise bound + 1
+     */
+    public int getEditDistance(int start, int end, String replacement, int bound) {
+        int[] flanks = getCommonFlanks();
+        int prefix = Math.min(start, flanks[0]);
+        int suffix = Math.min(string.length() - end, flanks[1]);
+        ReplacedSequence outcome = new ReplacedSequence(string, start, end, replacement);
+        return EditDistance.distance(targetString, prefix, targetString.length() - suffix, outcome, prefix, outcome.length() - suffix, bound);
+    }
+
+    /**
+     * The lengths of the common prefix and of the common suffix of string and
+     * targetString, the suffix does not overlap the prefix.
+     */
+    private int[] getCommonFlanks() {
+        int[] flanks = this.commonFlanks;
+        if (flanks == null) {
+            int maxSpan = Math.min(string.length(), targetString.length());
+            int prefix = 0;
+            while (prefix < maxSpan && string.charAt(prefix) == targetString.charAt(prefix)) {
+                prefix++;
+            }
+            int suffix = 0;
+            while (suffix < maxSpan - prefix && string.charAt(string.length() - 1 - suffix) == targetString.charAt(targetString.length() - 1 - suffix)) {
+                suffix++;
+            }
+            flanks = new int[]{prefix, suffix};
+            this.commonFlanks = flanks;
+        }
+        return flanks;
+    }
+
     /**
      * Returns the portion of the string and targetString strings that
      * starts when a difference between them si seen and stops when the last
@@ -174,4 +239,50 @@ public class ExampleReplace {
 //        return this.changed.size();
 //    }
 //    
+
+    /**
+     * Read-only view of a string with a span replaced.
+     */
+    private static class ReplacedSequence implements CharSequence {
+
+        private final String string;
+        private final int start;
+        private final int end;
+        private final String replacement;
+        private final int replacementEnd;
+
+        ReplacedSequence(String string, int start, int end, String replacement) {
+            this.string = string;
+            this.start = start;
+            this.end = end;
+            this.replacement = replacement;
+            this.replacementEnd = start + replacement.length();
+        }
+
+        @Override
+        public int length() {
+            return string.length() - (end - start) + replacement.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            if (index < start) {
+                return string.charAt(index);
+            }
+            if (index < replacementEnd) {
+                return replacement.charAt(index - start);
+            }
+            return string.charAt(index - replacementEnd + end);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().substring(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return new StringBuilder(length()).append(string, 0, start).append(replacement).append(string, end, string.length()).toString();
+        }
+    }
 }
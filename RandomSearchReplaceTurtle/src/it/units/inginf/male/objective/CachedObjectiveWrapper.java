@@ -20,36 +20,63 @@ import it.units.inginf.male.utils.CacheInterface;
 import it.units.inginf.male.evaluators.CoevolutionaryEvaluator;
 import it.units.inginf.male.inputs.Context;
 import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.utils.BoundedCache;
 import it.units.inginf.male.utils.Triplet;
-import java.util.Map;
-import java.util.WeakHashMap;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * This class wraps an objective and cache it.
  * Default constructor has to be implemented in subclasses
+ * The cache is shared by all the wrapper instances (one per job), its size is
+ * read from the <code>cacheSizeBytes</code> objective parameter.
+ * Entries are keyed on the structural fingerprint of the tree, not on its
+ * description: trees with the same description may have a different complexity.
  * Created by Fabiano
  */
-public abstract class CachedObjectiveWrapper implements Objective, CacheInterface {
+public abstract class CachedObjectiveWrapper implements EditBoundedObjective, CacheInterface {
+    
+    public static final long DEFAULT_CACHE_SIZE_BYTES = 64L * 1024 * 1024;
+    
     private Context context;
     private final Objective wrappedOjective;
     private final int objectiveID;
+    private double editBound = Double.POSITIVE_INFINITY;
     
-    private static transient Map<Triplet<Integer, Context.EvaluationPhases, String>, double[]> cache = new WeakHashMap<>();
-    //private static final Object cacheOwner = new Object();
-    
-    private static final AtomicLong hit = new AtomicLong(0);
-    private static final AtomicLong miss = new AtomicLong(0);
+    private static volatile BoundedCache<Triplet<Integer, Context.EvaluationPhases, Long>, double[]> cache = buildCache(DEFAULT_CACHE_SIZE_BYTES);
 
     public CachedObjectiveWrapper(Objective wrappedOjective) {
         this.wrappedOjective = wrappedOjective;
-        this.objectiveID = wrappedOjective.hashCode();
+        //the same objective class gives the same fitness, this way jobs share the cached values
+        this.objectiveID = wrappedOjective.getClass().getName().hashCode();
+    }
+
+    private static BoundedCache<Triplet<Integer, Context.EvaluationPhases, Long>, double[]> buildCache(long sizeBytes) {
+        return new BoundedCache<>(sizeBytes, (key, fitness) -> 32 + 16 + 16 + 8 * fitness.length);
     }
 
     @Override
     public void setup(Context context) {
         this.wrappedOjective.setup(context);
         this.context = context;
+        long sizeBytes = BoundedCache.readSizeBytes(context.getConfiguration().getObjectiveParameters(), DEFAULT_CACHE_SIZE_BYTES);
+        synchronized (CachedObjectiveWrapper.class) {
+            if (cache.getMaximumBytes() != sizeBytes) {
+                cache = buildCache(sizeBytes);
+            }
+        }
+    }
+
+    /**
+     * Forwarded to the wrapped objective when it supports it; fitness values
+     * of individuals stopped by the bound are not cached.
+     */
+    @Override
+    public void setEditBound(double bound) {
+        this.editBound = bound;
+        if (wrappedOjective instanceof EditBoundedObjective) {
+            ((EditBoundedObjective) wrappedOjective).setEditBound(bound);
+        }
     }
 
     @Override
@@ -57,28 +84,38 @@ public abstract class CachedObjectiveWrapper implements Objective, CacheInterfac
         
         double[] result;
         
-        StringBuilder sb = new StringBuilder();
-        individual.describe(sb);
-        Triplet<Integer, Context.EvaluationPhases, String> key = new Triplet<>(objectiveID, context.getPhase(), sb.toString());
-        synchronized (cache) {
-            result = cache.get(key);
-        }
+        Triplet<Integer, Context.EvaluationPhases, Long> key = new Triplet<>(objectiveID, context.getPhase(), individual.getFingerprint());
+        result = cache.get(key);
         if (result != null) {
-            hit.incrementAndGet();
             return result;
         }
 
-        miss.incrementAndGet();
         result = this.wrappedOjective.fitness(individual);
-
-        synchronized (cache) {
-            cache.putIfAbsent(key, result);
+        if (result.length > 0 && result[0] > editBound) {
+            return result;
         }
+
+        cache.put(key, result);
         
         return result;
         
     }
 
+    /**
+     * Only the individuals which are not in cache are prepared by the wrapped
+     * objective.
+     */
+    @Override
+    public void prepare(List<? extends Node> individuals, Context context) {
+        List<Node> missing = new ArrayList<>(individuals.size());
+        for (Node individual : individuals) {
+            if (!cache.containsKey(new Triplet<>(objectiveID, context.getPhase(), individual.getFingerprint()))) {
+                missing.add(individual);
+            }
+        }
+        this.wrappedOjective.prepare(missing, context);
+    }
+
     @Override
     public CoevolutionaryEvaluator getTreeEvaluator() {
         return context.getConfiguration().getEvaluator();
@@ -89,28 +126,17 @@ public abstract class CachedObjectiveWrapper implements Objective, CacheInterfac
 
     @Override
     public double getRatio(){
-        return (double)hit.get()/(hit.get()+miss.get());
+        return cache.getRatio();
     }
 
     @Override
     public long getCacheSizeBytes(){
-        long cacheSize = 0;
-        synchronized (cache) {
-            for (Map.Entry<Triplet<Integer, Context.EvaluationPhases, String>, double[]> entry : cache.entrySet()) {
-                //Triplet<EvaluationPhases, Boolean, String> triplet = entry.getKey();
-                double[] cachedValue = entry.getValue();
-                Triplet<Integer, Context.EvaluationPhases, String> cachedKey = entry.getKey();
-                cacheSize += cachedValue.length * Double.SIZE / 8; //Bytes size
-                cacheSize += (2 * Integer.SIZE + 8 * ((cachedKey.getThird().length()  * 2) + 45)) / 8;
-            }
-        }
-        cacheSize*=(Integer.SIZE/4);
-        return cacheSize;
+        return cache.getCacheSizeBytes();
     }
     
     @Override
     public int getCacheSize() {
-        return cache.size();
+        return cache.getCacheSize();
     }
 
     
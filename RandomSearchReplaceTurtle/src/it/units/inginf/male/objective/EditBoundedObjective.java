@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.objective;
+
+/**
+ * Objectives whose first fitness is the sum of the edit distances over the
+ * examples. When a bound is set, the edit distances of an individual are no
+ * longer computed as soon as the sum exceeds the bound and its edit fitness is
+ * Double.POSITIVE_INFINITY; the other fitness values are computed as usual,
+ * the individual may still be non dominated through them.
+ */
+public interface EditBoundedObjective extends Objective {
+
+    /**
+     * @param bound the maximum edit fitness of interest, Double.POSITIVE_INFINITY
+     * disables the early exit
+     */
+    void setEditBound(double bound);
+
+    /**
+     * The bound to pass to the edit distance kernel for the next example.
+     * @param bound the edit bound of the objective
+     * @param fitnessEdit the sum of the edit distances so far
+     * @return the maximum distance of interest for the next example
+     */
+    static int remainingBound(double bound, double fitnessEdit) {
+        return (int) Math.min(Integer.MAX_VALUE, Math.floor(bound - fitnessEdit));
+    }
+}
@@ -18,8 +18,9 @@
 
 import it.units.inginf.male.coevolution.Forest;
 import it.units.inginf.male.evaluators.CoevolutionaryEvaluator;
+import it.units.inginf.male.evaluators.MatchAbortedException;
 import it.units.inginf.male.evaluators.ReplaceEvaluator;
-import it.units.inginf.male.evaluators.ReplaceResult;
+import it.units.inginf.male.evaluators.ReplaceResults;
 import it.units.inginf.male.evaluators.TreeEvaluationException;
 import it.units.inginf.male.inputs.Bounds;
 import it.units.inginf.male.inputs.Context;
@@ -27,10 +28,8 @@ import it.units.inginf.male.inputs.DataSetReplace;
 import it.units.inginf.male.inputs.ExampleReplace;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.utils.Pair;
-import it.units.inginf.male.utils.Utils;
 
 import java.util.Arrays;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -40,15 +39,21 @@ import java.util.logging.Logger;
  * chars, between the string to be replaced and the substitution made by the
  * individual Objective 2: length of the regex
  */
-public class EditCharrecallLengthObjective implements Objective {
+public class EditCharrecallLengthObjective implements EditBoundedObjective {
 
     private Context context;
+    private double editBound = Double.POSITIVE_INFINITY;
 
     @Override
     public void setup(Context context) {
         this.context = context;
     }
 
+    @Override
+    public void setEditBound(double bound) {
+        this.editBound = bound;
+    }
+
     @Override
     public double[] fitness(Node individual) {
         DataSetReplace dataSetView = this.context.getCurrentDataSet();
@@ -59,34 +64,36 @@ public class EditCharrecallLengthObjective implements Objective {
         double fitnessRecall = 0;
         double fitnessEdit = 0;
 
-        List<ReplaceResult> evaluate;
+        ReplaceResults evaluate;
         try {
-            evaluate = evaluator.evaluate((Forest) individual, context);
+            evaluate = ReplaceResults.of(evaluator.evaluate((Forest) individual, context), dataSetView.getExamples());
             StringBuilder builder = new StringBuilder();
             ((Forest) individual).get(0).describe(builder);
             fitnessLenght = builder.length();
 
             for (int exampleIndex = 0; exampleIndex < dataSetView.getNumberExamples(); exampleIndex++) {
                 ExampleReplace example = dataSetView.getExample(exampleIndex);
-                String outcome = evaluate.get(exampleIndex).getReplacedString();
-                fitnessEdit += Utils.computeLevenshteinDistance(example.targetString, outcome);
+                if (fitnessEdit <= editBound) {
+                    fitnessEdit += evaluate.getEditDistance(exampleIndex, EditBoundedObjective.remainingBound(editBound, fitnessEdit));
+                }
 
                 Bounds beforeAndAfterBounds = example.getChangedBeforeAndAfterBounds();
                 if (beforeAndAfterBounds == null) {
-                    fitnessRecall += evaluate.get(exampleIndex).getBounds().size();
+                    fitnessRecall += evaluate.getEnd(exampleIndex) - evaluate.getStart(exampleIndex);
                 } else {                    
-                    fitnessRecall += beforeAndAfterBounds.size() - beforeAndAfterBounds.getOverlappingCharsNumber(evaluate.get(exampleIndex).getBounds());
+                    fitnessRecall += beforeAndAfterBounds.size() - beforeAndAfterBounds.getOverlappingCharsNumber(evaluate.getStart(exampleIndex), evaluate.getEnd(exampleIndex));
                 }
 
             }
 
         } catch (TreeEvaluationException ex) {
-            Logger.getLogger(EditLengthObjective.class.getName()).log(Level.SEVERE, null, ex);
+            Logger.getLogger(EditLengthObjective.class.getName()).log(ex instanceof MatchAbortedException ? Level.FINE : Level.SEVERE, null, ex);
             Arrays.fill(fitness, Double.POSITIVE_INFINITY);
             return fitness;
         }
 
-        fitness[0] = fitnessEdit;
+        //over the bound the sum is partial, the other objectives are not
+        fitness[0] = fitnessEdit > editBound ? Double.POSITIVE_INFINITY : fitnessEdit;
         fitness[1] = fitnessRecall;
         fitness[2] = fitnessLenght;
 
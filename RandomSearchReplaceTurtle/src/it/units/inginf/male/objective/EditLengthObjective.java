@@ -18,31 +18,35 @@
 
 import it.units.inginf.male.coevolution.Forest;
 import it.units.inginf.male.evaluators.CoevolutionaryEvaluator;
+import it.units.inginf.male.evaluators.MatchAbortedException;
 import it.units.inginf.male.evaluators.ReplaceEvaluator;
-import it.units.inginf.male.evaluators.ReplaceResult;
+import it.units.inginf.male.evaluators.ReplaceResults;
 import it.units.inginf.male.evaluators.TreeEvaluationException;
 import it.units.inginf.male.inputs.Context;
 import it.units.inginf.male.inputs.DataSetReplace;
-import it.units.inginf.male.inputs.ExampleReplace;
 import it.units.inginf.male.tree.Node;
-import it.units.inginf.male.utils.Utils;
 
 import java.util.Arrays;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Created by andrea on 21/11/16.
  */
-public class EditLengthObjective implements Objective {
+public class EditLengthObjective implements EditBoundedObjective {
     private Context context;
+    private double editBound = Double.POSITIVE_INFINITY;
 
     @Override
     public void setup(Context context) {
         this.context = context;
     }
 
+    @Override
+    public void setEditBound(double bound) {
+        this.editBound = bound;
+    }
+
     @Override
     public double[] fitness(Node individual) {
         DataSetReplace dataSetView = this.context.getCurrentDataSet();
@@ -52,26 +56,28 @@ public class EditLengthObjective implements Objective {
         double fitnessLenght;
         double fitnessEdit = 0;
 
-        List<ReplaceResult> evaluate;
+        ReplaceResults evaluate;
         try {
-            evaluate = evaluator.evaluate((Forest)individual, context);
+            evaluate = ReplaceResults.of(evaluator.evaluate((Forest)individual, context), dataSetView.getExamples());
             StringBuilder builder = new StringBuilder();
             ((Forest)individual).get(0).describe(builder);
             fitnessLenght = builder.length();
 
             for (int exampleIndex = 0; exampleIndex < dataSetView.getNumberExamples(); exampleIndex++) {
-                ExampleReplace example = dataSetView.getExample(exampleIndex);
-                String outcome = evaluate.get(exampleIndex).getReplacedString();
-                fitnessEdit += Utils.computeLevenshteinDistance(example.targetString,outcome);
+                fitnessEdit += evaluate.getEditDistance(exampleIndex, EditBoundedObjective.remainingBound(editBound, fitnessEdit));
+                if (fitnessEdit > editBound) {
+                    break;
+                }
             }
 
         } catch (TreeEvaluationException ex) {
-            Logger.getLogger(EditLengthObjective.class.getName()).log(Level.SEVERE, null, ex);
+            Logger.getLogger(EditLengthObjective.class.getName()).log(ex instanceof MatchAbortedException ? Level.FINE : Level.SEVERE, null, ex);
             Arrays.fill(fitness, Double.POSITIVE_INFINITY);
             return fitness;
         }
 
-        fitness[0] = fitnessEdit;
+        //over the bound the sum is partial, the other objectives are not
+        fitness[0] = fitnessEdit > editBound ? Double.POSITIVE_INFINITY : fitnessEdit;
         fitness[1] = fitnessLenght;
 
         return fitness;
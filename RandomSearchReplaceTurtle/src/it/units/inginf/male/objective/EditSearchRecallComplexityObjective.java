@@ -18,8 +18,9 @@
 
 import it.units.inginf.male.coevolution.Forest;
 import it.units.inginf.male.evaluators.CoevolutionaryEvaluator;
+import it.units.inginf.male.evaluators.MatchAbortedException;
 import it.units.inginf.male.evaluators.ReplaceEvaluator;
-import it.units.inginf.male.evaluators.ReplaceResult;
+import it.units.inginf.male.evaluators.ReplaceResults;
 import it.units.inginf.male.evaluators.TreeEvaluationException;
 import it.units.inginf.male.inputs.Bounds;
 import it.units.inginf.male.inputs.Context;
@@ -29,7 +30,6 @@ import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.utils.Utils;
 
 import java.util.Arrays;
-import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -37,14 +37,20 @@ import java.util.logging.Logger;
  * Created by Fabiano
  * DefaultCachedReplaceEvaluatorFix has a fix that IS needed in order to work
  */
-public class EditSearchRecallComplexityObjective implements Objective {
+public class EditSearchRecallComplexityObjective implements EditBoundedObjective {
     private Context context;
+    private double editBound = Double.POSITIVE_INFINITY;
 
     @Override
     public void setup(Context context) {
         this.context = context;
     }
 
+    @Override
+    public void setEditBound(double bound) {
+        this.editBound = bound;
+    }
+
     @Override
     public double[] fitness(Node individual) {
         DataSetReplace dataSetView = this.context.getCurrentDataSet();
@@ -56,26 +62,25 @@ public class EditSearchRecallComplexityObjective implements Objective {
         double fitnessSearchRecall = 0;
         
         
-        List<ReplaceResult> evaluate;
+        ReplaceResults evaluate;
         try {
             Forest individualForest = (Forest)individual; 
-            evaluate = evaluator.evaluate(individualForest, context);
+            evaluate = ReplaceResults.of(evaluator.evaluate(individualForest, context), dataSetView.getExamples());
             fitnessComplex = Utils.complexityRegex(individualForest.get(0), true) + Utils.complexityReplace(individualForest.get(1));
             int missedChangedTotal = 0;
             int changedTotal = 0;
             for (int exampleIndex = 0; exampleIndex < dataSetView.getNumberExamples(); exampleIndex++) {
                 ExampleReplace example = dataSetView.getExample(exampleIndex);
-                ReplaceResult replaceOutcome = evaluate.get(exampleIndex);
-                String outcome = replaceOutcome.getReplacedString();
-                fitnessEdit += Utils.computeLevenshteinDistance(example.targetString,outcome);
+                if (fitnessEdit <= editBound) {
+                    fitnessEdit += evaluate.getEditDistance(exampleIndex, EditBoundedObjective.remainingBound(editBound, fitnessEdit));
+                }
                 
                 //Recall part
                 Bounds changedBoundsInString = example.getChangedBeforeAndAfterBounds();
                 if(changedBoundsInString==null){
                     changedBoundsInString = new Bounds(0, 0);
                 }
-                Bounds searchBounds = replaceOutcome.getBounds();
-                int overlappingCharsNumber = searchBounds.getOverlappingCharsNumber(changedBoundsInString);
+                int overlappingCharsNumber = changedBoundsInString.getOverlappingCharsNumber(evaluate.getStart(exampleIndex), evaluate.getEnd(exampleIndex));
                 int missed = changedBoundsInString.size() - overlappingCharsNumber;
                 missedChangedTotal+=missed;
                 changedTotal += changedBoundsInString.size();
@@ -83,12 +88,13 @@ public class EditSearchRecallComplexityObjective implements Objective {
             fitnessSearchRecall = ((double)missedChangedTotal)/changedTotal;  
 
         } catch (TreeEvaluationException ex) {
-            Logger.getLogger(EditSearchRecallComplexityObjective.class.getName()).log(Level.SEVERE, null, ex);
+            Logger.getLogger(EditSearchRecallComplexityObjective.class.getName()).log(ex instanceof MatchAbortedException ? Level.FINE : Level.SEVERE, null, ex);
             Arrays.fill(fitness, Double.POSITIVE_INFINITY);
             return fitness;
         }
 
-        fitness[0] = fitnessEdit;
+        //over the bound the sum is partial, the other objectives are not
+        fitness[0] = fitnessEdit > editBound ? Double.POSITIVE_INFINITY : fitnessEdit;
         fitness[1] = fitnessSearchRecall;       
         fitness[2] = fitnessComplex;
 
@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.objective;
+
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.strategy.GenerationStatistics;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.utils.CacheInterface;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Fitness cache owned by a single strategy instance, keyed by evaluation phase
+ * and individual fingerprint. The fingerprint is structural, like the key of
+ * CachedObjectiveWrapper: forests with the same description but a different
+ * shape have their own entries.
+ * Unlike the size bounded CachedObjectiveWrapper cache, entries are not evicted
+ * under memory pressure: an entry stays as long as its individual is alive in
+ * the rankings and is dropped <code>retention</code> generations after the
+ * individual leaves them. The elites and the forests rebuilt from surviving
+ * trees are therefore never evaluated twice.
+ * Fitness values stopped by an edit bound (infinite edit fitness) depend on the
+ * bound and are not cached.
+ * The cache is not thread safe, it is meant to be used by the thread running
+ * the strategy; the evaluation of the misses may be parallel.
+ */
+public class GenerationalFitnessCache implements CacheInterface {
+
+    public static final String RETENTION_KEY = "fitnessCacheRetention";
+
+    private final int retention;
+    private final Map<Context.EvaluationPhases, Map<Long, Entry>> entries = new EnumMap<>(Context.EvaluationPhases.class);
+    private int generation = 0;
+    private long lookups = 0;
+    private long evaluations = 0;
+    private long totalLookups = 0;
+    private long totalEvaluations = 0;
+
+    /**
+     * @param retention the generations an entry survives after its individual
+     * has left the rankings, 0 drops it at the end of the same generation
+     */
+    public GenerationalFitnessCache(int retention) {
+        if (retention < 0) {
+            throw new IllegalArgumentException("Fitness cache retention must not be negative: " + retention);
+        }
+        this.retention = retention;
+    }
+
+    /**
+     * Reads the retention from the strategy parameters, when it is missing
+     * entries are dropped as soon as their individual leaves the rankings.
+     * @param parameters the strategy parameters, may be null
+     * @return the cache
+     */
+    public static GenerationalFitnessCache fromParameters(Map<String, String> parameters) {
+        int retention = 0;
+        if (parameters != null && parameters.containsKey(RETENTION_KEY)) {
+            retention = Integer.valueOf(parameters.get(RETENTION_KEY));
+        }
+        return new GenerationalFitnessCache(retention);
+    }
+
+    /**
+     * Returns the fitness of the individuals, only the ones missing from the
+     * cache are passed to the evaluator (once per fingerprint).
+     * @param individuals the individuals to evaluate
+     * @param phase the evaluation phase of the objective
+     * @param evaluator evaluates a list of individuals, returns the fitness
+     * of each one in the same order
+     * @return the fitness of each individual, in the same order
+     */
+    public double[][] evaluate(List<? extends Node> individuals, Context.EvaluationPhases phase, Function<List<Node>, double[][]> evaluator) {
+        Map<Long, Entry> phaseEntries = entries.get(phase);
+        if (phaseEntries == null) {
+            phaseEntries = new HashMap<>();
+            entries.put(phase, phaseEntries);
+        }
+        double[][] fitness = new double[individuals.size()][];
+        int[] pending = new int[individuals.size()];
+        List<Node> missing = new ArrayList<>();
+        Map<Long, Integer> missingIndexes = new HashMap<>();
+        for (int i = 0; i < individuals.size(); i++) {
+            Node individual = individuals.get(i);
+            Entry entry = phaseEntries.get(individual.getFingerprint());
+            if (entry != null) {
+                fitness[i] = entry.fitness.clone();
+                pending[i] = -1;
+                continue;
+            }
+            Integer index = missingIndexes.get(individual.getFingerprint());
+            if (index == null) {
+                index = missing.size();
+                missingIndexes.put(individual.getFingerprint(), index);
+                missing.add(individual);
+            }
+            pending[i] = index;
+        }
+        lookups += individuals.size();
+        evaluations += missing.size();
+        if (missing.isEmpty()) {
+            return fitness;
+        }
+
+        double[][] evaluated = evaluator.apply(missing);
+        for (int m = 0; m < missing.size(); m++) {
+            if (evaluated[m].length > 0 && Double.isInfinite(evaluated[m][0])) {
+                continue;
+            }
+            //not alive yet, the entry is dropped at the end of this generation unless marked alive
+            phaseEntries.put(missing.get(m).getFingerprint(), new Entry(evaluated[m].clone(), generation - 1));
+        }
+        for (int i = 0; i < fitness.length; i++) {
+            if (pending[i] >= 0) {
+                fitness[i] = evaluated[pending[i]];
+            }
+        }
+        return fitness;
+    }
+
+    /**
+     * Pins the cached fitness of an individual that survived the current
+     * generation, in every phase.
+     * @param fingerprint the fingerprint of the individual
+     */
+    public void markAlive(long fingerprint) {
+        for (Map<Long, Entry> phaseEntries : entries.values()) {
+            Entry entry = phaseEntries.get(fingerprint);
+            if (entry != null) {
+                entry.lastAlive = generation;
+            }
+        }
+    }
+
+    /**
+     * Ages out the entries whose individuals have not been marked alive in the
+     * last <code>retention</code> generations and starts a new generation.
+     * @param statistics when not null, receives the counters of the ending
+     * generation
+     */
+    public void endGeneration(GenerationStatistics statistics) {
+        for (Map<Long, Entry> phaseEntries : entries.values()) {
+            for (Iterator<Entry> it = phaseEntries.values().iterator(); it.hasNext();) {
+                if (generation - it.next().lastAlive > retention) {
+                    it.remove();
+                }
+            }
+        }
+        if (statistics != null) {
+            statistics.setFitnessLookups(lookups);
+            statistics.setFitnessEvaluations(evaluations);
+            statistics.setFitnessCacheSize(getCacheSize());
+        }
+        totalLookups += lookups;
+        totalEvaluations += evaluations;
+        lookups = 0;
+        evaluations = 0;
+        generation++;
+    }
+
+    public int getRetention() {
+        return retention;
+    }
+
+    @Override
+    public double getRatio() {
+        long allLookups = totalLookups + lookups;
+        return allLookups == 0 ? 0 : (allLookups - totalEvaluations - evaluations) / (double) allLookups;
+    }
+
+    @Override
+    public long getCacheSizeBytes() {
+        long cacheSize = 0;
+        for (Map<Long, Entry> phaseEntries : entries.values()) {
+            for (Entry entry : phaseEntries.values()) {
+                cacheSize += 32 + 16 + 24 + 16 + 8 * entry.fitness.length;
+            }
+        }
+        return cacheSize;
+    }
+
+    @Override
+    public int getCacheSize() {
+        int size = 0;
+        for (Map<Long, Entry> phaseEntries : entries.values()) {
+            size += phaseEntries.size();
+        }
+        return size;
+    }
+
+    @Override
+    public Object getCache() {
+        return entries;
+    }
+
+    private static class Entry {
+
+        private final double[] fitness;
+        private int lastAlive;
+
+        Entry(double[] fitness, int lastAlive) {
+            this.fitness = fitness;
+            this.lastAlive = lastAlive;
+        }
+    }
+}
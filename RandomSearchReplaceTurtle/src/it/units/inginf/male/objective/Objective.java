@@ -18,9 +18,12 @@
 
 package it.units.inginf.male.objective;
 
+import it.units.inginf.male.coevolution.Forest;
 import it.units.inginf.male.evaluators.CoevolutionaryEvaluator;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.inputs.Context;
+import java.util.ArrayList;
+import java.util.List;
 
 
 /**
@@ -34,4 +37,26 @@ public interface Objective {
     public double[] fitness(Node individual);
     CoevolutionaryEvaluator getTreeEvaluator();
     Objective cloneObjective();
+
+    /**
+     * Called with the individuals that are going to be evaluated, one at a
+     * time, by the same thread; by default the forests are passed to the tree
+     * evaluator so that it can share work among them.
+     * @param individuals the individuals about to be evaluated
+     * @param context the context of the evaluation
+     */
+    default void prepare(List<? extends Node> individuals, Context context) {
+        CoevolutionaryEvaluator evaluator = getTreeEvaluator();
+        if (evaluator == null || individuals.isEmpty()) {
+            return;
+        }
+        List<Forest> forests = new ArrayList<>(individuals.size());
+        for (Node individual : individuals) {
+            if (!(individual instanceof Forest)) {
+                return;
+            }
+            forests.add((Forest) individual);
+        }
+        evaluator.prepare(forests, context);
+    }
 }
@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.objective;
+
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.utils.NonDominatedSorting;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bounded population kept sorted in Pareto fronts while individuals are added
+ * one at a time, for the strategies without generations.
+ * A new individual joins the first front where nobody dominates it, the
+ * individuals of that front it dominates move to the next front and push
+ * down, in turn, the ones they dominate; the other individuals keep their
+ * front, so an insertion costs a scan of the fronts instead of a full
+ * non-dominated sort. When the archive is full the individual with the lowest
+ * crowding distance of the last front is dropped.
+ * In a front individuals are ordered by fitness values, objective by
+ * objective, then by insertion. Individuals are deduplicated on the tree
+ * fingerprint. Not thread safe.
+ */
+public class ParetoArchive {
+
+    private final int capacity;
+    private final List<List<Member>> fronts = new ArrayList<>();
+    private final Set<Long> fingerprints = new HashSet<>();
+    private int size = 0;
+    private long insertions = 0;
+
+    public ParetoArchive(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Pareto archive capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds an individual unless one with the same fingerprint is already in.
+     * @param tree the individual
+     * @param fitness its fitness
+     * @return true when the individual is in the archive after the insertion,
+     * false when it was a duplicate or it has been dropped at once
+     */
+    public boolean add(Node tree, double[] fitness) {
+        long fingerprint = tree.getFingerprint();
+        if (!fingerprints.add(fingerprint)) {
+            return false;
+        }
+        Member member = new Member(tree, fingerprint, fitness.clone(), insertions++);
+        size++;
+        int front = 0;
+        while (front < fronts.size() && isDominated(member, fronts.get(front))) {
+            front++;
+        }
+        List<Member> moving = new ArrayList<>(1);
+        moving.add(member);
+        while (!moving.isEmpty()) {
+            if (front == fronts.size()) {
+                fronts.add(new ArrayList<>(moving.size()));
+            }
+            List<Member> current = fronts.get(front);
+            List<Member> dominated = new ArrayList<>();
+            for (int i = current.size() - 1; i >= 0; i--) {
+                if (dominatesAny(moving, current.get(i))) {
+                    dominated.add(current.remove(i));
+                }
+            }
+            for (Member m : moving) {
+                insertSorted(current, m);
+            }
+            moving = dominated;
+            front++;
+        }
+        if (size > capacity) {
+            return dropWorst() != member;
+        }
+        return true;
+    }
+
+    private static boolean isDominated(Member member, List<Member> front) {
+        for (Member other : front) {
+            if (NonDominatedSorting.compare(other.fitness, member.fitness) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean dominatesAny(List<Member> members, Member candidate) {
+        for (Member member : members) {
+            if (NonDominatedSorting.compare(member.fitness, candidate.fitness) < 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void insertSorted(List<Member> front, Member member) {
+        int low = 0;
+        int high = front.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compare(front.get(middle), member) <= 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        front.add(low, member);
+    }
+
+    private static int compare(Member a, Member b) {
+        for (int k = 0; k < a.fitness.length; k++) {
+            int compare = Double.compare(a.fitness[k], b.fitness[k]);
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return Long.compare(a.insertion, b.insertion);
+    }
+
+    private Member dropWorst() {
+        List<Member> last = fronts.get(fronts.size() - 1);
+        int worst = last.size() - 1;
+        if (last.size() > 2) {
+            double[][] fitness = new double[last.size()][];
+            int[] indexes = new int[last.size()];
+            for (int i = 0; i < fitness.length; i++) {
+                fitness[i] = last.get(i).fitness;
+                indexes[i] = i;
+            }
+            double[] distance = NonDominatedSorting.crowdingDistance(fitness, indexes);
+            for (int i = worst - 1; i >= 0; i--) {
+                if (distance[i] < distance[worst]) {
+                    worst = i;
+                }
+            }
+        }
+        Member dropped = last.remove(worst);
+        if (last.isEmpty()) {
+            fronts.remove(fronts.size() - 1);
+        }
+        fingerprints.remove(dropped.fingerprint);
+        size--;
+        return dropped;
+    }
+
+    public boolean contains(long fingerprint) {
+        return fingerprints.contains(fingerprint);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getFrontCount() {
+        return fronts.size();
+    }
+
+    public int getFrontSize(int front) {
+        return fronts.get(front).size();
+    }
+
+    /**
+     * @return the best individual: the first one of the first front, null when
+     * the archive is empty
+     */
+    public Node getBest() {
+        return fronts.isEmpty() ? null : fronts.get(0).get(0).tree;
+    }
+
+    /**
+     * Copies the individuals, front by front, in a new table.
+     * @return a view of the table in the archive order, which is the order
+     * RankingTable.sort would give up to the tie-breaks
+     */
+    public RankingTable.View snapshot() {
+        RankingTable table = new RankingTable(size);
+        for (List<Member> front : fronts) {
+            for (Member member : front) {
+                table.add(member.tree, member.fitness);
+            }
+        }
+        return table.view();
+    }
+
+    private static final class Member {
+
+        private final Node tree;
+        private final long fingerprint;
+        private final double[] fitness;
+        private final long insertion;
+
+        Member(Node tree, long fingerprint, double[] fitness, long insertion) {
+            this.tree = tree;
+            this.fingerprint = fingerprint;
+            this.fitness = fitness;
+            this.insertion = insertion;
+        }
+    }
+}
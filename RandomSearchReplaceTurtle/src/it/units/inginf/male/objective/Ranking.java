@@ -27,6 +27,8 @@ public class Ranking {
 
     private Node tree;
     private double[] fitness;
+    private String description;
+    private long descriptionFingerprint;
 
     public Ranking(Node tree, double[] fitness) {
         this.tree = tree;
@@ -43,10 +45,24 @@ public class Ranking {
         return tree;
     }    
     
+    public long getFingerprint(){
+        return this.tree.getFingerprint();
+    }
+
+    /**
+     * The description is built once and reused while the tree fingerprint
+     * does not change; it is the tie-break key of the rankings sort.
+     * @return the description of the tree
+     */
     public String getDescription(){
-        StringBuilder sb = new StringBuilder();
-        this.tree.describe(sb);
-        return sb.toString();
+        long fingerprint = this.tree.getFingerprint();
+        if (this.description == null || this.descriptionFingerprint != fingerprint) {
+            StringBuilder sb = new StringBuilder();
+            this.tree.describe(sb);
+            this.descriptionFingerprint = fingerprint;
+            this.description = sb.toString();
+        }
+        return this.description;
     }
 
     @Override
@@ -73,8 +89,6 @@ public class Ranking {
 
     @Override
     public String toString() {
-        StringBuilder sb = new StringBuilder();
-        this.tree.describe(sb);
-        return sb.toString();
+        return getDescription();
     }
 }
@@ -0,0 +1,319 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.objective;
+
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.utils.NonDominatedSorting;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * Population store for the ranking phases. Trees, fingerprints, fitness
+ * values and descriptions are kept in parallel arrays, the fitness values of
+ * all the individuals in a single row-major double[]. Individuals are
+ * deduplicated on the tree fingerprint and sorted by index; a View exposes
+ * some of them, in a given order, as the List of Ranking that selections and
+ * listeners expect.
+ * Descriptions are the tie-break key of the sort, they are built at most once
+ * per individual and travel with it when it is copied to another table.
+ * Not thread safe.
+ */
+public class RankingTable {
+
+    private int objectives = -1;
+    private Node[] trees;
+    private long[] fingerprints;
+    private String[] descriptions;
+    private double[] fitness;
+    private int size = 0;
+    //open addressing on the fingerprints: index + 1 of the individual, 0 when empty
+    private int[] slots;
+
+    public RankingTable(int capacity) {
+        capacity = Math.max(capacity, 4);
+        this.trees = new Node[capacity];
+        this.fingerprints = new long[capacity];
+        this.descriptions = new String[capacity];
+        this.fitness = new double[0];
+        this.slots = new int[tableSizeFor(capacity)];
+    }
+
+    private static int tableSizeFor(int capacity) {
+        return Integer.highestOneBit(capacity * 2 - 1) << 1;
+    }
+
+    /**
+     * Adds an individual unless one with the same fingerprint is already in.
+     * @param tree the individual
+     * @param values its fitness, copied
+     * @return true when the individual has been added
+     */
+    public boolean add(Node tree, double[] values) {
+        return add(tree, values, 0, values.length, null);
+    }
+
+    /**
+     * Adds an individual with the fitness of a row of another table, unless
+     * one with the same fingerprint is already in.
+     * @param tree the individual
+     * @param source the table holding the fitness
+     * @param index the row in source
+     * @return true when the individual has been added
+     */
+    public boolean add(Node tree, RankingTable source, int index) {
+        String description = tree == source.trees[index] ? source.descriptions[index] : null;
+        return add(tree, source.fitness, index * source.objectives, source.objectives, description);
+    }
+
+    private boolean add(Node tree, double[] values, int offset, int length, String description) {
+        if (objectives < 0) {
+            objectives = length;
+            fitness = new double[trees.length * objectives];
+        } else if (length != objectives) {
+            throw new IllegalArgumentException("Expected " + objectives + " fitness values, found " + length);
+        }
+        long fingerprint = tree.getFingerprint();
+        int slot = slotOf(fingerprint);
+        if (slots[slot] != 0) {
+            return false;
+        }
+        if (size == trees.length) {
+            grow();
+            slot = slotOf(fingerprint);
+        }
+        trees[size] = tree;
+        fingerprints[size] = fingerprint;
+        descriptions[size] = description;
+        System.arraycopy(values, offset, fitness, size * objectives, objectives);
+        size++;
+        slots[slot] = size;
+        return true;
+    }
+
+    /**
+     * @return the slot holding fingerprint, or the empty slot where it goes
+     */
+    private int slotOf(long fingerprint) {
+        int mask = slots.length - 1;
+        int slot = (int) (fingerprint ^ (fingerprint >>> 32)) & mask;
+        while (slots[slot] != 0 && fingerprints[slots[slot] - 1] != fingerprint) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void grow() {
+        int capacity = trees.length * 2;
+        trees = Arrays.copyOf(trees, capacity);
+        fingerprints = Arrays.copyOf(fingerprints, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        fitness = Arrays.copyOf(fitness, capacity * objectives);
+        slots = new int[tableSizeFor(capacity)];
+        for (int i = 0; i < size; i++) {
+            slots[slotOf(fingerprints[i])] = i + 1;
+        }
+    }
+
+    public boolean contains(long fingerprint) {
+        return slots[slotOf(fingerprint)] != 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getObjectives() {
+        return Math.max(objectives, 0);
+    }
+
+    public Node getTree(int index) {
+        return trees[index];
+    }
+
+    public long getFingerprint(int index) {
+        return fingerprints[index];
+    }
+
+    /**
+     * @param index the individual
+     * @return the description of the tree, built on the first request
+     */
+    public String getDescription(int index) {
+        String description = descriptions[index];
+        if (description == null) {
+            StringBuilder builder = new StringBuilder();
+            trees[index].describe(builder);
+            description = builder.toString();
+            descriptions[index] = description;
+        }
+        return description;
+    }
+
+    public double getFitness(int index, int objective) {
+        return fitness[index * objectives + objective];
+    }
+
+    /**
+     * @param index the individual
+     * @return a copy of its fitness
+     */
+    public double[] getFitness(int index) {
+        return Arrays.copyOfRange(fitness, index * objectives, (index + 1) * objectives);
+    }
+
+    /**
+     * @return all the individuals, in insertion order
+     */
+    public View view() {
+        int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        return new View(indexes, size, new Ranking[size]);
+    }
+
+    /**
+     * Sorts the individuals by Pareto front; in a front they are ordered by
+     * fitness values, objective by objective, then by description in reverse
+     * lexicographic order. The sort is stable and, apart from the descriptions
+     * not built yet, it does not allocate.
+     * @return all the individuals, sorted
+     */
+    public View sort() {
+        int[] order = new int[size];
+        int[] buffer = new int[size];
+        int position = 0;
+        for (int[] front : NonDominatedSorting.fronts(fitness, size, Math.max(objectives, 0))) {
+            System.arraycopy(front, 0, order, position, front.length);
+            mergeSort(order, buffer, position, position + front.length);
+            position += front.length;
+        }
+        return new View(order, size, new Ranking[size]);
+    }
+
+    private int compare(int a, int b) {
+        for (int k = 0; k < objectives; k++) {
+            int compare = Double.compare(fitness[a * objectives + k], fitness[b * objectives + k]);
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return -getDescription(a).compareTo(getDescription(b));
+    }
+
+    private void mergeSort(int[] order, int[] buffer, int from, int to) {
+        if (to - from < 12) {
+            for (int i = from + 1; i < to; i++) {
+                int index = order[i];
+                int j = i - 1;
+                while (j >= from && compare(order[j], index) > 0) {
+                    order[j + 1] = order[j];
+                    j--;
+                }
+                order[j + 1] = index;
+            }
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(order, buffer, from, middle);
+        mergeSort(order, buffer, middle, to);
+        if (compare(order[middle - 1], order[middle]) <= 0) {
+            return;
+        }
+        System.arraycopy(order, from, buffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (right >= to || (left < middle && compare(buffer[left], buffer[right]) <= 0)) {
+                order[i] = buffer[left++];
+            } else {
+                order[i] = buffer[right++];
+            }
+        }
+    }
+
+    /**
+     * Read-only, ordered selection of the individuals of the table. The Ranking
+     * objects are created on first access, the index based accessors do not
+     * create any.
+     */
+    public class View extends AbstractList<Ranking> implements RandomAccess {
+
+        private final int[] indexes;
+        private final int length;
+        private final Ranking[] rankings;
+
+        private View(int[] indexes, int length, Ranking[] rankings) {
+            this.indexes = indexes;
+            this.length = length;
+            this.rankings = rankings;
+        }
+
+        public RankingTable getTable() {
+            return RankingTable.this;
+        }
+
+        /**
+         * @param position the position in this view
+         * @return the index of the individual in the table
+         */
+        public int tableIndex(int position) {
+            if (position >= length) {
+                throw new IndexOutOfBoundsException("Index: " + position + ", Size: " + length);
+            }
+            return indexes[position];
+        }
+
+        public Node getTree(int position) {
+            return trees[tableIndex(position)];
+        }
+
+        public long getFingerprint(int position) {
+            return fingerprints[tableIndex(position)];
+        }
+
+        public double getFitness(int position, int objective) {
+            return RankingTable.this.getFitness(tableIndex(position), objective);
+        }
+
+        /**
+         * @param length the number of individuals to keep
+         * @return the first length individuals of this view
+         */
+        public View head(int length) {
+            return new View(indexes, Math.min(length, this.length), rankings);
+        }
+
+        @Override
+        public Ranking get(int position) {
+            int index = tableIndex(position);
+            Ranking ranking = rankings[position];
+            if (ranking == null) {
+                ranking = new Ranking(trees[index], RankingTable.this.getFitness(index));
+                rankings[position] = ranking;
+            }
+            return ranking;
+        }
+
+        @Override
+        public int size() {
+            return length;
+        }
+    }
+}
@@ -17,7 +17,9 @@
  */package it.units.inginf.male.objective.performance;
 
 import it.units.inginf.male.evaluators.CoevolutionaryEvaluator;
+import it.units.inginf.male.evaluators.MatchAbortedException;
 import it.units.inginf.male.evaluators.ReplaceResult;
+import it.units.inginf.male.evaluators.ReplaceResults;
 import it.units.inginf.male.evaluators.TreeEvaluationException;
 import it.units.inginf.male.inputs.Context;
 import it.units.inginf.male.inputs.DataSetReplace;
@@ -25,7 +27,6 @@ import it.units.inginf.male.inputs.ExampleReplace;
 import it.units.inginf.male.coevolution.Forest;
 import it.units.inginf.male.objective.Objective;
 import it.units.inginf.male.tree.Node;
-import it.units.inginf.male.utils.Utils;
 
 import java.util.Arrays;
 import java.util.List;
@@ -63,7 +64,7 @@ public class PerformacesObjective implements Objective {
         try {
             evaluate = evaluator.evaluate((Forest) individual, context);
         } catch (TreeEvaluationException ex) {
-            Logger.getLogger(PerformacesObjective.class.getName()).log(Level.SEVERE, null, ex);
+            Logger.getLogger(PerformacesObjective.class.getName()).log(ex instanceof MatchAbortedException ? Level.FINE : Level.SEVERE, null, ex);
             Arrays.fill(fitness, Double.POSITIVE_INFINITY);
             return fitness;
         }
@@ -71,16 +72,16 @@ public class PerformacesObjective implements Objective {
         double distanceErrorRate = 0;
         double countErrorRate = 0;
 
+        ReplaceResults results = ReplaceResults.of(evaluate, dataSetView.getExamples());
         int i = 0;
-        for (ReplaceResult result : evaluate) {
+        for (; i < results.size(); i++) {
             //Characted extracted in the right place (match)
             ExampleReplace example = dataSetView.getExample(i);
-            int edit = Utils.computeLevenshteinDistance(example.targetString, result.getReplacedString());
+            int edit = results.getEditDistance(i, Integer.MAX_VALUE);
             if (edit > 0) {
                 countErrorRate++;
             }
             distanceErrorRate += ((double) edit) / example.string.length();
-            i++;
         }
 
         distanceErrorRate /= i;
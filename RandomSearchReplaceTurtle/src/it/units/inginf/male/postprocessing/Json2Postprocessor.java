@@ -21,10 +21,12 @@ import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import it.units.inginf.male.configuration.Configuration;
 import it.units.inginf.male.evaluators.CachedCoevolutionaryEvaluator;
+import it.units.inginf.male.evaluators.ReplaceEvaluator;
 import it.units.inginf.male.utils.CacheInterface;
 import it.units.inginf.male.outputs.JobEvolutionTrace;
 import it.units.inginf.male.outputs.Results;
 import it.units.inginf.male.outputs.gson.DoubleTypeAdapter;
+import it.units.inginf.male.utils.PatternCache;
 import it.units.inginf.male.utils.Utils;
 import java.io.File;
 import java.io.FileOutputStream;
@@ -58,6 +60,11 @@ public class Json2Postprocessor implements Postprocessor {
             System.out.println("Evaluator cache size: " + Utils.humanReadableByteCount(cacheSize, true));
             System.out.println("Evaluator cache number entries: " + evaluator.getCacheSize());
         }
+        if (config.getEvaluator() instanceof ReplaceEvaluator) {
+            PatternCache patternCache = ((ReplaceEvaluator) config.getEvaluator()).getPatternCache();
+            System.out.printf("Pattern cache hits: %d misses: %d evictions: %d entries: %d\n",
+                    patternCache.getHits(), patternCache.getMisses(), patternCache.getEvictions(), patternCache.getCacheSize());
+        }
         if (config.getObjective() instanceof CacheInterface) {
             CacheInterface cachedObjective = (CacheInterface) config.getObjective();
             long cacheSize = cachedObjective.getCacheSizeBytes();
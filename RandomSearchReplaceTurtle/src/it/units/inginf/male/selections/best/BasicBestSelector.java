@@ -46,6 +46,10 @@ public class BasicBestSelector implements BestSelector {
         int bestLength = Integer.MAX_VALUE;
         FinalSolution best = null;
         for (JobEvolutionTrace jobEvolutionTrace : results.getJobEvolutionTraces()) {
+            if (jobEvolutionTrace.getFinalGeneration().isEmpty()) {
+                //failed, or cancelled before it started
+                continue;
+            }
             FinalSolution bestOfJob = jobEvolutionTrace.getFinalGeneration().get(0);
             double der = bestOfJob.getLearningPerformances().get("distance error rate");
             double cer = bestOfJob.getLearningPerformances().get("count error rate");
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy;
+
+import it.units.inginf.male.coevolution.Forest;
+import it.units.inginf.male.objective.RankingTable;
+import it.units.inginf.male.tree.Leaf;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Backreference;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Decoder of the state written by CheckpointOutput. Shared trees are shared
+ * again, so the restored populations and rankings reference the same
+ * instances as the checkpointed ones. Leaves are built with the constructor
+ * taking their value, operators with the no-args one.
+ * Not thread safe.
+ */
+public class CheckpointInput {
+
+    private final ByteBuffer in;
+    private final List<Node> trees = new ArrayList<>();
+    private final List<Constructor<? extends Node>> constructors = new ArrayList<>();
+
+    /**
+     * @param in the checkpoint, read from its position
+     * @throws IOException when it is not a checkpoint or it has been written
+     * by another version
+     */
+    public CheckpointInput(ByteBuffer in) throws IOException {
+        this.in = in;
+        try {
+            if (in.getInt() != CheckpointOutput.MAGIC) {
+                throw new IOException("Not a checkpoint");
+            }
+        } catch (BufferUnderflowException x) {
+            throw new IOException("Not a checkpoint", x);
+        }
+        int version = readInt();
+        if (version != CheckpointOutput.VERSION) {
+            throw new IOException("Unsupported checkpoint version: " + version);
+        }
+    }
+
+    public int readInt() throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed checkpoint integer");
+    }
+
+    public long readLong() throws IOException {
+        try {
+            return in.getLong();
+        } catch (BufferUnderflowException x) {
+            throw truncated(x);
+        }
+    }
+
+    public boolean readBoolean() throws IOException {
+        return get() != 0;
+    }
+
+    public String readString() throws IOException {
+        byte[] value = readBytes();
+        if (value == null) {
+            throw new IOException("Malformed checkpoint string");
+        }
+        return new String(value, StandardCharsets.UTF_8);
+    }
+
+    public byte[] readBytes() throws IOException {
+        int length = readInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        if (length > in.remaining()) {
+            throw truncated(null);
+        }
+        byte[] value = new byte[length];
+        in.get(value);
+        return value;
+    }
+
+    public double[] readFitness() throws IOException {
+        int length = readInt() - 1;
+        if (length < 0) {
+            return null;
+        }
+        double[] fitness = new double[length];
+        for (int k = 0; k < length; k++) {
+            fitness[k] = readDouble();
+        }
+        return fitness;
+    }
+
+    public Random readRandom() throws IOException {
+        byte[] serialized = readBytes();
+        try (ObjectInputStream stream = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return (Random) stream.readObject();
+        } catch (ClassNotFoundException | ClassCastException | NullPointerException x) {
+            throw new IOException("Malformed checkpoint random generator", x);
+        }
+    }
+
+    public Node readTree() throws IOException {
+        int tag = readInt();
+        switch (tag) {
+            case CheckpointOutput.NULL_TREE:
+                return null;
+            case CheckpointOutput.TREE_REFERENCE:
+                int reference = readInt();
+                if (reference >= trees.size()) {
+                    throw new IOException("Malformed checkpoint tree reference: " + reference);
+                }
+                return trees.get(reference);
+            case CheckpointOutput.NEW_TREE:
+                break;
+            default:
+                throw new IOException("Malformed checkpoint tree tag: " + tag);
+        }
+        Constructor<? extends Node> constructor = readConstructor();
+        Node tree;
+        try {
+            if (constructor.getParameterCount() == 0) {
+                tree = constructor.newInstance();
+            } else if (constructor.getParameterTypes()[0] == int.class) {
+                tree = constructor.newInstance(readInt());
+            } else {
+                tree = constructor.newInstance(readString());
+            }
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException x) {
+            throw new IOException("Unable to build a " + constructor.getDeclaringClass().getName(), x);
+        }
+        trees.add(tree);
+        if (tree instanceof Leaf) {
+            return tree;
+        }
+        int children = readInt();
+        for (int c = 0; c < children; c++) {
+            Node child = readTree();
+            //a forest is a root only, its trees have no parent
+            if (!(tree instanceof Forest)) {
+                child.setParent(tree);
+            }
+            tree.getChildrens().add(child);
+        }
+        return tree;
+    }
+
+    private Constructor<? extends Node> readConstructor() throws IOException {
+        int classIndex = readInt();
+        if (classIndex < constructors.size()) {
+            return constructors.get(classIndex);
+        }
+        if (classIndex > constructors.size()) {
+            throw new IOException("Malformed checkpoint class index: " + classIndex);
+        }
+        String className = readString();
+        try {
+            Class<? extends Node> nodeClass = Class.forName(className).asSubclass(Node.class);
+            Constructor<? extends Node> constructor;
+            if (Backreference.class.isAssignableFrom(nodeClass)) {
+                constructor = nodeClass.getConstructor(int.class);
+            } else if (Leaf.class.isAssignableFrom(nodeClass)) {
+                constructor = nodeClass.getConstructor(String.class);
+            } else {
+                constructor = nodeClass.getConstructor();
+            }
+            constructors.add(constructor);
+            return constructor;
+        } catch (ClassNotFoundException | ClassCastException | NoSuchMethodException x) {
+            throw new IOException("Unable to restore nodes of class " + className, x);
+        }
+    }
+
+    public List<Node> readTrees() throws IOException {
+        int size = readInt() - 1;
+        if (size < 0) {
+            return null;
+        }
+        List<Node> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(readTree());
+        }
+        return list;
+    }
+
+    /**
+     * @return a view of a new table holding the individuals in the written
+     * order
+     * @throws IOException on malformed checkpoints
+     */
+    public RankingTable.View readRanking() throws IOException {
+        int size = readInt();
+        int objectives = readInt();
+        RankingTable table = new RankingTable(size);
+        double[] fitness = new double[objectives];
+        for (int r = 0; r < size; r++) {
+            Node tree = readTree();
+            for (int k = 0; k < objectives; k++) {
+                fitness[k] = readDouble();
+            }
+            if (!table.add(tree, fitness)) {
+                throw new IOException("Duplicated individual in checkpoint ranking");
+            }
+        }
+        return table.view();
+    }
+
+    /**
+     * @return true when all the checkpoint has been read
+     */
+    public boolean isConsumed() {
+        return !in.hasRemaining();
+    }
+
+    private double readDouble() throws IOException {
+        try {
+            return in.getDouble();
+        } catch (BufferUnderflowException x) {
+            throw truncated(x);
+        }
+    }
+
+    private byte get() throws IOException {
+        try {
+            return in.get();
+        } catch (BufferUnderflowException x) {
+            throw truncated(x);
+        }
+    }
+
+    private static IOException truncated(Throwable cause) {
+        return new IOException("Truncated checkpoint", cause);
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy;
+
+import it.units.inginf.male.coevolution.Forest;
+import it.units.inginf.male.objective.RankingTable;
+import it.units.inginf.male.tree.Leaf;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Backreference;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Binary encoder of the state of a job, the format is read back by
+ * CheckpointInput. Counts and indexes are variable length integers, fitness
+ * values are stored bit by bit. A tree is written once, the following
+ * occurrences of the same instance, in other populations or rankings, are
+ * references to the first one; node classes are written by name on their
+ * first occurrence. Leaves are stored through their description, operators
+ * through their children.
+ * Not thread safe.
+ */
+public class CheckpointOutput {
+
+    static final int MAGIC = 0x4D4C434B;
+    static final int VERSION = 1;
+    static final int NULL_TREE = 0;
+    static final int TREE_REFERENCE = 1;
+    static final int NEW_TREE = 2;
+
+    private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+    private final DataOutputStream out = new DataOutputStream(bytes);
+    private final Map<Node, Integer> trees = new IdentityHashMap<>();
+    private final Map<Class<?>, Integer> classes = new HashMap<>();
+
+    public CheckpointOutput() throws IOException {
+        out.writeInt(MAGIC);
+        writeInt(VERSION);
+    }
+
+    /**
+     * Writes a non negative int in 1 to 5 bytes.
+     * @param value the value
+     * @throws IOException on write errors
+     */
+    public void writeInt(int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    public void writeLong(long value) throws IOException {
+        out.writeLong(value);
+    }
+
+    public void writeBoolean(boolean value) throws IOException {
+        out.writeBoolean(value);
+    }
+
+    public void writeString(String value) throws IOException {
+        writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param value the bytes to write, may be null
+     * @throws IOException on write errors
+     */
+    public void writeBytes(byte[] value) throws IOException {
+        if (value == null) {
+            writeInt(0);
+            return;
+        }
+        writeInt(value.length + 1);
+        out.write(value);
+    }
+
+    /**
+     * @param fitness the values to write, may be null
+     * @throws IOException on write errors
+     */
+    public void writeFitness(double[] fitness) throws IOException {
+        if (fitness == null) {
+            writeInt(0);
+            return;
+        }
+        writeInt(fitness.length + 1);
+        for (double value : fitness) {
+            out.writeDouble(value);
+        }
+    }
+
+    /**
+     * The generator is stored through its serialized form, the only public
+     * access to its seed.
+     * @param random the generator
+     * @throws IOException on write errors
+     */
+    public void writeRandom(Random random) throws IOException {
+        ByteArrayOutputStream serialized = new ByteArrayOutputStream(128);
+        try (ObjectOutputStream stream = new ObjectOutputStream(serialized)) {
+            stream.writeObject(random);
+        }
+        writeBytes(serialized.toByteArray());
+    }
+
+    /**
+     * @param tree the tree to write, may be null
+     * @throws IOException on write errors
+     */
+    public void writeTree(Node tree) throws IOException {
+        if (tree == null) {
+            writeInt(NULL_TREE);
+            return;
+        }
+        Integer reference = trees.get(tree);
+        if (reference != null) {
+            writeInt(TREE_REFERENCE);
+            writeInt(reference);
+            return;
+        }
+        trees.put(tree, trees.size());
+        writeInt(NEW_TREE);
+        Integer classIndex = classes.get(tree.getClass());
+        if (classIndex == null) {
+            writeInt(classes.size());
+            writeString(tree.getClass().getName());
+            classes.put(tree.getClass(), classes.size());
+        } else {
+            writeInt(classIndex);
+        }
+        if (tree instanceof Leaf) {
+            StringBuilder description = new StringBuilder();
+            tree.describe(description);
+            if (tree instanceof Backreference) {
+                //the java description is the backslash followed by the group number
+                writeInt(Integer.parseInt(description.substring(1)));
+            } else {
+                writeString(description.toString());
+            }
+            return;
+        }
+        List<Node> children = tree instanceof Forest ? (Forest) tree : tree.getChildrens();
+        writeInt(children.size());
+        for (Node child : children) {
+            writeTree(child);
+        }
+    }
+
+    /**
+     * @param trees the trees to write, may be null
+     * @throws IOException on write errors
+     */
+    public void writeTrees(List<? extends Node> trees) throws IOException {
+        if (trees == null) {
+            writeInt(0);
+            return;
+        }
+        writeInt(trees.size() + 1);
+        for (Node tree : trees) {
+            writeTree(tree);
+        }
+    }
+
+    /**
+     * Writes the individuals of a view in its order with their fitness; the
+     * descriptions are not stored, they are built again when needed.
+     * @param ranking the view
+     * @throws IOException on write errors
+     */
+    public void writeRanking(RankingTable.View ranking) throws IOException {
+        int objectives = ranking.getTable().getObjectives();
+        writeInt(ranking.size());
+        writeInt(objectives);
+        for (int r = 0; r < ranking.size(); r++) {
+            writeTree(ranking.getTree(r));
+            for (int k = 0; k < objectives; k++) {
+                out.writeDouble(ranking.getFitness(r, k));
+            }
+        }
+    }
+
+    public int size() {
+        return bytes.size();
+    }
+
+    /**
+     * @return the bytes written so far
+     */
+    public ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(bytes.toByteArray());
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checkpoints of the jobs of an experiment, one file per job in the
+ * <code>checkpoints</code> folder of the output folder. Like the
+ * ExperimentCoordinator it is created with the Configuration and travels with
+ * the copies made for the jobs.
+ * The strategy parameter <code>checkpointInterval</code> (0, disabled, by
+ * default) is the number of generations between two checkpoints of a job, the
+ * last generation of a job is always checkpointed. A checkpoint is encoded on
+ * the evolution thread and written by a single background thread, to a
+ * temporary file then moved over the previous checkpoint, so a crash while
+ * writing leaves the previous one intact.
+ * In resume mode the execution strategies restore each job from its
+ * checkpoint before running it; otherwise the checkpoints left by a previous
+ * run are dropped.
+ * Thread safe.
+ */
+public class CheckpointStore {
+
+    public static final String INTERVAL_KEY = "checkpointInterval";
+    public static final String FOLDER_NAME = "checkpoints";
+    private static final Logger LOG = Logger.getLogger(CheckpointStore.class.getName());
+
+    private final File folder;
+    private final int interval;
+    private volatile boolean resume = false;
+    private ExecutorService writer;
+
+    /**
+     * @param folder where the checkpoints are written
+     * @param interval generations between two checkpoints, 0 disables them
+     */
+    public CheckpointStore(File folder, int interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException("Checkpoint interval must not be negative: " + interval);
+        }
+        this.folder = folder;
+        this.interval = folder == null ? 0 : interval;
+    }
+
+    public static CheckpointStore fromParameters(File outputFolder, Map<String, String> parameters) {
+        int interval = 0;
+        if (parameters != null && parameters.containsKey(INTERVAL_KEY)) {
+            interval = Integer.valueOf(parameters.get(INTERVAL_KEY));
+        }
+        return new CheckpointStore(outputFolder == null ? null : new File(outputFolder, FOLDER_NAME), interval);
+    }
+
+    public boolean isEnabled() {
+        return interval > 0;
+    }
+
+    public int getInterval() {
+        return interval;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    /**
+     * @param resume when true the jobs are restored from their checkpoints
+     */
+    public void setResume(boolean resume) {
+        this.resume = resume;
+    }
+
+    /**
+     * @param generation the generations done by a job
+     * @param last true when it is the last generation of the job
+     * @return true when the job has to be checkpointed
+     */
+    public boolean isCheckpointGeneration(int generation, boolean last) {
+        return isEnabled() && (last || generation % interval == 0);
+    }
+
+    public File getFile(int jobId) {
+        return new File(folder, "job-" + jobId + ".ckpt");
+    }
+
+    /**
+     * Encodes the state of the job on the calling thread and queues the
+     * write; write errors are logged, the evolution goes on.
+     * @param job the job
+     * @throws UncheckedIOException on encoding errors
+     */
+    public void save(CheckpointableStrategy job) {
+        ByteBuffer data;
+        try {
+            CheckpointOutput out = new CheckpointOutput();
+            job.writeCheckpoint(out);
+            data = out.toByteBuffer();
+        } catch (IOException x) {
+            throw new UncheckedIOException(x);
+        }
+        final int jobId = job.getConfiguration().getJobId();
+        writer().execute(() -> {
+            try {
+                write(jobId, data);
+            } catch (IOException x) {
+                LOG.log(Level.SEVERE, "Unable to write the checkpoint of job " + jobId, x);
+            }
+        });
+    }
+
+    private synchronized ExecutorService writer() {
+        if (writer == null) {
+            writer = Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "checkpoint-writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return writer;
+    }
+
+    private void write(int jobId, ByteBuffer data) throws IOException {
+        Path target = getFile(jobId).toPath();
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.createDirectories(target.getParent());
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @param jobId the job
+     * @return the last checkpoint written for the job, null when there is none
+     * @throws IOException on read errors
+     */
+    public ByteBuffer load(int jobId) throws IOException {
+        try (FileChannel channel = FileChannel.open(getFile(jobId).toPath(), StandardOpenOption.READ)) {
+            ByteBuffer data = ByteBuffer.allocate((int) channel.size());
+            while (data.hasRemaining() && channel.read(data) >= 0) {
+            }
+            data.flip();
+            return data;
+        } catch (NoSuchFileException x) {
+            return null;
+        }
+    }
+
+    /**
+     * Called by the execution strategies on each job before it runs. In resume
+     * mode restores the job from its checkpoint, if any; otherwise drops the
+     * checkpoint a previous run has left for the job.
+     * @param job the job, after its setup
+     * @return true when the job has been restored
+     * @throws IOException when the checkpoint cannot be read
+     */
+    public boolean restore(RunStrategy job) throws IOException {
+        if (!isEnabled() || !(job instanceof CheckpointableStrategy)) {
+            return false;
+        }
+        int jobId = job.getConfiguration().getJobId();
+        if (!resume) {
+            Files.deleteIfExists(getFile(jobId).toPath());
+            return false;
+        }
+        ByteBuffer data = load(jobId);
+        if (data == null) {
+            return false;
+        }
+        CheckpointInput in = new CheckpointInput(data);
+        ((CheckpointableStrategy) job).readCheckpoint(in);
+        if (!in.isConsumed()) {
+            throw new IOException("Unexpected data at the end of the checkpoint of job " + jobId);
+        }
+        return true;
+    }
+
+    /**
+     * Waits for the queued checkpoints to be written.
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        ExecutorService pending;
+        synchronized (this) {
+            pending = writer;
+            writer = null;
+        }
+        if (pending != null) {
+            pending.shutdown();
+            pending.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        }
+    }
+}
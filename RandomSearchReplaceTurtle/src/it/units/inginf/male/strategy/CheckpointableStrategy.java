@@ -0,0 +1,45 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy;
+
+import java.io.IOException;
+
+/**
+ * A RunStrategy whose evolution can be saved and resumed. The strategy
+ * decides when a checkpoint is taken, through the CheckpointStore of its
+ * configuration; a restored job continues, on call(), from the checkpointed
+ * generation as if it had never stopped.
+ */
+public interface CheckpointableStrategy extends RunStrategy {
+
+    /**
+     * Writes the state of the evolution, on the evolution thread, between two
+     * generations.
+     * @param out the checkpoint
+     * @throws IOException on encoding errors
+     */
+    void writeCheckpoint(CheckpointOutput out) throws IOException;
+
+    /**
+     * Restores the state of the evolution, after setup and before call.
+     * @param in the checkpoint
+     * @throws IOException when the checkpoint is malformed or it belongs to
+     * another job
+     */
+    void readCheckpoint(CheckpointInput in) throws IOException;
+}
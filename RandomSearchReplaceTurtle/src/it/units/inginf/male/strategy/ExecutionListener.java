@@ -33,7 +33,32 @@ public interface ExecutionListener extends Serializable{
 
     void logGeneration(RunStrategy strategy, int generation, Node best, double[] fitness, List<Ranking> population);
 
+    /**
+     * Called by the strategies that collect statistics about the generation in
+     * place of the method without them, by default statistics are ignored.
+     */
+    default void logGeneration(RunStrategy strategy, int generation, Node best, double[] fitness, List<Ranking> population, GenerationStatistics statistics) {
+        logGeneration(strategy, generation, best, fitness, population);
+    }
+
     void evolutionComplete(RunStrategy strategy, int generation, Node best, List<Ranking> population);
+
+    /**
+     * Called, on the evolution thread, when a checkpoint of the job is taken;
+     * listeners which collect results return what they have collected for the
+     * job, it is stored with the checkpoint. By default nothing is stored.
+     * @return the state of the job in this listener, or null
+     */
+    default byte[] saveJobState(RunStrategy strategy) {
+        return null;
+    }
+
+    /**
+     * Called when a job is restored from a checkpoint, before its evolution
+     * goes on, with the state returned by saveJobState.
+     */
+    default void restoreJobState(RunStrategy strategy, byte[] state) {
+    }
     
     void evolutionFailed(RunStrategy strategy, TreeEvaluationException cause);
 }
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * State shared by the jobs of a single experiment, it is created with the
+ * Configuration and travels with the copies made for the jobs.
+ * <ul>
+ * <li>A stop token: once a stop is requested the running jobs end at their
+ * next generation and the execution strategy does not start the queued ones;
+ * the token is never shared by two experiments, so there is nothing to
+ * reset.</li>
+ * <li>A best-so-far board where each job posts the fitness of its generation
+ * best; a job can compare its own best with the best of the experiment to
+ * give up a hopeless run.</li>
+ * </ul>
+ * Policies are read from the strategy parameters:
+ * <code>globalStopWhenPerfect</code> stops the experiment as soon as a job best
+ * is perfect on the learning examples, <code>hopelessGenerations</code> (0,
+ * disabled, by default) and <code>hopelessRatio</code> let a job end when,
+ * after that many generations, its best edit fitness is still more than
+ * hopelessRatio times the best of another job.
+ * Thread safe.
+ */
+public class ExperimentCoordinator {
+
+    public static final String GLOBAL_STOP_WHEN_PERFECT_KEY = "globalStopWhenPerfect";
+    public static final String HOPELESS_GENERATIONS_KEY = "hopelessGenerations";
+    public static final String HOPELESS_RATIO_KEY = "hopelessRatio";
+    public static final double DEFAULT_HOPELESS_RATIO = 2;
+
+    private final AtomicBoolean stopRequested = new AtomicBoolean(false);
+    private final List<Runnable> stopListeners = new CopyOnWriteArrayList<>();
+    private double[] bestFitness;
+    private int bestJobId = -1;
+    private int bestGeneration = -1;
+
+    /**
+     * Requests all the jobs to stop, the stop listeners are notified only by
+     * the first request.
+     * @return true when this is the first request
+     */
+    public boolean requestStop() {
+        if (!stopRequested.compareAndSet(false, true)) {
+            return false;
+        }
+        for (Runnable listener : stopListeners) {
+            //whoever removes a listener runs it, so it never runs twice
+            if (stopListeners.remove(listener)) {
+                listener.run();
+            }
+        }
+        return true;
+    }
+
+    public boolean isStopRequested() {
+        return stopRequested.get();
+    }
+
+    /**
+     * The execution strategies use it to cancel the jobs which have not
+     * started yet. When the stop has already been requested the listener runs
+     * at once.
+     * @param listener the action to run on stop
+     */
+    public void addStopListener(Runnable listener) {
+        stopListeners.add(listener);
+        if (stopRequested.get() && stopListeners.remove(listener)) {
+            listener.run();
+        }
+    }
+
+    public void removeStopListener(Runnable listener) {
+        stopListeners.remove(listener);
+    }
+
+    /**
+     * Posts the best of a job generation; it becomes the experiment best when
+     * it is lower, objective by objective, than the current one.
+     * @param jobId the job
+     * @param generation the generation
+     * @param fitness the fitness of the generation best
+     * @return true when the board has been updated
+     */
+    public synchronized boolean postBest(int jobId, int generation, double[] fitness) {
+        if (bestFitness != null && compare(fitness, bestFitness) >= 0) {
+            return false;
+        }
+        bestFitness = fitness.clone();
+        bestJobId = jobId;
+        bestGeneration = generation;
+        return true;
+    }
+
+    /**
+     * @return a copy of the experiment best fitness, null before the first post
+     */
+    public synchronized double[] getBestFitness() {
+        return bestFitness == null ? null : bestFitness.clone();
+    }
+
+    public synchronized int getBestJobId() {
+        return bestJobId;
+    }
+
+    public synchronized int getBestGeneration() {
+        return bestGeneration;
+    }
+
+    /**
+     * @param jobId the job asking
+     * @param fitness the fitness of the job best
+     * @param ratio how many times the edit fitness (the first objective) of the
+     * job can be worse than the one of the experiment best
+     * @return true when another job has a best whose edit fitness is more than
+     * ratio times better
+     */
+    public synchronized boolean isHopeless(int jobId, double[] fitness, double ratio) {
+        return bestFitness != null && bestJobId != jobId && fitness[0] > ratio * bestFitness[0];
+    }
+
+    private static int compare(double[] a, double[] b) {
+        for (int k = 0; k < a.length; k++) {
+            int compare = Double.compare(a[k], b[k]);
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @param fitness the fitness values
+     * @return true when all the values are zero, to the fourth decimal digit
+     */
+    public static boolean isPerfect(double[] fitness) {
+        for (double value : fitness) {
+            if (Math.round(value * 10000) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Policies of a job, read from the strategy parameters.
+     */
+    public static class Policy {
+
+        private boolean stopWhenPerfect = false;
+        private int hopelessGenerations = 0;
+        private double hopelessRatio = DEFAULT_HOPELESS_RATIO;
+
+        public Policy(Map<String, String> parameters) {
+            if (parameters != null) {
+                if (parameters.containsKey(GLOBAL_STOP_WHEN_PERFECT_KEY)) {
+                    stopWhenPerfect = Boolean.valueOf(parameters.get(GLOBAL_STOP_WHEN_PERFECT_KEY));
+                }
+                if (parameters.containsKey(HOPELESS_GENERATIONS_KEY)) {
+                    hopelessGenerations = Integer.valueOf(parameters.get(HOPELESS_GENERATIONS_KEY));
+                }
+                if (parameters.containsKey(HOPELESS_RATIO_KEY)) {
+                    hopelessRatio = Double.valueOf(parameters.get(HOPELESS_RATIO_KEY));
+                }
+            }
+        }
+
+        public boolean isStopWhenPerfect() {
+            return stopWhenPerfect;
+        }
+
+        public int getHopelessGenerations() {
+            return hopelessGenerations;
+        }
+
+        public double getHopelessRatio() {
+            return hopelessRatio;
+        }
+
+        /**
+         * @param coordinator the experiment coordinator
+         * @param jobId the job
+         * @param generation the generations done by the job
+         * @param fitness the fitness of the job best
+         * @return true when the job should give up
+         */
+        public boolean isHopeless(ExperimentCoordinator coordinator, int jobId, int generation, double[] fitness) {
+            return hopelessGenerations > 0 && generation >= hopelessGenerations
+                    && coordinator.isHopeless(jobId, fitness, hopelessRatio);
+        }
+    }
+}
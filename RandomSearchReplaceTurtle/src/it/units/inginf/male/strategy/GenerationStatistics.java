@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy;
+
+import java.io.Serializable;
+
+/**
+ * Counters collected by a strategy while evolving a single generation, passed
+ * to the ExecutionListener together with the generation best.
+ */
+public class GenerationStatistics implements Serializable {
+
+    private long fitnessLookups;
+    private long fitnessEvaluations;
+    private int fitnessCacheSize;
+    private long abortedEvaluations;
+    private long rejectedEvaluations;
+
+    /**
+     * @return the individuals whose fitness has been requested in the generation
+     */
+    public long getFitnessLookups() {
+        return fitnessLookups;
+    }
+
+    public void setFitnessLookups(long fitnessLookups) {
+        this.fitnessLookups = fitnessLookups;
+    }
+
+    /**
+     * @return the individuals actually evaluated by the objective, the other
+     * ones came from the fitness cache
+     */
+    public long getFitnessEvaluations() {
+        return fitnessEvaluations;
+    }
+
+    public void setFitnessEvaluations(long fitnessEvaluations) {
+        this.fitnessEvaluations = fitnessEvaluations;
+    }
+
+    public long getFitnessCacheHits() {
+        return fitnessLookups - fitnessEvaluations;
+    }
+
+    public double getFitnessCacheHitRatio() {
+        return fitnessLookups == 0 ? 0 : getFitnessCacheHits() / (double) fitnessLookups;
+    }
+
+    /**
+     * @return the fitness cache entries still alive at the end of the generation
+     */
+    public int getFitnessCacheSize() {
+        return fitnessCacheSize;
+    }
+
+    public void setFitnessCacheSize(int fitnessCacheSize) {
+        this.fitnessCacheSize = fitnessCacheSize;
+    }
+
+    /**
+     * @return the individuals whose evaluation has been aborted by the
+     * evaluator, they got the worst fitness
+     */
+    public long getAbortedEvaluations() {
+        return abortedEvaluations;
+    }
+
+    public void setAbortedEvaluations(long abortedEvaluations) {
+        this.abortedEvaluations = abortedEvaluations;
+    }
+
+    /**
+     * @return the individuals rejected by the evaluator without evaluating
+     * them, they got the worst fitness
+     */
+    public long getRejectedEvaluations() {
+        return rejectedEvaluations;
+    }
+
+    public void setRejectedEvaluations(long rejectedEvaluations) {
+        this.rejectedEvaluations = rejectedEvaluations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("fitness cache hits: %d/%d (%.2f%%), size: %d, aborted evaluations: %d, rejected evaluations: %d",
+                getFitnessCacheHits(), fitnessLookups, 100 * getFitnessCacheHitRatio(), fitnessCacheSize, abortedEvaluations, rejectedEvaluations);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy;
+
+import it.units.inginf.male.tree.Node;
+import java.util.List;
+
+/**
+ * Connects the RunStrategy of an island to the other islands of an island
+ * model: every few generations the island sends copies of its best
+ * individuals and receives the ones of its neighbours.
+ */
+public interface MigrationChannel {
+
+    /**
+     * @param generation the generation which has just been evolved, from 1
+     * @return true when the island has to migrate after this generation
+     */
+    boolean isMigrationGeneration(int generation);
+
+    /**
+     * @return the number of best individuals of each population to send
+     */
+    int getMigrationSize();
+
+    /**
+     * Sends the emigrants to the neighbours and receives their ones. The
+     * emigrants are not used by the island anymore, the immigrants are owned
+     * by the island.
+     * @param generation the generation which has just been evolved
+     * @param emigrants the individuals to send, for each population
+     * @return the individuals received, for each population
+     */
+    List<List<Node>> migrate(int generation, List<List<Node>> emigrants);
+
+    /**
+     * Tells the neighbours that the island has stopped: they will not wait
+     * for its emigrants anymore.
+     */
+    void retire();
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy;
+
+import it.units.inginf.male.evaluators.TreeEvaluationException;
+import it.units.inginf.male.tree.Node;
+
+/**
+ * A RunStrategy whose evolution can be run one generation at a time, possibly
+ * by different threads, so that a scheduler can interleave the jobs and pause
+ * some of them. call() is equivalent to start(), step() until it returns
+ * false, then finish(); the evolution of a job does not depend on how it is
+ * sliced.
+ */
+public interface SteppableStrategy extends RunStrategy {
+
+    /**
+     * Builds the initial populations, notifies the listener that the
+     * evolution has started.
+     * @throws TreeEvaluationException on evaluation errors
+     */
+    void start() throws TreeEvaluationException;
+
+    /**
+     * Runs the next generation.
+     * @return false when the evolution is over, either because this was the
+     * last generation or because a termination criterion has been met
+     * @throws TreeEvaluationException on evaluation errors
+     */
+    boolean step() throws TreeEvaluationException;
+
+    /**
+     * Notifies the listener that the evolution is complete, it can be called
+     * before step() returns false to end the evolution early.
+     * @throws TreeEvaluationException on evaluation errors
+     */
+    void finish() throws TreeEvaluationException;
+
+    /**
+     * @return the generations run so far
+     */
+    int getGeneration();
+
+    /**
+     * @return the current best individual
+     */
+    Node getBest();
+}
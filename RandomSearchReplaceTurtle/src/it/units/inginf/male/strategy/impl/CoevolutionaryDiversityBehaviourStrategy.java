@@ -25,12 +25,14 @@ import it.units.inginf.male.generations.InitialPopulationBuilder;
 import it.units.inginf.male.generations.Ramped;
 import it.units.inginf.male.inputs.Context;
 import it.units.inginf.male.coevolution.Forest;
+import it.units.inginf.male.objective.GenerationalFitnessCache;
 import it.units.inginf.male.objective.Objective;
 import it.units.inginf.male.objective.Ranking;
 import it.units.inginf.male.objective.performance.PerformancesFactory;
 import it.units.inginf.male.selections.Selection;
 import it.units.inginf.male.selections.Tournament;
 import it.units.inginf.male.strategy.ExecutionListener;
+import it.units.inginf.male.strategy.GenerationStatistics;
 import it.units.inginf.male.strategy.RunStrategy;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.utils.Pair;
@@ -39,7 +41,6 @@ import it.units.inginf.male.utils.Utils;
 import it.units.inginf.male.variations.Variation;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 
 
@@ -64,6 +65,11 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
     protected Objective objective;
     private Variation variation;
     private ExecutionListener listener;
+    private ParallelFitnessEvaluator fitnessEvaluator;
+    private GenerationalFitnessCache fitnessCache;
+    private GenerationStatistics statistics;
+    private long abortedEvaluations = 0;
+    private long rejectedEvaluations = 0;
     //Termination criteria enables/disables the premature termination of thread when best regex/individual doesn't change for
     //a specified amount of generations (terminationCriteriaGenerations)
     private boolean terminationCriteria = true;
@@ -80,6 +86,8 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
     public void setup(Configuration configuration, ExecutionListener listener) throws TreeEvaluationException {
 
         this.readParameters(configuration);
+        this.fitnessEvaluator = ParallelFitnessEvaluator.fromParameters(configuration.getStrategyParameters());
+        this.fitnessCache = GenerationalFitnessCache.fromParameters(configuration.getStrategyParameters());
 
         this.context = new Context(Context.EvaluationPhases.TRAINING, configuration);
         //cloning the objective
@@ -103,7 +111,7 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
             }
         }
 
-        this.rankings = new UniqueList<>(this.populationMaxSize);
+        this.rankings = new UniqueList<>(this.populationMaxSize, Ranking::getFingerprint);
 
         this.learningObjective = PerformancesFactory.buildObjective(Context.EvaluationPhases.LEARNING, configuration);
     }
@@ -147,16 +155,12 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
             List<Ranking> tmp = buildRankings(populations, objective, this.forestBuilderRounds);
             //System.out.println("TMP rankings\n"+Utils.printPopulation(tmp));
             
-            while (tmp.size() > 0) {
-                List<Ranking> t = Utils.getFirstParetoFront(tmp);
-                tmp.removeAll(t);
-                sortByOrder(t);
-                rankings.addAll(t);
-            }
+            sortRankings(tmp, rankings);
             
             //System.out.println("TMP Ordered rankings\n\n"+Utils.printPopulation(rankings));
-            UniqueList<Ranking> usedRankingsForEvaluation = new UniqueList<>(rankings.size());
+            UniqueList<Ranking> usedRankingsForEvaluation = new UniqueList<>(rankings.size(), Ranking::getFingerprint);
             subRankings = splitRanking(rankings, usedRankingsForEvaluation);
+            endGeneration();
 
             //Variables for termination criteria
             String oldGenerationBestValue = null;
@@ -171,7 +175,7 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
                 Ranking bestRegex = this.rankings.get(0);
                 //Ranking bestString = this.rankings.get(1).get(0);
                 if (listener != null) {
-                    listener.logGeneration(this, generation + 1, bestRegex.getTree(), bestRegex.getFitness(), this.rankings);
+                    listener.logGeneration(this, generation + 1, bestRegex.getTree(), bestRegex.getFitness(), this.rankings, statistics);
                 }
 
                 // I suppose it makes no sense when an ojective is a length
@@ -209,7 +213,7 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
 
                 }
 
-                if (Thread.interrupted()) {
+                if (getConfiguration().getCoordinator().isStopRequested() || Thread.interrupted()) {
                     break;
                 }
 
@@ -233,6 +237,8 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
             }
         }
         if (allPerfect) {
+            //nothing has been evaluated
+            statistics = new GenerationStatistics();
             return;
         }
 
@@ -253,7 +259,7 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
         
         sortRankings(tmp, rankings);
         
-        UniqueList<Ranking> usedRankingsForEvaluation = new UniqueList<>(rankings.size());
+        UniqueList<Ranking> usedRankingsForEvaluation = new UniqueList<>(rankings.size(), Ranking::getFingerprint);
         subRankings = splitRanking(rankings, usedRankingsForEvaluation); //now exact population sizes are returned
 //        rankings.clear();
 //        rankings.addAll(usedRankingsForEvaluation);
@@ -271,14 +277,30 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
             }
         }
         
-        rankings = rankings.subList(0, populationMaxSize);
+        if (rankings.size() > populationMaxSize) {
+            rankings.subList(populationMaxSize, rankings.size()).clear();
+        }
+        endGeneration();
+    }
+
+    //the fitness of the forests which survived stays in cache for the next generations
+    private void endGeneration() {
+        for (Ranking ranking : rankings) {
+            fitnessCache.markAlive(ranking.getFingerprint());
+        }
+        statistics = new GenerationStatistics();
+        fitnessCache.endGeneration(statistics);
+        statistics.setAbortedEvaluations(context.getAbortedEvaluations() - abortedEvaluations);
+        abortedEvaluations = context.getAbortedEvaluations();
+        statistics.setRejectedEvaluations(context.getRejectedEvaluations() - rejectedEvaluations);
+        rejectedEvaluations = context.getRejectedEvaluations();
     }
 
     private List<Node> generateNewPopulation(List<Node> population, int populationId, List<Ranking> ranking) {
         int popSize = this.populationTargetSize.get(populationId);
         int oldPopSize = (int) (popSize * 0.9);
 
-        List<it.units.inginf.male.tree.Node> newPopulation = new UniqueList<>(popSize);
+        List<it.units.inginf.male.tree.Node> newPopulation = new UniqueList<>(popSize, Node::getFingerprint);
         EvolutionParameters params = getConfiguration().getSubConfiguration(populationId).getEvolutionParameters();
         
         while (newPopulation.size() < oldPopSize) {
@@ -316,12 +338,12 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
      }
     
     private List<Ranking> buildRankings(List<List<Node>> populations, Objective objective, int rounds) {
-        List<Ranking> result = new UniqueList<>(rankings);
+        List<Ranking> result = new UniqueList<>(rankings, Ranking::getFingerprint);
         for (int i = 0; i < rounds; i++) {
             List<Forest> forests = getConfiguration().getForestBuilder().generate(populations, context);
-            for (Forest forest : forests) {
-                double fitness[] = objective.fitness(forest);
-                result.add(new Ranking(forest, fitness));
+            double[][] fitness = fitnessCache.evaluate(forests, context.getPhase(), missing -> fitnessEvaluator.evaluate(missing, objective, context));
+            for (int j = 0; j < forests.size(); j++) {
+                result.add(new Ranking(forests.get(j), fitness[j]));
             }
         }
         return result;
@@ -357,16 +379,15 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
      */
     private static List<Ranking> stratifiedUnicity(List<Ranking> rankings, double allowedDuplicatesRates){
         int rankSize = rankings.size();
-        Map<List<Double>, LinkedList<Ranking>> fitnessGroups = new HashMap<>();
+        Map<FitnessKey, LinkedList<Ranking>> fitnessGroups = new HashMap<>();
         List<Ranking> returnList = new ArrayList<>(rankings.size());
         int inserted = 0;
         for (Ranking ranking : rankings) {
-            double[] fitness = ranking.getFitness();
-            List<Double> fitnessList = Arrays.stream(fitness).boxed().collect(Collectors.toList());
-            LinkedList<Ranking> orDefault = fitnessGroups.get(fitnessList);
+            FitnessKey fitnessKey = new FitnessKey(ranking.getFitness());
+            LinkedList<Ranking> orDefault = fitnessGroups.get(fitnessKey);
             if(orDefault == null){
                 orDefault = new LinkedList<>();
-                fitnessGroups.put(fitnessList, orDefault);
+                fitnessGroups.put(fitnessKey, orDefault);
             }
             orDefault.offer(ranking);
             inserted++;
@@ -377,7 +398,7 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
         int overallPreservedValues = Math.min(rankSize, uniqueValues + allowedDuplicates);
         
         while(overallPreservedValues > 0){
-            for (Map.Entry<List<Double>, LinkedList<Ranking>> entry : fitnessGroups.entrySet()) {
+            for (Map.Entry<FitnessKey, LinkedList<Ranking>> entry : fitnessGroups.entrySet()) {
                 //double[] key = entry.getKey();
                 LinkedList<Ranking> value = entry.getValue();
                 if(!value.isEmpty()){
@@ -389,9 +410,39 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
         return returnList;
     }
     
+    /**
+     * Fitness values as a map key, without boxing them. Equality and hash code
+     * are the ones of the List of the boxed values, so the groups are visited
+     * in the same order they would be with List keys.
+     */
+    private static final class FitnessKey {
+
+        private final double[] fitness;
+        private final int hash;
+
+        FitnessKey(double[] fitness) {
+            this.fitness = fitness;
+            int h = 1;
+            for (double value : fitness) {
+                h = 31 * h + Double.hashCode(value);
+            }
+            this.hash = h;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof FitnessKey && Arrays.equals(fitness, ((FitnessKey) obj).fitness);
+        }
+    }
+
     private List<List<Ranking>> splitRanking(List<Ranking> rankings, UniqueList<Ranking> returnedUsedRankings) {
         List<List<Ranking>> ret = new ArrayList<>(getConfiguration().getSubConfigurations().size());
-        List<Set<String>> tmp = new ArrayList<>(getConfiguration().getSubConfigurations().size());
+        List<Set<Long>> tmp = new ArrayList<>(getConfiguration().getSubConfigurations().size());
         for (int posSize : this.populationTargetSize) {
             ret.add(new ArrayList<>(posSize));
             tmp.add(new HashSet<>(posSize));
@@ -401,12 +452,10 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
             Forest forest = (Forest) r.getTree();
             int n = 0;
             for (Node tree : forest) {
-                StringBuilder builder = new StringBuilder();
-                tree.describe(builder);
-                String description = builder.toString();
-                if (!tmp.get(n).contains(description) && tmp.get(n).size() < this.populationTargetSize.get(n)) {
+                long fingerprint = tree.getFingerprint();
+                if (!tmp.get(n).contains(fingerprint) && tmp.get(n).size() < this.populationTargetSize.get(n)) {
                     ret.get(n).add(new Ranking(tree, r.getFitness()));
-                    tmp.get(n).add(description);
+                    tmp.get(n).add(fingerprint);
                     returnedUsedRankings.add(r);
                 }
                 n++;
@@ -443,11 +492,9 @@ public class CoevolutionaryDiversityBehaviourStrategy implements RunStrategy {
 
     private void sortRankings(List<Ranking> tmp, List<Ranking> dst) {
         dst.clear();
-        while (tmp.size() > 0) {
-            List<Ranking> t = Utils.getFirstParetoFront(tmp);
-            tmp.removeAll(t);
-            sortByOrder(t);
-            dst.addAll(t);
+        for (List<Ranking> front : Utils.getParetoFronts(tmp)) {
+            sortByOrder(front);
+            dst.addAll(front);
         }
     }
 
@@ -0,0 +1,378 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import it.units.inginf.male.coevolution.Forest;
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.configuration.EvolutionParameters;
+import it.units.inginf.male.configuration.SubConfiguration;
+import it.units.inginf.male.evaluators.TreeEvaluationException;
+import it.units.inginf.male.generations.Generation;
+import it.units.inginf.male.generations.InitialPopulationBuilder;
+import it.units.inginf.male.generations.Ramped;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.objective.Objective;
+import it.units.inginf.male.objective.ParetoArchive;
+import it.units.inginf.male.objective.RankingTable;
+import it.units.inginf.male.objective.performance.PerformancesFactory;
+import it.units.inginf.male.selections.Selection;
+import it.units.inginf.male.selections.Tournament;
+import it.units.inginf.male.strategy.ExecutionListener;
+import it.units.inginf.male.strategy.ExperimentCoordinator;
+import it.units.inginf.male.strategy.GenerationStatistics;
+import it.units.inginf.male.strategy.RunStrategy;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.utils.Pair;
+import it.units.inginf.male.utils.UniqueList;
+import it.units.inginf.male.variations.Variation;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Steady-state version of the coevolutionary strategy: there are no
+ * generations to wait for, <code>evaluationThreads</code> workers evaluate
+ * forests continuously and every evaluated forest is added, as soon as it is
+ * ready, to a ParetoArchive as large as the largest population. A slow forest
+ * (long backtracking) only keeps its own worker busy.
+ * Selection, variation and forest building run on the job thread, which is
+ * the only one using the Context random generator; new offspring are bred
+ * from the current archive whenever less forests than workers are being
+ * evaluated. Forests already archived or being evaluated are not evaluated
+ * again.
+ * Listeners receive a logGeneration snapshot every
+ * <code>evaluationsPerGeneration</code> evaluations (the largest population
+ * size by default), the run ends after <code>generations</code> snapshots or
+ * with the same termination criteria and experiment policies of
+ * CoevolutionaryStrategyFix3.
+ * The order in which evaluations complete depends on timing, so runs with
+ * more than one worker are not reproducible.
+ */
+public class CoevolutionarySteadyStateStrategy implements RunStrategy {
+
+    public static final String EVALUATIONS_PER_GENERATION_KEY = "evaluationsPerGeneration";
+    //fraction of the offspring generated from scratch, as the 10% of new individuals of the generational strategies
+    private static final double RANDOM_OFFSPRING_RATIO = 0.1;
+
+    private Context context;
+    private Objective objective;
+    private Selection selection;
+    private Variation variation;
+    private ExecutionListener listener;
+    private ParetoArchive archive;
+    private RankingTable.View rankings;
+    private List<RankingTable.View> subRankings;
+    private Objective learningObjective;
+    private int workers = 1;
+    private int evaluationsPerGeneration;
+    private int maxGenerations;
+    private int tournamentSize = 7;
+    private boolean terminationCriteria = true;
+    private int terminationCriteriaGenerations = 50;
+    private ExperimentCoordinator coordinator;
+    private ExperimentCoordinator.Policy policy;
+
+    private final Set<Long> evaluating = new HashSet<>();
+    private long lookups = 0;
+    private long evaluations = 0;
+    private long abortedEvaluations = 0;
+    private long rejectedEvaluations = 0;
+
+    @Override
+    public void setup(Configuration configuration, ExecutionListener listener) throws TreeEvaluationException {
+        this.context = new Context(Context.EvaluationPhases.TRAINING, configuration);
+        this.objective = configuration.getObjective();
+        this.variation = new Variation(this.context);
+        this.listener = listener;
+        this.objective.setup(context);
+        this.maxGenerations = configuration.getGenerations();
+
+        int popMax = 0;
+        for (SubConfiguration c : configuration.getSubConfigurations()) {
+            popMax = Math.max(popMax, c.getEvolutionParameters().getPopulationSize());
+        }
+        this.evaluationsPerGeneration = popMax;
+        this.readParameters(configuration);
+        this.coordinator = configuration.getCoordinator();
+        this.policy = new ExperimentCoordinator.Policy(configuration.getStrategyParameters());
+        this.selection = new Tournament(this.context, tournamentSize);
+        this.archive = new ParetoArchive(popMax);
+        this.rankings = archive.snapshot();
+
+        learningObjective = PerformancesFactory.buildObjective(Context.EvaluationPhases.LEARNING, configuration);
+    }
+
+    private void readParameters(Configuration configuration) {
+        Map<String, String> parameters = configuration.getStrategyParameters();
+        if (parameters != null) {
+            if (parameters.containsKey(ParallelFitnessEvaluator.EVALUATION_THREADS_KEY)) {
+                workers = Math.max(1, Integer.valueOf(parameters.get(ParallelFitnessEvaluator.EVALUATION_THREADS_KEY)));
+            }
+            if (parameters.containsKey(EVALUATIONS_PER_GENERATION_KEY)) {
+                evaluationsPerGeneration = Integer.valueOf(parameters.get(EVALUATIONS_PER_GENERATION_KEY));
+            }
+            if (parameters.containsKey("terminationCriteriaGenerations")) {
+                terminationCriteriaGenerations = Integer.valueOf(parameters.get("terminationCriteriaGenerations"));
+            }
+            if (parameters.containsKey("terminationCriteria")) {
+                terminationCriteria = Boolean.valueOf(parameters.get("terminationCriteria"));
+            }
+            if (parameters.containsKey("tournamentSize")) {
+                this.tournamentSize = Integer.valueOf(parameters.get("tournamentSize"));
+            }
+        }
+    }
+
+    @Override
+    public Void call() throws TreeEvaluationException {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            ExecutorCompletionService<Evaluation> completionService = new ExecutorCompletionService<>(executor);
+            listener.evolutionStarted(this);
+            List<List<Node>> populations = new ArrayList<>();
+            int p = 0;
+            for (SubConfiguration subConfig : getConfiguration().getSubConfigurations()) {
+                InitialPopulationBuilder populationBuilder = subConfig.getPopulationBuilder();
+                List<Node> population = populationBuilder.init();
+                final int popSize = subConfig.getEvolutionParameters().getPopulationSize();
+                Generation ramped = new Ramped(subConfig.getEvolutionParameters().getCreationMaxDepth(), this.context);
+                population.addAll(ramped.generate(popSize - population.size(), p));
+                populations.add(population);
+                p++;
+            }
+            submit(getConfiguration().getForestBuilder().generate(populations, context), completionService);
+            subRankings = splitRanking(rankings);
+
+            double[] oldGenerationBestValue = null;
+            int terminationCriteriaGenerationsCounter = 0;
+            boolean allPerfect = false;
+            int generation = 0;
+            long completed = 0;
+            while (generation < maxGenerations) {
+                //batches whose forests are all duplicates are retried a few times, the workers may stay idle until the next completion
+                for (int batch = 0; evaluating.size() < workers && batch < 100; batch++) {
+                    submit(breed(), completionService);
+                }
+                if (evaluating.isEmpty()) {
+                    //nothing new can be bred
+                    break;
+                }
+                Future<Evaluation> done;
+                try {
+                    done = completionService.take();
+                } catch (InterruptedException ex) {
+                    break;
+                }
+                for (; done != null; done = completionService.poll()) {
+                    Evaluation evaluation = get(done);
+                    evaluating.remove(evaluation.forest.getFingerprint());
+                    archive.add(evaluation.forest, evaluation.fitness);
+                    completed++;
+                }
+                rankings = archive.snapshot();
+                subRankings = splitRanking(rankings);
+                if (completed < (long) evaluationsPerGeneration * (generation + 1)) {
+                    continue;
+                }
+
+                generation++;
+                double[] fitnessBest = rankings.get(0).getFitness();
+                if (listener != null) {
+                    listener.logGeneration(this, generation, rankings.getTree(0), fitnessBest, this.rankings, statistics());
+                }
+                coordinator.postBest(getConfiguration().getJobId(), generation, fitnessBest);
+                allPerfect = ExperimentCoordinator.isPerfect(fitnessBest);
+                if (allPerfect) {
+                    break;
+                }
+                if (terminationCriteria || policy.isStopWhenPerfect()) {
+                    allPerfect = ExperimentCoordinator.isPerfect(learningObjective.fitness(rankings.getTree(0)));
+                    if (allPerfect && policy.isStopWhenPerfect()) {
+                        break;
+                    }
+                }
+                if (terminationCriteria) {
+                    if (Arrays.equals(fitnessBest, oldGenerationBestValue) && allPerfect) {
+                        terminationCriteriaGenerationsCounter++;
+                    } else {
+                        terminationCriteriaGenerationsCounter = 0;
+                    }
+                    if (terminationCriteriaGenerationsCounter >= this.terminationCriteriaGenerations) {
+                        break;
+                    }
+                    oldGenerationBestValue = fitnessBest;
+                }
+                if (policy.isHopeless(coordinator, getConfiguration().getJobId(), generation, fitnessBest)) {
+                    break;
+                }
+                if (coordinator.isStopRequested() || Thread.interrupted()) {
+                    break;
+                }
+            }
+
+            if (listener != null) {
+                listener.evolutionComplete(this, generation - 1, rankings.getTree(0), this.rankings);
+            }
+            if (policy.isStopWhenPerfect() && allPerfect) {
+                coordinator.requestStop();
+            }
+            return null;
+        } catch (Throwable x) {
+            throw new TreeEvaluationException("Error during evaluation of a tree", x, this);
+        } finally {
+            //the forests still being evaluated are not needed anymore
+            executor.shutdownNow();
+        }
+    }
+
+    private void submit(List<Forest> forests, ExecutorCompletionService<Evaluation> completionService) {
+        for (final Forest forest : forests) {
+            lookups++;
+            long fingerprint = forest.getFingerprint();
+            if (archive.contains(fingerprint) || !evaluating.add(fingerprint)) {
+                continue;
+            }
+            evaluations++;
+            completionService.submit(() -> new Evaluation(forest, objective.fitness(forest)));
+        }
+    }
+
+    private static Evaluation get(Future<Evaluation> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof Exception) {
+                throw (Exception) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Breeds a few offspring for each population from the archived trees and
+     * builds their forests.
+     * @return the new forests
+     */
+    private List<Forest> breed() {
+        int count = Math.max(4, 2 * workers);
+        List<List<Node>> offspring = new ArrayList<>(subRankings.size());
+        for (int i = 0; i < subRankings.size(); i++) {
+            offspring.add(breed(i, subRankings.get(i), count));
+        }
+        return getConfiguration().getForestBuilder().generate(offspring, context);
+    }
+
+    private List<Node> breed(int populationId, RankingTable.View ranking, int count) {
+        EvolutionParameters params = getConfiguration().getSubConfiguration(populationId).getEvolutionParameters();
+        Generation ramped = new Ramped(params.getCreationMaxDepth(), context);
+        List<Node> offspring = new UniqueList<>(count, Node::getFingerprint);
+        for (int attempts = 0; offspring.size() < count && attempts < count * 10; attempts++) {
+            if (ranking.isEmpty() || context.getRandom().nextDouble() < RANDOM_OFFSPRING_RATIO) {
+                offspring.addAll(ramped.generate(1, populationId));
+                continue;
+            }
+            double random = context.getRandom().nextDouble();
+            if (random <= params.getCrossoverProbability()) {
+                Node selectedA = selection.select(ranking);
+                Node selectedB = selection.select(ranking);
+                Pair<Node, Node> newIndividuals = variation.crossover(selectedA, selectedB, populationId);
+                if (newIndividuals != null) {
+                    offspring.add(newIndividuals.getFirst());
+                    offspring.add(newIndividuals.getSecond());
+                }
+            } else if (random <= params.getCrossoverProbability() + params.getMutationPobability()) {
+                offspring.add(variation.mutate(selection.select(ranking), populationId));
+            } else {
+                //a copy still makes new forests with new partners
+                offspring.add(selection.select(ranking));
+            }
+        }
+        return offspring;
+    }
+
+    private GenerationStatistics statistics() {
+        GenerationStatistics statistics = new GenerationStatistics();
+        statistics.setFitnessLookups(lookups);
+        statistics.setFitnessEvaluations(evaluations);
+        statistics.setFitnessCacheSize(archive.size());
+        lookups = 0;
+        evaluations = 0;
+        statistics.setAbortedEvaluations(context.getAbortedEvaluations() - abortedEvaluations);
+        abortedEvaluations = context.getAbortedEvaluations();
+        statistics.setRejectedEvaluations(context.getRejectedEvaluations() - rejectedEvaluations);
+        rejectedEvaluations = context.getRejectedEvaluations();
+        return statistics;
+    }
+
+    private List<RankingTable.View> splitRanking(RankingTable.View rankings) {
+        List<RankingTable> tables = new ArrayList<>(getConfiguration().getSubConfigurations().size());
+        for (SubConfiguration subConfig : getConfiguration().getSubConfigurations()) {
+            tables.add(new RankingTable(subConfig.getEvolutionParameters().getPopulationSize()));
+        }
+
+        //each tree of a forest is ranked with the fitness of the best forest it appears in
+        for (int r = 0; r < rankings.size(); r++) {
+            Forest forest = (Forest) rankings.getTree(r);
+            int n = 0;
+            for (Node tree : forest) {
+                tables.get(n).add(tree, rankings.getTable(), rankings.tableIndex(r));
+                n++;
+            }
+        }
+
+        List<RankingTable.View> ret = new ArrayList<>(tables.size());
+        for (RankingTable table : tables) {
+            ret.add(table.view());
+        }
+        return ret;
+    }
+
+    @Override
+    public Configuration getConfiguration() {
+        return context.getConfiguration();
+    }
+
+    @Override
+    public ExecutionListener getExecutionListener() {
+        return listener;
+    }
+
+    @Override
+    public Context getContext() {
+        return this.context;
+    }
+
+    private static final class Evaluation {
+
+        private final Forest forest;
+        private final double[] fitness;
+
+        Evaluation(Forest forest, double[] fitness) {
+            this.forest = forest;
+            this.fitness = fitness;
+        }
+    }
+}
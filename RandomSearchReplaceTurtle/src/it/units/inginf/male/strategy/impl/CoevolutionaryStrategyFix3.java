@@ -25,48 +25,82 @@ import it.units.inginf.male.generations.InitialPopulationBuilder;
 import it.units.inginf.male.generations.Ramped;
 import it.units.inginf.male.inputs.Context;
 import it.units.inginf.male.coevolution.Forest;
+import it.units.inginf.male.objective.EditBoundedObjective;
+import it.units.inginf.male.objective.GenerationalFitnessCache;
 import it.units.inginf.male.objective.Objective;
 import it.units.inginf.male.objective.Ranking;
+import it.units.inginf.male.objective.RankingTable;
 import it.units.inginf.male.objective.performance.PerformancesFactory;
 import it.units.inginf.male.selections.Selection;
 import it.units.inginf.male.selections.Tournament;
+import it.units.inginf.male.strategy.CheckpointInput;
+import it.units.inginf.male.strategy.CheckpointOutput;
+import it.units.inginf.male.strategy.CheckpointStore;
+import it.units.inginf.male.strategy.CheckpointableStrategy;
 import it.units.inginf.male.strategy.ExecutionListener;
-import it.units.inginf.male.strategy.RunStrategy;
+import it.units.inginf.male.strategy.ExperimentCoordinator;
+import it.units.inginf.male.strategy.GenerationStatistics;
+import it.units.inginf.male.strategy.MigratingStrategy;
+import it.units.inginf.male.strategy.MigrationChannel;
+import it.units.inginf.male.strategy.SteppableStrategy;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.utils.Pair;
 import it.units.inginf.male.utils.UniqueList;
-import it.units.inginf.male.utils.Utils;
 import it.units.inginf.male.variations.Variation;
 
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 //Added elitarism but moderated to 50% individuals
 /**
- * In case of re-start of all the experiment, YOU HAVE to set the stopSignal
- * variable to default FALSE!! This is not going to be automatically reset to
- * FALSE at experiment stop. Created by Fabiano on 18/11/16.
+ * The stop requests, the best-so-far board and the early termination policies
+ * are scoped to the experiment, see ExperimentCoordinator.
+ * The evolution is checkpointed every checkpointInterval generations, see
+ * CheckpointStore; the fitness cache is not, a restored job evaluates again
+ * the forests it would have found in cache.
+ * Created by Fabiano on 18/11/16.
  */
-public class CoevolutionaryStrategyFix3 implements RunStrategy {
+public class CoevolutionaryStrategyFix3 implements MigratingStrategy, SteppableStrategy, CheckpointableStrategy {
 
     protected Context context;
     private List<List<Node>> populations;
-    private List<Ranking> rankings;
-    private List<List<Ranking>> subRankings;
+    private RankingTable.View rankings;
+    private List<RankingTable.View> subRankings;
 
     protected Selection selection;
     protected Objective objective;
     private Variation variation;
     private ExecutionListener listener;
+    private ParallelFitnessEvaluator fitnessEvaluator;
+    private GenerationalFitnessCache fitnessCache;
+    private GenerationStatistics statistics;
+    private long abortedEvaluations = 0;
+    private long rejectedEvaluations = 0;
+    //island model: the best individuals are exchanged with the other islands, the received ones join the next generation
+    private MigrationChannel migrationChannel;
+    private List<List<Node>> immigrants;
+    //state of the generations loop, which can be run one generation at a time
+    private int generation = 0;
+    private boolean terminated = false;
+    private boolean allPerfect = false;
+    private double[] oldGenerationBestValue = null;
+    private int terminationCriteriaGenerationsCounter = 0;
+    private CheckpointStore checkpoints;
+    //restored from a checkpoint, start() does not build the initial populations
+    private boolean restored = false;
+    //stopped from outside, the last checkpoint is kept so that the job can be resumed
+    private boolean stopped = false;
     //Termination criteria enables/disables the premature termination of thread when best regex/individual doesn't change for
     //a specified amount of generations (terminationCriteriaGenerations)
     private boolean terminationCriteria = true;
     private int terminationCriteriaGenerations = 50;
-    private boolean globalStopWhenPerfect = false;
+    //when enabled, the edit distances of a new forest are computed until its edit fitness exceeds the worst one in the rankings
+    private boolean editBoundPruning = false;
     private int maxGenerations;
     private Objective learningObjective;
     private int tournamentSize = 7;
-    private static final AtomicBoolean stopSignal = new AtomicBoolean(false);
+    private ExperimentCoordinator coordinator;
+    private ExperimentCoordinator.Policy policy;
 
     protected double elitarismPopulationRatio = 0.4;
     protected double elitarismForestRatio = 1;
@@ -75,6 +109,11 @@ public class CoevolutionaryStrategyFix3 implements RunStrategy {
     public void setup(Configuration configuration, ExecutionListener listener) throws TreeEvaluationException {
 
         this.readParameters(configuration);
+        this.coordinator = configuration.getCoordinator();
+        this.checkpoints = configuration.getCheckpoints();
+        this.policy = new ExperimentCoordinator.Policy(configuration.getStrategyParameters());
+        this.fitnessEvaluator = ParallelFitnessEvaluator.fromParameters(configuration.getStrategyParameters());
+        this.fitnessCache = GenerationalFitnessCache.fromParameters(configuration.getStrategyParameters());
 
         this.context = new Context(Context.EvaluationPhases.TRAINING, configuration);
         //cloning the objective
@@ -95,11 +134,16 @@ public class CoevolutionaryStrategyFix3 implements RunStrategy {
             }
         }
 
-        this.rankings = new UniqueList<>(popMax);
+        this.rankings = new RankingTable(popMax).view();
 
         learningObjective = PerformancesFactory.buildObjective(Context.EvaluationPhases.LEARNING, configuration);
     }
 
+    @Override
+    public void setMigrationChannel(MigrationChannel channel) {
+        this.migrationChannel = channel;
+    }
+
     private void readParameters(Configuration configuration) {
         Map<String, String> parameters = configuration.getStrategyParameters();
         if (parameters != null) {
@@ -110,8 +154,8 @@ public class CoevolutionaryStrategyFix3 implements RunStrategy {
             if (parameters.containsKey("terminationCriteria")) {
                 terminationCriteria = Boolean.valueOf(parameters.get("terminationCriteria"));
             }
-            if (parameters.containsKey("globalStopWhenPerfect")) {
-                globalStopWhenPerfect = Boolean.valueOf(parameters.get("globalStopWhenPerfect"));
+            if (parameters.containsKey("editBoundPruning")) {
+                editBoundPruning = Boolean.valueOf(parameters.get("editBoundPruning"));
             }
             if (parameters.containsKey("tournamentSize")) {
                 this.tournamentSize = Integer.valueOf(parameters.get("tournamentSize"));
@@ -122,8 +166,28 @@ public class CoevolutionaryStrategyFix3 implements RunStrategy {
     @Override
     public Void call() throws TreeEvaluationException {
         try {
-            int generation;
+            start();
+            while (step()) {
+            }
+            finish();
+            return null;
+        } finally {
+            if (migrationChannel != null) {
+                migrationChannel.retire();
+            }
+        }
+    }
+
+    @Override
+    public void start() throws TreeEvaluationException {
+        try {
             listener.evolutionStarted(this);
+            if (restored) {
+                if (!rankings.isEmpty()) {
+                    coordinator.postBest(getConfiguration().getJobId(), generation, rankings.get(0).getFitness());
+                }
+                return;
+            }
             int p = 0;
             for (SubConfiguration subConfig : getConfiguration().getSubConfigurations()) {
                 InitialPopulationBuilder populationBuilder = subConfig.getPopulationBuilder();
@@ -136,81 +200,208 @@ public class CoevolutionaryStrategyFix3 implements RunStrategy {
                 p++;
             }
 
-            List<Ranking> tmp = buildRankings(populations, objective, 1);
-            while (tmp.size() > 0) {
-                List<Ranking> t = Utils.getFirstParetoFront(tmp);
-                tmp.removeAll(t);
-                sortByOrder(t);
-                rankings.addAll(t);
-            }
+            rankings = sortRankings(buildRankings(populations, objective, 1));
             subRankings = splitRanking(rankings);
+            endGeneration();
+        } catch (Throwable x) {
+            throw failure(x);
+        }
+    }
 
-            //Variables for termination criteria
-            double[] oldGenerationBestValue = null;
-            int terminationCriteriaGenerationsCounter = 0;
-            boolean allPerfect = false;
-            for (generation = 0; generation < maxGenerations; generation++) {
-
-                evolve();
-                Ranking bestRegex = this.rankings.get(0);
-                //Ranking bestString = this.rankings.get(1).get(0);
-                if (listener != null) {
-                    listener.logGeneration(this, generation + 1, bestRegex.getTree(), bestRegex.getFitness(), this.rankings);
-                }
+    @Override
+    public boolean step() throws TreeEvaluationException {
+        if (terminated || generation >= maxGenerations) {
+            return false;
+        }
+        try {
+            if (!nextGeneration()) {
+                terminated = true;
+                checkpoint(true);
+                return false;
+            }
+            generation++;
+            boolean running = generation < maxGenerations;
+            checkpoint(!running);
+            return running;
+        } catch (Throwable x) {
+            throw failure(x);
+        }
+    }
 
-                allPerfect = true;
-                for (double fitness : rankings.get(0).getFitness()) {
-                    if (Math.round(fitness * 10000) != 0) {
-                        allPerfect = false;
-                        break;
-                    }
-                }
-                if (allPerfect) {
-                    break;
-                }
+    private void checkpoint(boolean last) {
+        if (!stopped && checkpoints.isCheckpointGeneration(generation, last)) {
+            checkpoints.save(this);
+        }
+    }
 
-                if (terminationCriteria) {
-                    double[] learningPerformance = learningObjective.fitness(bestRegex.getTree());
-                    double[] fitnessBest = bestRegex.getFitness();
-                    allPerfect = true;
-                    for (double fitness : learningPerformance) {
-                        if (Math.round(fitness * 10000) != 0) {
-                            allPerfect = false;
-                            break;
-                        }
-                    }
-                    //String newBestValue = bestRegex.getDescription();
-                    if (Arrays.equals(fitnessBest, oldGenerationBestValue) && allPerfect) {
-                        terminationCriteriaGenerationsCounter++;
-                    } else {
-                        terminationCriteriaGenerationsCounter = 0;
-                    }
-                    if (terminationCriteriaGenerationsCounter >= this.terminationCriteriaGenerations) {
-                        break;
-                    }
-                    oldGenerationBestValue = fitnessBest;
+    /**
+     * @return false when the evolution has to stop after this generation
+     */
+    private boolean nextGeneration() {
+        evolve();
+        Ranking bestRegex = this.rankings.get(0);
+        //Ranking bestString = this.rankings.get(1).get(0);
+        if (listener != null) {
+            listener.logGeneration(this, generation + 1, bestRegex.getTree(), bestRegex.getFitness(), this.rankings, statistics);
+        }
+        if (migrationChannel != null && migrationChannel.isMigrationGeneration(generation + 1)) {
+            immigrants = migrationChannel.migrate(generation + 1, emigrants(migrationChannel.getMigrationSize()));
+        }
 
-                }
+        coordinator.postBest(getConfiguration().getJobId(), generation + 1, bestRegex.getFitness());
 
-                if (stopSignal.get() || Thread.interrupted()) {
-                    break;
-                }
+        allPerfect = ExperimentCoordinator.isPerfect(rankings.get(0).getFitness());
+        if (allPerfect) {
+            return false;
+        }
+
+        if (terminationCriteria || policy.isStopWhenPerfect()) {
+            double[] learningPerformance = learningObjective.fitness(bestRegex.getTree());
+            allPerfect = ExperimentCoordinator.isPerfect(learningPerformance);
+            if (allPerfect && policy.isStopWhenPerfect()) {
+                //perfect on learning, the other jobs are not needed
+                return false;
+            }
+        }
 
+        if (terminationCriteria) {
+            double[] fitnessBest = bestRegex.getFitness();
+            //String newBestValue = bestRegex.getDescription();
+            if (Arrays.equals(fitnessBest, oldGenerationBestValue) && allPerfect) {
+                terminationCriteriaGenerationsCounter++;
+            } else {
+                terminationCriteriaGenerationsCounter = 0;
+            }
+            if (terminationCriteriaGenerationsCounter >= this.terminationCriteriaGenerations) {
+                return false;
             }
+            oldGenerationBestValue = fitnessBest;
+
+        }
 
+        if (policy.isHopeless(coordinator, getConfiguration().getJobId(), generation + 1, bestRegex.getFitness())) {
+            return false;
+        }
+        if (coordinator.isStopRequested() || Thread.interrupted()) {
+            stopped = true;
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void finish() throws TreeEvaluationException {
+        try {
             if (listener != null) {
                 listener.evolutionComplete(this, generation - 1, rankings.get(0).getTree(), this.rankings);
             }
 
-            if (this.globalStopWhenPerfect && allPerfect) {
-                stopSignal.set(true);
+            if (policy.isStopWhenPerfect() && allPerfect) {
+                coordinator.requestStop();
             }
-            return null;
         } catch (Throwable x) {
-            throw new TreeEvaluationException("Error during evaluation of a tree", x, this);
+            throw failure(x);
         }
     }
 
+    @Override
+    public void writeCheckpoint(CheckpointOutput out) throws IOException {
+        out.writeInt(getConfiguration().getJobId());
+        out.writeLong(context.getSeed());
+        out.writeInt(generation);
+        out.writeBoolean(terminated);
+        out.writeBoolean(allPerfect);
+        out.writeFitness(oldGenerationBestValue);
+        out.writeInt(terminationCriteriaGenerationsCounter);
+        out.writeRandom(context.getRandom());
+        out.writeInt(populations.size());
+        for (List<Node> population : populations) {
+            out.writeTrees(population);
+        }
+        out.writeRanking(rankings);
+        out.writeInt(subRankings.size());
+        for (RankingTable.View subRanking : subRankings) {
+            out.writeRanking(subRanking);
+        }
+        out.writeBoolean(immigrants != null);
+        if (immigrants != null) {
+            out.writeInt(immigrants.size());
+            for (List<Node> trees : immigrants) {
+                out.writeTrees(trees);
+            }
+        }
+        out.writeBytes(listener != null ? listener.saveJobState(this) : null);
+    }
+
+    @Override
+    public void readCheckpoint(CheckpointInput in) throws IOException {
+        int jobId = in.readInt();
+        long seed = in.readLong();
+        if (jobId != getConfiguration().getJobId() || seed != context.getSeed()) {
+            throw new IOException("The checkpoint belongs to job " + jobId + " with seed " + seed);
+        }
+        generation = in.readInt();
+        terminated = in.readBoolean();
+        allPerfect = in.readBoolean();
+        oldGenerationBestValue = in.readFitness();
+        terminationCriteriaGenerationsCounter = in.readInt();
+        context.setRandom(in.readRandom());
+        int count = in.readInt();
+        populations.clear();
+        for (int p = 0; p < count; p++) {
+            populations.add(in.readTrees());
+        }
+        rankings = in.readRanking();
+        count = in.readInt();
+        subRankings = new ArrayList<>(count);
+        for (int p = 0; p < count; p++) {
+            subRankings.add(in.readRanking());
+        }
+        immigrants = null;
+        if (in.readBoolean()) {
+            count = in.readInt();
+            immigrants = new ArrayList<>(count);
+            for (int p = 0; p < count; p++) {
+                immigrants.add(in.readTrees());
+            }
+        }
+        byte[] state = in.readBytes();
+        if (listener != null && state != null) {
+            listener.restoreJobState(this, state);
+        }
+        restored = true;
+    }
+
+    private TreeEvaluationException failure(Throwable x) {
+        if (x instanceof TreeEvaluationException) {
+            return (TreeEvaluationException) x;
+        }
+        return new TreeEvaluationException("Error during evaluation of a tree", x, this);
+    }
+
+    @Override
+    public int getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public Node getBest() {
+        return rankings.isEmpty() ? null : rankings.get(0).getTree();
+    }
+
+    private List<List<Node>> emigrants(int size) {
+        List<List<Node>> emigrants = new ArrayList<>(subRankings.size());
+        for (RankingTable.View subRanking : subRankings) {
+            RankingTable.View best = subRanking.head(size);
+            List<Node> trees = new ArrayList<>(best.size());
+            for (int r = 0; r < best.size(); r++) {
+                trees.add(best.getTree(r).cloneTree());
+            }
+            emigrants.add(trees);
+        }
+        return emigrants;
+    }
+
     private void evolve() {
         boolean allPerfect = true;
         for (double fitness : rankings.get(0).getFitness()) {
@@ -220,6 +411,8 @@ public class CoevolutionaryStrategyFix3 implements RunStrategy {
             }
         }
         if (allPerfect) {
+            //nothing has been evaluated
+            statistics = new GenerationStatistics();
             return;
         }
 
@@ -228,12 +421,18 @@ public class CoevolutionaryStrategyFix3 implements RunStrategy {
         for (int i = 0; i < populations.size(); i++) {
             List<Node> population = populations.get(i);
             List<Node> newPopulation = generateNewPopulation(population, i, subRankings.get(i), elitarismPopulationRatio);
+            if (immigrants != null) {
+                newPopulation.addAll(immigrants.get(i));
+            }
             //newPopulation.addAll(population);
             newPopulations.add(newPopulation);
         }
+        immigrants = null;
 
-        List<Ranking> tmp = buildRankings(newPopulations, objective, elitarismForestRatio);
-        sortRankings(tmp, rankings);
+        if (editBoundPruning && objective instanceof EditBoundedObjective) {
+            ((EditBoundedObjective) objective).setEditBound(worstEditFitness(rankings));
+        }
+        rankings = sortRankings(buildRankings(newPopulations, objective, elitarismForestRatio));
         subRankings = splitRanking(rankings);
         //System.out.println("***Sub-ranking size, search: "+subRankings.get(0).size()+" replace: "+subRankings.get(1).size());
 
@@ -242,16 +441,13 @@ public class CoevolutionaryStrategyFix3 implements RunStrategy {
             EvolutionParameters params = getConfiguration().getSubConfiguration(i).getEvolutionParameters();
             int targetPopsize = params.getPopulationSize();//population.size();
 
-            List<Ranking> subRanking = subRankings.get(i);
+            RankingTable.View subRanking = subRankings.get(i).head(targetPopsize);
             List<Node> population = populations.get(i);
 
             maxPopSize = targetPopsize > maxPopSize ? targetPopsize : maxPopSize;
-            if (subRanking.size() >= targetPopsize) {
-                subRanking = new ArrayList<>(subRanking.subList(0, targetPopsize));
-            }
             population.clear();
-            for (Ranking r : subRanking) {
-                population.add(r.getTree());
+            for (int r = 0; r < subRanking.size(); r++) {
+                population.add(subRanking.getTree(r));
             }
 
             Generation ramped = new Ramped(params.getCreationMaxDepth(), context);
@@ -259,21 +455,50 @@ public class CoevolutionaryStrategyFix3 implements RunStrategy {
             population.addAll(generated);
         }
 
-        rankings = rankings.subList(0, Math.min(maxPopSize, rankings.size()));
+        rankings = rankings.head(maxPopSize);
+        endGeneration();
 
     }
 
-    private List<Node> generateNewPopulation(List<Node> population, int populationId, List<Ranking> ranking, double elitarismRatio) {
+    //the fitness of the forests which survived stays in cache for the next generations
+    private void endGeneration() {
+        for (int r = 0; r < rankings.size(); r++) {
+            fitnessCache.markAlive(rankings.getFingerprint(r));
+        }
+        statistics = new GenerationStatistics();
+        fitnessCache.endGeneration(statistics);
+        statistics.setAbortedEvaluations(context.getAbortedEvaluations() - abortedEvaluations);
+        abortedEvaluations = context.getAbortedEvaluations();
+        statistics.setRejectedEvaluations(context.getRejectedEvaluations() - rejectedEvaluations);
+        rejectedEvaluations = context.getRejectedEvaluations();
+    }
+
+    /**
+     * @return the worst finite edit fitness in the rankings, no bound when
+     * there is none
+     */
+    static double worstEditFitness(RankingTable.View rankings) {
+        double worst = Double.NEGATIVE_INFINITY;
+        for (int r = 0; r < rankings.size(); r++) {
+            double edit = rankings.getFitness(r, 0);
+            if (edit > worst && !Double.isInfinite(edit)) {
+                worst = edit;
+            }
+        }
+        return worst == Double.NEGATIVE_INFINITY ? Double.POSITIVE_INFINITY : worst;
+    }
+
+    private List<Node> generateNewPopulation(List<Node> population, int populationId, RankingTable.View ranking, double elitarismRatio) {
         EvolutionParameters params = getConfiguration().getSubConfiguration(populationId).getEvolutionParameters();
         int targetPopsize = params.getPopulationSize();//population.size();
 
         List<it.units.inginf.male.tree.Node> newPopulation;
-        newPopulation = new UniqueList<>(population.size());
-        for (Ranking ranked : ranking) {
+        newPopulation = new UniqueList<>(population.size(), Node::getFingerprint);
+        for (int r = 0; r < ranking.size(); r++) {
             if (newPopulation.size() >= targetPopsize * elitarismRatio) {
                 break;
             }
-            newPopulation.add(ranked.getTree());
+            newPopulation.add(ranking.getTree(r));
         }
 
         int oldPopSize = (int) (targetPopsize * 0.9);
@@ -308,43 +533,42 @@ public class CoevolutionaryStrategyFix3 implements RunStrategy {
         return newPopulation;
     }
 
-    private List<Ranking> buildRankings(List<List<Node>> populations, Objective objective, double elitarismRatio) {
-        List<Ranking> bestRanking = rankings.subList(0, (int) (rankings.size() * elitarismRatio));
-        List<Ranking> result = new UniqueList<>(bestRanking);
-
+    private RankingTable buildRankings(List<List<Node>> populations, Objective objective, double elitarismRatio) {
+        RankingTable.View bestRanking = rankings.head((int) (rankings.size() * elitarismRatio));
         List<Forest> forests = getConfiguration().getForestBuilder().generate(populations, context);
+        RankingTable result = new RankingTable(bestRanking.size() + forests.size());
+        for (int r = 0; r < bestRanking.size(); r++) {
+            result.add(bestRanking.getTree(r), bestRanking.getTable(), bestRanking.tableIndex(r));
+        }
 
-        for (Forest forest : forests) {
-            double fitness[] = objective.fitness(forest);
-            result.add(new Ranking(forest, fitness));
+        double[][] fitness = fitnessCache.evaluate(forests, context.getPhase(), missing -> fitnessEvaluator.evaluate(missing, objective, context));
+        for (int j = 0; j < forests.size(); j++) {
+            result.add(forests.get(j), fitness[j]);
         }
 
         return result;
     }
 
-    private List<List<Ranking>> splitRanking(List<Ranking> rankings) {
-        List<List<Ranking>> ret = new ArrayList<>(getConfiguration().getSubConfigurations().size());
-        List<Set<String>> tmp = new ArrayList<>(getConfiguration().getSubConfigurations().size());
+    private List<RankingTable.View> splitRanking(RankingTable.View rankings) {
+        List<RankingTable> tables = new ArrayList<>(getConfiguration().getSubConfigurations().size());
         for (SubConfiguration subConfig : getConfiguration().getSubConfigurations()) {
-            ret.add(new ArrayList<>(subConfig.getEvolutionParameters().getPopulationSize()));
-            tmp.add(new HashSet<>(subConfig.getEvolutionParameters().getPopulationSize()));
+            tables.add(new RankingTable(subConfig.getEvolutionParameters().getPopulationSize()));
         }
 
-        for (Ranking r : rankings) {
-            Forest forest = (Forest) r.getTree();
+        //each tree of a forest is ranked with the fitness of the best forest it appears in
+        for (int r = 0; r < rankings.size(); r++) {
+            Forest forest = (Forest) rankings.getTree(r);
             int n = 0;
             for (Node tree : forest) {
-                StringBuilder builder = new StringBuilder();
-                tree.describe(builder);
-                String description = builder.toString();
-                if (!tmp.get(n).contains(description)) {
-                    ret.get(n).add(new Ranking(tree, r.getFitness()));
-                    tmp.get(n).add(description);
-                }
+                tables.get(n).add(tree, rankings.getTable(), rankings.tableIndex(r));
                 n++;
             }
         }
 
+        List<RankingTable.View> ret = new ArrayList<>(tables.size());
+        for (RankingTable table : tables) {
+            ret.add(table.view());
+        }
         return ret;
     }
 
@@ -358,29 +582,8 @@ public class CoevolutionaryStrategyFix3 implements RunStrategy {
         return listener;
     }
 
-    private void sortByOrder(List<Ranking> front) {
-        Collections.sort(front, (o1, o2) -> {
-            double[] fitness1 = o1.getFitness();
-            double[] fitness2 = o2.getFitness();
-            int compare = 0;
-            for (int i = 0; i < fitness1.length; i++) {
-                compare = Double.compare(fitness1[i], fitness2[i]);
-                if (compare != 0) {
-                    return compare;
-                }
-            }
-            return -o1.getDescription().compareTo(o2.getDescription());
-        });
-    }
-
-    private void sortRankings(List<Ranking> tmp, List<Ranking> dst) {
-        dst.clear();
-        while (tmp.size() > 0) {
-            List<Ranking> t = Utils.getFirstParetoFront(tmp);
-            tmp.removeAll(t);
-            sortByOrder(t);
-            dst.addAll(t);
-        }
+    private static RankingTable.View sortRankings(RankingTable table) {
+        return table.sort();
     }
 
     @Override
@@ -388,15 +591,4 @@ public class CoevolutionaryStrategyFix3 implements RunStrategy {
         return this.context;
     }
 
-    /**
-     * In case of restart of all the experiment, YOU HAVE to set this variable
-     * to FALSE!! This is not going to be automatically reset to FALSE at
-     * experiment stop.
-     *
-     * @return
-     */
-    public static AtomicBoolean getStopSignal() {
-        return stopSignal;
-    }
-
 }
@@ -17,6 +17,8 @@
  */
 package it.units.inginf.male.strategy.impl;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import it.units.inginf.male.coevolution.Forest;
 import it.units.inginf.male.configuration.Configuration;
 import it.units.inginf.male.evaluators.CachedEvaluator;
@@ -35,9 +37,11 @@ import it.units.inginf.male.outputs.Solution;
 import it.units.inginf.male.strategy.ExecutionListener;
 import it.units.inginf.male.strategy.ExecutionListenerFactory;
 import it.units.inginf.male.strategy.ExecutionStrategy;
+import it.units.inginf.male.strategy.GenerationStatistics;
 import it.units.inginf.male.strategy.RunStrategy;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.utils.Utils;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -76,6 +80,8 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
     private boolean isObjectiveCached = false;
     private final List<List<Ranking>> previousGenerationRankings;
     private List<Ranking> topTen = null;
+    //characters evaluated by each job, saved with the job trace on checkpoints
+    private final long[] jobCharacterEvaluations;
 
     public CoolTextualExecutionListener(String config, Configuration configuration, Results results) {
         this.header = "Configuration file: " + config + " Output folder: " + configuration.getOutputFolder().getName();
@@ -86,6 +92,7 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
         this.isObjectiveCached = configuration.getObjective() instanceof CacheInterface;
         this.isEvaluatorCached = configuration.getEvaluator() instanceof CachedReplaceEvaluator;
 
+        this.jobCharacterEvaluations = new long[jobTotal];
         this.previousGenerationRankings = new ArrayList<>(jobTotal);
         for (int i = 0; i < jobTotal; i++) {
             this.previousGenerationRankings.add(null);
@@ -140,6 +147,11 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
 
     @Override
     public void logGeneration(RunStrategy strategy, int generation, Node best, double[] fitness, List<Ranking> population) {
+        logGeneration(strategy, generation, best, fitness, population, null);
+    }
+
+    @Override
+    public void logGeneration(RunStrategy strategy, int generation, Node best, double[] fitness, List<Ranking> population, GenerationStatistics statistics) {
         int jobId = strategy.getConfiguration().getJobId();
         int done = 20 * generation / strategy.getConfiguration().getGenerations();
         double perc = Math.round(1000 * generation / (double) strategy.getConfiguration().getGenerations()) / 10f;
@@ -172,6 +184,15 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
         }
 
         String print = String.format("[%s] %.2f%% g: %d j: %d f: %s ds: %.2f%%", progress(done), perc, generation, jobId, Utils.printArray(fitness), storicalDiversity);
+        if (statistics != null) {
+            print += String.format(" fc: %.2f%%", 100 * statistics.getFitnessCacheHitRatio());
+            if (statistics.getAbortedEvaluations() > 0) {
+                print += " ab: " + statistics.getAbortedEvaluations();
+            }
+            if (statistics.getRejectedEvaluations() > 0) {
+                print += " rj: " + statistics.getRejectedEvaluations();
+            }
+        }
         synchronized (screen) {
             topTen = population.subList(0, Math.min(10, population.size()));
             screen.put(jobId, print);
@@ -198,7 +219,9 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
                 currentGeneration.add(solution);
             }
         }
-        results.addCharachterEvaluated(strategy.getContext().getCurrentDataSet().getNumberOfChars() * population.size());
+        long characterEvaluations = strategy.getContext().getCurrentDataSet().getNumberOfChars() * population.size();
+        results.addCharachterEvaluated(characterEvaluations);
+        jobCharacterEvaluations[jobId] += characterEvaluations;
 
         /* plots fitness, diversity, precision and recall over the training set */
         Objective trainingObjective = new PerformacesObjective();
@@ -258,6 +281,38 @@ public class CoolTextualExecutionListener implements ExecutionListener, Executio
 
     }
 
+    /**
+     * The job trace and the characters evaluated by the job, as JSON.
+     */
+    @Override
+    public byte[] saveJobState(RunStrategy strategy) {
+        int jobId = strategy.getConfiguration().getJobId();
+        JobState state = new JobState();
+        state.trace = results.getJobTrace(jobId);
+        state.characterEvaluations = jobCharacterEvaluations[jobId];
+        return jobStateGson().toJson(state).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void restoreJobState(RunStrategy strategy, byte[] state) {
+        int jobId = strategy.getConfiguration().getJobId();
+        JobState jobState = jobStateGson().fromJson(new String(state, StandardCharsets.UTF_8), JobState.class);
+        results.getJobEvolutionTraces().set(jobId, jobState.trace);
+        results.addCharachterEvaluated(jobState.characterEvaluations);
+        jobCharacterEvaluations[jobId] = jobState.characterEvaluations;
+    }
+
+    private static Gson jobStateGson() {
+        //the best encountered solution index starts from -Infinity, performances may be NaN
+        return new GsonBuilder().serializeSpecialFloatingPointValues().create();
+    }
+
+    private static class JobState {
+
+        private JobEvolutionTrace trace;
+        private long characterEvaluations;
+    }
+
     @Override
     public void evolutionFailed(RunStrategy strategy, TreeEvaluationException cause) {
         int jobId = strategy.getConfiguration().getJobId();
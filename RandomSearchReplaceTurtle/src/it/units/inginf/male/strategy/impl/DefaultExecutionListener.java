@@ -22,6 +22,7 @@ import it.units.inginf.male.objective.Ranking;
 import it.units.inginf.male.strategy.ExecutionListener;
 import it.units.inginf.male.strategy.ExecutionListenerFactory;
 import it.units.inginf.male.strategy.ExecutionStrategy;
+import it.units.inginf.male.strategy.GenerationStatistics;
 import it.units.inginf.male.strategy.RunStrategy;
 import it.units.inginf.male.tree.Node;
 import it.units.inginf.male.evaluators.TreeEvaluationException;
@@ -44,6 +45,16 @@ public class DefaultExecutionListener implements ExecutionListener,ExecutionList
         LOG.log(Level.INFO, "Job {0} Gen => {1} Fitness: {2}", new Object[]{jobId, generation, fitness});
     }
 
+    @Override
+    public void logGeneration(RunStrategy strategy, int generation, Node best, double[] fitness, List<Ranking> population, GenerationStatistics statistics) {
+        if (statistics == null) {
+            logGeneration(strategy, generation, best, fitness, population);
+            return;
+        }
+        int jobId = strategy.getConfiguration().getJobId();
+        LOG.log(Level.INFO, "Job {0} Gen => {1} Fitness: {2} ({3})", new Object[]{jobId, generation, fitness, statistics});
+    }
+
     private double getRatio(long cacheHit, long cacheMiss) {
         return cacheHit + cacheMiss == 0 ? 0 : cacheHit / ((double) cacheHit + cacheMiss);
     }
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.strategy.ExecutionListenerFactory;
+import it.units.inginf.male.strategy.MigratingStrategy;
+import it.units.inginf.male.strategy.MigrationChannel;
+import it.units.inginf.male.strategy.RunStrategy;
+import it.units.inginf.male.tree.Node;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Island model: each job is an island, running its own coevolutionary
+ * RunStrategy (a MigratingStrategy) on its own thread, with its own seed like
+ * the jobs of MultithreadStrategy. Every <code>migrationInterval</code>
+ * generations each island sends copies of the <code>migrationSize</code> best
+ * individuals of each population to its neighbours in the
+ * <code>migrationTopology</code> (ring, star, random) and adds the received
+ * ones to its next generation.
+ * Islands exchange individuals through lock-free mailboxes. With
+ * <code>synchronousMigration</code> (default) an island waits for the
+ * emigrants its neighbours send at the same generation, so a run only depends
+ * on the seeds; otherwise it takes the emigrants already received and never
+ * waits. Islands which stop early retire, their neighbours do not wait for
+ * them anymore.
+ */
+public class IslandModelStrategy extends MultithreadStrategy {
+
+    public static final String MIGRATION_INTERVAL_KEY = "migrationInterval";
+    public static final String MIGRATION_SIZE_KEY = "migrationSize";
+    public static final String MIGRATION_TOPOLOGY_KEY = "migrationTopology";
+    public static final String SYNCHRONOUS_MIGRATION_KEY = "synchronousMigration";
+    public static final int DEFAULT_MIGRATION_INTERVAL = 10;
+    public static final int DEFAULT_MIGRATION_SIZE = 5;
+
+    private int migrationInterval = DEFAULT_MIGRATION_INTERVAL;
+    private int migrationSize = DEFAULT_MIGRATION_SIZE;
+    private MigrationTopology topology = MigrationTopology.RING;
+    private boolean synchronous = true;
+    private long seed;
+    private Mailbox[] mailboxes;
+
+    @Override
+    public void execute(Configuration configuration, ExecutionListenerFactory listenerFactory) throws Exception {
+        Map<String, String> parameters = configuration.getStrategyParameters();
+        if (parameters.containsKey(MIGRATION_INTERVAL_KEY)) {
+            migrationInterval = Integer.parseInt(parameters.get(MIGRATION_INTERVAL_KEY));
+        }
+        if (parameters.containsKey(MIGRATION_SIZE_KEY)) {
+            migrationSize = Integer.parseInt(parameters.get(MIGRATION_SIZE_KEY));
+        }
+        if (parameters.containsKey(MIGRATION_TOPOLOGY_KEY)) {
+            topology = MigrationTopology.fromString(parameters.get(MIGRATION_TOPOLOGY_KEY));
+        }
+        if (parameters.containsKey(SYNCHRONOUS_MIGRATION_KEY)) {
+            synchronous = Boolean.parseBoolean(parameters.get(SYNCHRONOUS_MIGRATION_KEY));
+        }
+        Class<? extends RunStrategy> strategyClass = getStrategy(parameters);
+        if (strategyClass == null || !MigratingStrategy.class.isAssignableFrom(strategyClass)) {
+            throw new IllegalArgumentException("The islands need a MigratingStrategy, found: " + strategyClass);
+        }
+        seed = configuration.getInitialSeed();
+        mailboxes = new Mailbox[configuration.getJobs()];
+        for (int i = 0; i < mailboxes.length; i++) {
+            mailboxes[i] = new Mailbox();
+        }
+        super.execute(configuration, listenerFactory);
+    }
+
+    /**
+     * Islands can wait for each other, each one has its own thread.
+     */
+    @Override
+    protected int countThreads(Configuration configuration) {
+        return configuration.getJobs();
+    }
+
+    @Override
+    protected void prepareJob(RunStrategy job) {
+        ((MigratingStrategy) job).setMigrationChannel(new IslandChannel(job.getConfiguration().getJobId()));
+    }
+
+    private static final class Migration {
+
+        private final int source;
+        private final int generation;
+        //null when the source has retired
+        private final List<List<Node>> emigrants;
+
+        Migration(int source, int generation, List<List<Node>> emigrants) {
+            this.source = source;
+            this.generation = generation;
+            this.emigrants = emigrants;
+        }
+    }
+
+    private static final class Mailbox {
+
+        private final ConcurrentLinkedQueue<Migration> queue = new ConcurrentLinkedQueue<>();
+        private volatile Thread owner;
+
+        void post(Migration migration) {
+            queue.offer(migration);
+            Thread waiting = owner;
+            if (waiting != null) {
+                LockSupport.unpark(waiting);
+            }
+        }
+    }
+
+    private static List<List<Node>> copy(List<List<Node>> emigrants) {
+        List<List<Node>> copy = new ArrayList<>(emigrants.size());
+        for (List<Node> population : emigrants) {
+            List<Node> trees = new ArrayList<>(population.size());
+            for (Node tree : population) {
+                trees.add(tree.cloneTree());
+            }
+            copy.add(trees);
+        }
+        return copy;
+    }
+
+    private final class IslandChannel implements MigrationChannel {
+
+        private final int island;
+        //only accessed by the island thread
+        private final List<Migration> pending = new ArrayList<>();
+        private final Set<Integer> retired = new HashSet<>();
+
+        IslandChannel(int island) {
+            this.island = island;
+        }
+
+        @Override
+        public boolean isMigrationGeneration(int generation) {
+            return mailboxes.length > 1 && generation % migrationInterval == 0;
+        }
+
+        @Override
+        public int getMigrationSize() {
+            return migrationSize;
+        }
+
+        @Override
+        public List<List<Node>> migrate(int generation, List<List<Node>> emigrants) {
+            Mailbox mailbox = mailboxes[island];
+            mailbox.owner = Thread.currentThread();
+            int[] targets = topology.targets(island, mailboxes.length, generation, seed);
+            for (int t = 0; t < targets.length; t++) {
+                mailboxes[targets[t]].post(new Migration(island, generation, t == 0 ? emigrants : copy(emigrants)));
+            }
+            //a source posts its retirement after its last emigrants, the ones
+            //already pending from a retired source are still received
+            Set<Integer> waiting = new HashSet<>();
+            for (int source : topology.sources(island, mailboxes.length, generation, seed)) {
+                if (!retired.contains(source)) {
+                    waiting.add(source);
+                }
+            }
+            //sorted by source, the order of the arrivals does not matter
+            TreeMap<Integer, List<Migration>> received = new TreeMap<>();
+            while (true) {
+                for (Migration migration = mailbox.queue.poll(); migration != null; migration = mailbox.queue.poll()) {
+                    pending.add(migration);
+                }
+                for (Iterator<Migration> iterator = pending.iterator(); iterator.hasNext();) {
+                    Migration migration = iterator.next();
+                    if (migration.emigrants == null) {
+                        retired.add(migration.source);
+                        waiting.remove(migration.source);
+                        iterator.remove();
+                    } else if (synchronous ? migration.generation == generation && (waiting.remove(migration.source) || retired.contains(migration.source)) : migration.generation <= generation) {
+                        List<Migration> fromSource = received.get(migration.source);
+                        if (fromSource == null) {
+                            fromSource = new ArrayList<>();
+                            received.put(migration.source, fromSource);
+                        }
+                        fromSource.add(migration);
+                        iterator.remove();
+                    } else if (migration.generation < generation) {
+                        iterator.remove();
+                    }
+                }
+                if (!synchronous || waiting.isEmpty() || Thread.currentThread().isInterrupted()) {
+                    break;
+                }
+                LockSupport.parkNanos(this, 1000000L);
+            }
+            List<List<Node>> immigrants = new ArrayList<>(emigrants.size());
+            for (int p = 0; p < emigrants.size(); p++) {
+                List<Node> population = new ArrayList<>();
+                for (List<Migration> fromSource : received.values()) {
+                    for (Migration migration : fromSource) {
+                        population.addAll(migration.emigrants.get(p));
+                    }
+                }
+                immigrants.add(population);
+            }
+            return immigrants;
+        }
+
+        @Override
+        public void retire() {
+            for (int i = 0; i < mailboxes.length; i++) {
+                if (i != island) {
+                    mailboxes[i].post(new Migration(island, Integer.MAX_VALUE, null));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * How the islands of an IslandModelStrategy are connected:
+ * <ul>
+ * <li>RING: each island sends to the next one;</li>
+ * <li>STAR: the first island sends to all the others, which send to it;</li>
+ * <li>RANDOM: each island sends to the next one of a ring which is shuffled at
+ * every migration; the ring only depends on the seed and the generation, so
+ * all the islands agree on it.</li>
+ * </ul>
+ */
+public enum MigrationTopology {
+
+    RING, STAR, RANDOM;
+
+    public static MigrationTopology fromString(String topology) {
+        return valueOf(topology.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * @param island the sending island
+     * @param islands the number of islands
+     * @param generation the migration generation
+     * @param seed the seed of the experiment
+     * @return the islands which receive the emigrants of the island
+     */
+    public int[] targets(int island, int islands, int generation, long seed) {
+        if (islands < 2) {
+            return new int[0];
+        }
+        switch (this) {
+            case STAR:
+                if (island != 0) {
+                    return new int[]{0};
+                }
+                int[] leaves = new int[islands - 1];
+                for (int i = 1; i < islands; i++) {
+                    leaves[i - 1] = i;
+                }
+                return leaves;
+            case RANDOM:
+                List<Integer> ring = shuffledRing(islands, generation, seed);
+                return new int[]{ring.get((ring.indexOf(island) + 1) % islands)};
+            default:
+                return new int[]{(island + 1) % islands};
+        }
+    }
+
+    /**
+     * @return the islands which send their emigrants to the island
+     */
+    public int[] sources(int island, int islands, int generation, long seed) {
+        List<Integer> sources = new ArrayList<>();
+        for (int source = 0; source < islands; source++) {
+            for (int target : targets(source, islands, generation, seed)) {
+                if (target == island) {
+                    sources.add(source);
+                }
+            }
+        }
+        int[] result = new int[sources.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = sources.get(i);
+        }
+        return result;
+    }
+
+    private static List<Integer> shuffledRing(int islands, int generation, long seed) {
+        List<Integer> ring = new ArrayList<>(islands);
+        for (int i = 0; i < islands; i++) {
+            ring.add(i);
+        }
+        Collections.shuffle(ring, new Random(seed * 31 + generation));
+        return ring;
+    }
+}
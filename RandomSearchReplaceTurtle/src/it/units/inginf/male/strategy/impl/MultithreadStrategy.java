@@ -18,11 +18,16 @@
 package it.units.inginf.male.strategy.impl;
 
 import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.strategy.CheckpointStore;
 import it.units.inginf.male.strategy.ExecutionListener;
 import it.units.inginf.male.strategy.ExecutionListenerFactory;
+import it.units.inginf.male.strategy.ExperimentCoordinator;
 import it.units.inginf.male.strategy.RunStrategy;
 import it.units.inginf.male.evaluators.TreeEvaluationException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
@@ -32,6 +37,8 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
+ * Runs the jobs on a pool of threads. In resume mode, see CheckpointStore,
+ * the jobs are restored from their checkpoints before they are submitted.
  *
  * @author andrea
  */
@@ -43,8 +50,8 @@ public class MultithreadStrategy extends AbstractExecutionStrategy {
     private volatile Thread workingThread = null;
     private volatile boolean terminated = false;
 
-    private int countThreads(Map<String, String> parameters) {
-        String paramValue = parameters.get(THREADS_KEY);
+    protected int countThreads(Configuration configuration) {
+        String paramValue = configuration.getStrategyParameters().get(THREADS_KEY);
         int threads;
         try {
             threads = Integer.parseInt(paramValue);
@@ -60,21 +67,44 @@ public class MultithreadStrategy extends AbstractExecutionStrategy {
         workingThread = Thread.currentThread();
         listenerFactory.register(this);
         Map<String, String> parameters = configuration.getStrategyParameters();
-        int threads = countThreads(parameters);
+        int threads = countThreads(configuration);
         Class<? extends RunStrategy> strategyClass = getStrategy(parameters);
         executor = Executors.newFixedThreadPool(threads);
         ExecutorCompletionService<Void> completionService = new ExecutorCompletionService<Void>(executor);
         long initialSeed = configuration.getInitialSeed();
         int jobs = configuration.getJobs();
+        final List<Future<Void>> futures = new ArrayList<>(jobs);
+        CheckpointStore checkpoints = configuration.getCheckpoints();
         for (int i = 0; i < jobs; i++) {
             RunStrategy job = strategyClass.newInstance();
             Configuration jobConf = new Configuration(configuration);
             jobConf.setJobId(i);
             jobConf.setInitialSeed(initialSeed + i);
             job.setup(jobConf, listenerFactory.getNewListener());
-            completionService.submit(job);
+            prepareJob(job);
+            if (checkpoints.restore(job)) {
+                LOG.log(Level.INFO, "Job {0} resumed from its checkpoint", i);
+            }
+            futures.add(completionService.submit(job));
         }
         executor.shutdown();
+        //on an experiment stop the jobs still queued are cancelled, the running ones end at their next generation
+        ExperimentCoordinator coordinator = configuration.getCoordinator();
+        Runnable cancelQueued = () -> {
+            for (Future<Void> future : futures) {
+                future.cancel(false);
+            }
+        };
+        coordinator.addStopListener(cancelQueued);
+        try {
+            awaitJobs(completionService, jobs);
+        } finally {
+            coordinator.removeStopListener(cancelQueued);
+            checkpoints.flush();
+        }
+    }
+
+    private void awaitJobs(ExecutorCompletionService<Void> completionService, int jobs) {
         for (int i = 0; i < jobs; i++) {
             Future<Void> result = null;
             try {
@@ -88,6 +118,10 @@ public class MultithreadStrategy extends AbstractExecutionStrategy {
             }
             try {
                 result.get();
+            } catch (CancellationException x) {
+                //cancelled by an experiment stop before it started
+            } catch (InterruptedException x) {
+                return;
             } catch (ExecutionException x) {
                 if (x.getCause() instanceof TreeEvaluationException) {
                     TreeEvaluationException ex = (TreeEvaluationException) x.getCause();
@@ -102,6 +136,13 @@ public class MultithreadStrategy extends AbstractExecutionStrategy {
         }
     }
 
+    /**
+     * Called on each job after its setup, before it is submitted.
+     * @param job the job
+     */
+    protected void prepareJob(RunStrategy job) {
+    }
+
     @Override
     public void shutdown() {
         executor.shutdownNow();
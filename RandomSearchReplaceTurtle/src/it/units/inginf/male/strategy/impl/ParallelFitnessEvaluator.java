@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.objective.Objective;
+import it.units.inginf.male.tree.Node;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates the fitness of the individuals of a generation concurrently.
+ * The individuals are split in contiguous chunks and the fitness values are
+ * returned in the same order of the individuals, so the rankings built by the
+ * strategies do not depend on the number of threads.
+ * The workers only call Objective.prepare and Objective.fitness; evaluators,
+ * objectives and caches are thread safe and never use the Context random
+ * generator, which stays confined to the job thread.
+ * Pools are shared by the jobs with the same thread count.
+ */
+public class ParallelFitnessEvaluator {
+
+    public static final String EVALUATION_THREADS_KEY = "evaluationThreads";
+    private static final int CHUNKS_PER_THREAD = 4;
+    private static final Map<Integer, ForkJoinPool> pools = new HashMap<>();
+
+    private final int threads;
+    private final ForkJoinPool pool;
+
+    public ParallelFitnessEvaluator(int threads) {
+        this.threads = Math.max(1, threads);
+        this.pool = this.threads > 1 ? getPool(this.threads) : null;
+    }
+
+    /**
+     * Reads the thread count from the strategy parameters, when it is missing
+     * the evaluation is sequential.
+     * @param parameters the strategy parameters, may be null
+     * @return the evaluator
+     */
+    public static ParallelFitnessEvaluator fromParameters(Map<String, String> parameters) {
+        if (parameters != null && parameters.containsKey(EVALUATION_THREADS_KEY)) {
+            return new ParallelFitnessEvaluator(Integer.valueOf(parameters.get(EVALUATION_THREADS_KEY)));
+        }
+        return new ParallelFitnessEvaluator(1);
+    }
+
+    private static synchronized ForkJoinPool getPool(int threads) {
+        ForkJoinPool pool = pools.get(threads);
+        if (pool == null) {
+            pool = new ForkJoinPool(threads);
+            pools.put(threads, pool);
+        }
+        return pool;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * @param individuals the individuals to evaluate
+     * @param objective the objective, shared by the workers
+     * @return the fitness of each individual, in the same order
+     */
+    public double[][] evaluate(final List<? extends Node> individuals, final Objective objective) {
+        return evaluate(individuals, objective, null);
+    }
+
+    /**
+     * Each chunk of individuals is prepared as a batch by the objective before
+     * the single evaluations.
+     * @param individuals the individuals to evaluate
+     * @param objective the objective, shared by the workers
+     * @param context the context of the objective, when null the individuals
+     * are not prepared
+     * @return the fitness of each individual, in the same order
+     */
+    public double[][] evaluate(final List<? extends Node> individuals, final Objective objective, final Context context) {
+        final double[][] fitness = new double[individuals.size()][];
+        if (pool == null || individuals.size() < 2) {
+            if (context != null) {
+                objective.prepare(individuals, context);
+            }
+            for (int i = 0; i < individuals.size(); i++) {
+                fitness[i] = objective.fitness(individuals.get(i));
+            }
+            return fitness;
+        }
+        int chunks = Math.min(individuals.size(), threads * CHUNKS_PER_THREAD);
+        List<Callable<Void>> tasks = new ArrayList<>(chunks);
+        for (int c = 0; c < chunks; c++) {
+            final int from = (int) ((long) individuals.size() * c / chunks);
+            final int to = (int) ((long) individuals.size() * (c + 1) / chunks);
+            tasks.add(() -> {
+                if (context != null) {
+                    objective.prepare(individuals.subList(from, to), context);
+                }
+                for (int i = from; i < to; i++) {
+                    fitness[i] = objective.fitness(individuals.get(i));
+                }
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Fitness evaluation interrupted", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new IllegalStateException("Error during fitness evaluation", ex.getCause());
+        }
+        return fitness;
+    }
+}
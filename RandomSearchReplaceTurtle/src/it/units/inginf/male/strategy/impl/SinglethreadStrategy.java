@@ -19,6 +19,7 @@ package it.units.inginf.male.strategy.impl;
 
 import it.units.inginf.male.configuration.Configuration;
 import it.units.inginf.male.configuration.SubConfiguration;
+import it.units.inginf.male.strategy.CheckpointStore;
 import it.units.inginf.male.strategy.ExecutionListenerFactory;
 import it.units.inginf.male.strategy.RunStrategy;
 import it.units.inginf.male.evaluators.TreeEvaluationException;
@@ -40,18 +41,21 @@ public class SinglethreadStrategy extends AbstractExecutionStrategy {
         Map<String, String> parameters = configuration.getStrategyParameters();
         Class<? extends RunStrategy> strategyClass = getStrategy(parameters);
         long initialSeed = configuration.getInitialSeed();
-        for (int i = 0; i < configuration.getJobs() && !done; i++) {
+        CheckpointStore checkpoints = configuration.getCheckpoints();
+        for (int i = 0; i < configuration.getJobs() && !done && !configuration.getCoordinator().isStopRequested(); i++) {
             RunStrategy job = strategyClass.newInstance();
             Configuration jobConf = new Configuration(configuration);
             jobConf.setJobId(i);
             jobConf.setInitialSeed(initialSeed + i);
             job.setup(jobConf, listenerFactory.getNewListener());
+            checkpoints.restore(job);
             try {
                 job.call();
             } catch (TreeEvaluationException ev) {
                 job.getExecutionListener().evolutionFailed(job, ev);
             }
         }
+        checkpoints.flush();
     }
 
     @Override
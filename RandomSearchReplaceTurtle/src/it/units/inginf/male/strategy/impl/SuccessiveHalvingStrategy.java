@@ -0,0 +1,391 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.evaluators.TreeEvaluationException;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.objective.Objective;
+import it.units.inginf.male.objective.performance.PerformancesFactory;
+import it.units.inginf.male.strategy.ExecutionListener;
+import it.units.inginf.male.strategy.ExecutionListenerFactory;
+import it.units.inginf.male.strategy.ExperimentCoordinator;
+import it.units.inginf.male.strategy.RunStrategy;
+import it.units.inginf.male.strategy.SteppableStrategy;
+import it.units.inginf.male.tree.Node;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs the jobs in slices of <code>sliceGenerations</code> generations and
+ * gives the next slice to the job whose learning performance (distance error
+ * rate of its best on the learning examples) improves fastest, in the style of
+ * asynchronous successive halving.
+ * Jobs are compared at rungs, after <code>rungGenerations</code>,
+ * rungGenerations * <code>reductionFactor</code>, ... generations: a job
+ * reaching a rung goes on only when it is in the best 1/reductionFactor of the
+ * jobs which reached the same rung before it, otherwise it is paused. Paused
+ * jobs are resumed, best first, only when no other job is ready, so without a
+ * <code>timeBudget</code> (seconds, 0 by default) all the jobs run to their
+ * end and the Results are the same of MultithreadStrategy; when the budget is
+ * over the started jobs are completed with their current populations and the
+ * ones never started are left out of the results, as the cancelled ones.
+ * Any of the <code>threads</code> workers picks the next slice of any job, a
+ * job never runs on two workers at the same time. The jobs have to be
+ * SteppableStrategy.
+ */
+public class SuccessiveHalvingStrategy extends AbstractExecutionStrategy {
+
+    public static final String SLICE_GENERATIONS_KEY = "sliceGenerations";
+    public static final String RUNG_GENERATIONS_KEY = "rungGenerations";
+    public static final String REDUCTION_FACTOR_KEY = "reductionFactor";
+    public static final String TIME_BUDGET_KEY = "timeBudget";
+    public static final int DEFAULT_SLICE_GENERATIONS = 5;
+    public static final int DEFAULT_RUNG_GENERATIONS = 10;
+    public static final int DEFAULT_REDUCTION_FACTOR = 3;
+    private static final Logger LOG = Logger.getLogger(SuccessiveHalvingStrategy.class.getName());
+
+    private int sliceGenerations = DEFAULT_SLICE_GENERATIONS;
+    private int rungGenerations = DEFAULT_RUNG_GENERATIONS;
+    private int reductionFactor = DEFAULT_REDUCTION_FACTOR;
+    //System.nanoTime() may be negative, no sentinel value can stand for no deadline
+    private boolean hasDeadline = false;
+    private long deadline;
+    private ExperimentCoordinator coordinator;
+    private ExecutorService executor;
+    private volatile boolean terminated = false;
+    private volatile Thread workingThread = null;
+
+    //guarded by this
+    private final PriorityQueue<ScheduledJob> ready = new PriorityQueue<>(new ReadyOrder());
+    private final List<ScheduledJob> paused = new ArrayList<>();
+    private final List<List<Double>> rungScores = new ArrayList<>();
+    private int running = 0;
+
+    @Override
+    public void execute(Configuration configuration, ExecutionListenerFactory listenerFactory) throws Exception {
+        workingThread = Thread.currentThread();
+        listenerFactory.register(this);
+        Map<String, String> parameters = configuration.getStrategyParameters();
+        readParameters(parameters);
+        Class<? extends RunStrategy> strategyClass = getStrategy(parameters);
+        if (strategyClass == null || !SteppableStrategy.class.isAssignableFrom(strategyClass)) {
+            throw new IllegalArgumentException("The scheduled jobs need a SteppableStrategy, found: " + strategyClass);
+        }
+        long initialSeed = configuration.getInitialSeed();
+        List<ScheduledJob> jobs = new ArrayList<>(configuration.getJobs());
+        for (int i = 0; i < configuration.getJobs(); i++) {
+            SteppableStrategy job = (SteppableStrategy) strategyClass.newInstance();
+            Configuration jobConf = new Configuration(configuration);
+            jobConf.setJobId(i);
+            jobConf.setInitialSeed(initialSeed + i);
+            job.setup(jobConf, listenerFactory.getNewListener());
+            jobs.add(new ScheduledJob(job, i, PerformancesFactory.buildObjective(Context.EvaluationPhases.LEARNING, jobConf)));
+        }
+        schedule(jobs, configuration.getCoordinator());
+
+        int threads = countThreads(parameters);
+        executor = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            executor.submit(this::work);
+        }
+        executor.shutdown();
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                if (terminated) {
+                    return;
+                }
+            }
+        } catch (InterruptedException ex) {
+            //someone said me to stop
+            return;
+        }
+        //out of time or stopped: the started jobs end with their current populations
+        for (ScheduledJob job : jobs) {
+            if (job.started && !job.finished) {
+                complete(job);
+            }
+        }
+    }
+
+    private static int countThreads(Map<String, String> parameters) {
+        try {
+            return Math.max(1, Integer.parseInt(parameters.get(MultithreadStrategy.THREADS_KEY)));
+        } catch (NumberFormatException x) {
+            int threads = Runtime.getRuntime().availableProcessors();
+            LOG.log(Level.WARNING, "Falling back to default threads count: {0}", threads);
+            return threads;
+        }
+    }
+
+    void readParameters(Map<String, String> parameters) {
+        if (parameters.containsKey(SLICE_GENERATIONS_KEY)) {
+            sliceGenerations = Math.max(1, Integer.parseInt(parameters.get(SLICE_GENERATIONS_KEY)));
+        }
+        if (parameters.containsKey(RUNG_GENERATIONS_KEY)) {
+            rungGenerations = Math.max(1, Integer.parseInt(parameters.get(RUNG_GENERATIONS_KEY)));
+        }
+        if (parameters.containsKey(REDUCTION_FACTOR_KEY)) {
+            reductionFactor = Math.max(2, Integer.parseInt(parameters.get(REDUCTION_FACTOR_KEY)));
+        }
+        if (parameters.containsKey(TIME_BUDGET_KEY)) {
+            double seconds = Double.parseDouble(parameters.get(TIME_BUDGET_KEY));
+            if (seconds > 0) {
+                deadline = System.nanoTime() + (long) (seconds * 1e9);
+                hasDeadline = true;
+            }
+        }
+    }
+
+    /**
+     * Makes the jobs ready to be picked by the workers.
+     * @param jobs the jobs, in seed order
+     * @param coordinator the coordinator of the experiment
+     */
+    synchronized void schedule(List<ScheduledJob> jobs, ExperimentCoordinator coordinator) {
+        this.coordinator = coordinator;
+        ready.addAll(jobs);
+    }
+
+    /**
+     * The loop of a worker, it returns when there is nothing left to run.
+     */
+    void work() {
+        for (ScheduledJob job = next(); job != null; job = next()) {
+            boolean more;
+            try {
+                more = runSlice(job);
+            } catch (TreeEvaluationException ex) {
+                fail(job, ex);
+                more = false;
+            }
+            if (!more) {
+                complete(job);
+            }
+            reschedule(job, more);
+        }
+    }
+
+    /**
+     * @return the next job to run, null when there is nothing left to run or
+     * the time is over
+     */
+    private synchronized ScheduledJob next() {
+        while (true) {
+            if (terminated || coordinator.isStopRequested() || isOutOfTime() || Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            ScheduledJob job = ready.poll();
+            if (job == null && !paused.isEmpty()) {
+                //nothing promising is ready, the best paused job goes on rather than leaving the worker idle
+                job = paused.get(0);
+                for (ScheduledJob candidate : paused) {
+                    if (candidate.score < job.score) {
+                        job = candidate;
+                    }
+                }
+                paused.remove(job);
+            }
+            if (job != null) {
+                running++;
+                return job;
+            }
+            if (running == 0) {
+                return null;
+            }
+            try {
+                long timeout = hasDeadline ? TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()) : 1000;
+                wait(Math.max(1, Math.min(timeout, 1000)));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+    }
+
+    private boolean isOutOfTime() {
+        return hasDeadline && System.nanoTime() - deadline >= 0;
+    }
+
+    /**
+     * Runs the job up to the end of the slice or to its next rung.
+     * @return false when the job evolution is over
+     */
+    private boolean runSlice(ScheduledJob job) throws TreeEvaluationException {
+        if (!job.started) {
+            job.strategy.start();
+            job.started = true;
+            job.score = score(job);
+        }
+        int from = job.strategy.getGeneration();
+        int to = Math.min(from + sliceGenerations, rung(job.rung));
+        boolean more = true;
+        while (more && job.strategy.getGeneration() < to) {
+            more = job.strategy.step();
+        }
+        double previous = job.score;
+        job.score = score(job);
+        int generations = Math.max(1, job.strategy.getGeneration() - from);
+        job.rate = (previous - job.score) / generations;
+        return more;
+    }
+
+    private double score(ScheduledJob job) {
+        Node best = job.strategy.getBest();
+        if (best == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double score = job.learningObjective.fitness(best)[0];
+        return Double.isNaN(score) ? Double.POSITIVE_INFINITY : score;
+    }
+
+    /**
+     * @return the generations a job has to reach for the rung
+     */
+    int rung(int rung) {
+        long generations = rungGenerations;
+        for (int r = 0; r < rung && generations < Integer.MAX_VALUE; r++) {
+            generations *= reductionFactor;
+        }
+        return (int) Math.min(generations, Integer.MAX_VALUE);
+    }
+
+    private synchronized void reschedule(ScheduledJob job, boolean more) {
+        running--;
+        if (more) {
+            if (job.strategy.getGeneration() >= rung(job.rung)) {
+                if (promote(job.rung, job.score)) {
+                    ready.add(job);
+                } else {
+                    paused.add(job);
+                }
+                job.rung++;
+            } else {
+                ready.add(job);
+            }
+        }
+        notifyAll();
+    }
+
+    /**
+     * Records the score of a job which reached a rung.
+     * @return true when the job is in the best 1/reductionFactor of the jobs
+     * which reached the rung so far, itself included
+     */
+    boolean promote(int rung, double score) {
+        while (rungScores.size() <= rung) {
+            rungScores.add(new ArrayList<>());
+        }
+        List<Double> scores = rungScores.get(rung);
+        scores.add(score);
+        int better = 0;
+        for (double other : scores) {
+            if (other < score) {
+                better++;
+            }
+        }
+        return better < (scores.size() + reductionFactor - 1) / reductionFactor;
+    }
+
+    private void complete(ScheduledJob job) {
+        job.finished = true;
+        try {
+            job.strategy.finish();
+        } catch (TreeEvaluationException ex) {
+            fail(job, ex);
+        }
+    }
+
+    private void fail(ScheduledJob job, TreeEvaluationException ex) {
+        job.finished = true;
+        LOG.log(Level.SEVERE, "Job " + job.jobId + " failed with exception", ex.getCause());
+        ExecutionListener listener = job.strategy.getExecutionListener();
+        if (listener != null) {
+            listener.evolutionFailed(job.strategy, ex);
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        terminated = true;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (workingThread != null) {
+            workingThread.interrupt();
+        }
+    }
+
+    static final class ScheduledJob {
+
+        private final SteppableStrategy strategy;
+        private final int jobId;
+        private final Objective learningObjective;
+        private volatile boolean started = false;
+        private volatile boolean finished = false;
+        //distance error rate of the best on the learning examples
+        private double score = Double.POSITIVE_INFINITY;
+        //score improvement per generation in the last slice
+        private double rate = 0;
+        //the next rung the job has to reach
+        private int rung = 0;
+
+        /**
+         * @param learningObjective gives the score of the job, the first
+         * fitness of its best
+         */
+        ScheduledJob(SteppableStrategy strategy, int jobId, Objective learningObjective) {
+            this.strategy = strategy;
+            this.jobId = jobId;
+            this.learningObjective = learningObjective;
+        }
+    }
+
+    /**
+     * Jobs never started first, in seed order, then the fastest improving,
+     * then the best.
+     */
+    private static final class ReadyOrder implements Comparator<ScheduledJob> {
+
+        @Override
+        public int compare(ScheduledJob a, ScheduledJob b) {
+            if (a.started != b.started) {
+                return a.started ? 1 : -1;
+            }
+            if (a.started) {
+                int compare = Double.compare(b.rate, a.rate);
+                if (compare != 0) {
+                    return compare;
+                }
+                compare = Double.compare(a.score, b.score);
+                if (compare != 0) {
+                    return compare;
+                }
+            }
+            return Integer.compare(a.jobId, b.jobId);
+        }
+    }
+}
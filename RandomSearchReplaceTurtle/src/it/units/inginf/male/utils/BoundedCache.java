@@ -0,0 +1,241 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.utils;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent cache with a byte budget, shared by the cached evaluators and
+ * objectives. Keys are held strongly, entries only go away when the budget is
+ * exceeded: the least recently used entries are evicted first.
+ * The cache is split into lock-striped segments, each segment owns an equal
+ * share of the budget and keeps an exact count of the bytes of its entries as
+ * computed by the provided Weigher; this way the threads evaluating different
+ * individuals seldom contend on the same monitor and the size in bytes is
+ * known without walking the entries.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class BoundedCache<K, V> implements CacheInterface {
+
+    public static final String CACHE_SIZE_BYTES_KEY = "cacheSizeBytes";
+    private static final int SEGMENTS = 16;
+
+    /**
+     * Estimates the memory retained by a cache entry, key included.
+     * @param <K>
+     * @param <V>
+     */
+    public interface Weigher<K, V> {
+
+        long weigh(K key, V value);
+    }
+
+    private final Segment<K, V>[] segments;
+    private final Weigher<K, V> weigher;
+    private final long maximumBytes;
+    private final AtomicLong hit = new AtomicLong(0);
+    private final AtomicLong miss = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    @SuppressWarnings("unchecked")
+    public BoundedCache(long maximumBytes, Weigher<K, V> weigher) {
+        if (maximumBytes <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maximumBytes);
+        }
+        this.maximumBytes = maximumBytes;
+        this.weigher = weigher;
+        this.segments = new Segment[SEGMENTS];
+        long segmentBytes = Math.max(1, maximumBytes / SEGMENTS);
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment<>(segmentBytes);
+        }
+    }
+
+    /**
+     * Reads the cache budget from the configuration parameters, when the
+     * <code>cacheSizeBytes</code> key is missing the default is returned.
+     * @param parameters the component parameters, may be null
+     * @param defaultBytes
+     * @return the budget in bytes
+     */
+    public static long readSizeBytes(Map<String, String> parameters, long defaultBytes) {
+        if (parameters != null && parameters.containsKey(CACHE_SIZE_BYTES_KEY)) {
+            return Long.parseLong(parameters.get(CACHE_SIZE_BYTES_KEY));
+        }
+        return defaultBytes;
+    }
+
+    /**
+     * Estimated footprint of a String: object header, fields and char array.
+     * @param string
+     * @return the size in bytes
+     */
+    public static long sizeOf(String string) {
+        return 40 + 2L * string.length();
+    }
+
+    /**
+     * Returns the cached value and updates the hit/miss statistics.
+     * @param key
+     * @return the value or null when it is not in cache
+     */
+    public V get(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        CacheEntry<V> entry;
+        synchronized (segment) {
+            entry = segment.map.get(key);
+        }
+        if (entry != null) {
+            hit.incrementAndGet();
+            return entry.value;
+        }
+        miss.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Checks the presence of a key without updating the hit/miss statistics.
+     * @param key
+     * @return true when the key is in cache
+     */
+    public boolean containsKey(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            return segment.map.containsKey(key);
+        }
+    }
+
+    /**
+     * Stores the value, when the key is already in cache the older value is
+     * kept. Values bigger than a segment budget are not stored at all.
+     * @param key
+     * @param value
+     */
+    public void put(K key, V value) {
+        long weight = weigher.weigh(key, value);
+        Segment<K, V> segment = segmentFor(key);
+        if (weight > segment.maximumBytes) {
+            evictions.incrementAndGet();
+            return;
+        }
+        synchronized (segment) {
+            if (segment.map.containsKey(key)) {
+                return;
+            }
+            segment.map.put(key, new CacheEntry<>(value, weight));
+            segment.bytes += weight;
+            Iterator<CacheEntry<V>> iterator = segment.map.values().iterator();
+            while (segment.bytes > segment.maximumBytes && iterator.hasNext()) {
+                CacheEntry<V> eldest = iterator.next();
+                iterator.remove();
+                segment.bytes -= eldest.weight;
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (SEGMENTS - 1)];
+    }
+
+    public void clear() {
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                segment.map.clear();
+                segment.bytes = 0;
+            }
+        }
+    }
+
+    public long getMaximumBytes() {
+        return maximumBytes;
+    }
+
+    public long getHits() {
+        return hit.get();
+    }
+
+    public long getMisses() {
+        return miss.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public double getRatio() {
+        return (double) hit.get() / (hit.get() + miss.get());
+    }
+
+    @Override
+    public long getCacheSizeBytes() {
+        long cacheSize = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                cacheSize += segment.bytes;
+            }
+        }
+        return cacheSize;
+    }
+
+    @Override
+    public int getCacheSize() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.map.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Object getCache() {
+        return segments;
+    }
+
+    private static class CacheEntry<V> {
+
+        private final V value;
+        private final long weight;
+
+        CacheEntry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private static class Segment<K, V> {
+
+        private final LinkedHashMap<K, CacheEntry<V>> map = new LinkedHashMap<>(16, 0.75f, true);
+        private final long maximumBytes;
+        private long bytes = 0;
+
+        Segment(long maximumBytes) {
+            this.maximumBytes = maximumBytes;
+        }
+    }
+}
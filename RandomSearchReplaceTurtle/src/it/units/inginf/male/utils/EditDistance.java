@@ -0,0 +1,300 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.utils;
+
+import java.util.Arrays;
+
+/**
+ * Levenshtein distance kernel used by the objectives.
+ * The common prefix and suffix are stripped, then the distance is computed
+ * with the bit-parallel algorithm by Myers (blocks of 64 pattern chars, as
+ * extended by Hyyr&ouml;), or with a diagonal band of width 2*bound+1 (Ukkonen)
+ * when the bound is small compared to the strings. Buffers are reused per thread.
+ * With a bound the computation stops as soon as the distance is known to
+ * be greater than the bound.
+ */
+public final class EditDistance {
+
+    private static final int WORD_SIZE = 64;
+    private static final long HIGH_BIT = 1L << (WORD_SIZE - 1);
+    private static final ThreadLocal<Buffers> BUFFERS = new ThreadLocal<Buffers>() {
+        @Override
+        protected Buffers initialValue() {
+            return new Buffers();
+        }
+    };
+
+    private EditDistance() {
+    }
+
+    /**
+     * @param s the first string
+     * @param t the second string
+     * @return the Levenshtein distance between s and t
+     */
+    public static int distance(CharSequence s, CharSequence t) {
+        return distance(s, t, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param s the first string
+     * @param t the second string
+     * @param bound the maximum distance of interest
+     * @return the Levenshtein distance between s and t when it is not greater
+     * than bound, otherwise bound + 1
+     */
+    public static int distance(CharSequence s, CharSequence t, int bound) {
+        return distance(s, 0, s.length(), t, 0, t.length(), bound);
+    }
+
+    /**
+     * Distance between the regions [sStart, sEnd) of s and [tStart, tEnd) of t.
+     * @param s the first string
+     * @param sStart the start of the region of s, inclusive
+     * @param sEnd the end of the region of s, exclusive
+     * @param t the second string
+     * @param tStart the start of the region of t, inclusive
+     * @param tEnd the end of the region of t, exclusive
+     * @param bound the maximum distance of interest
+     * @return the Levenshtein distance between the two regions when it is not
+     * greater than bound, otherwise bound + 1
+     */
+    public static int distance(CharSequence s, int sStart, int sEnd, CharSequence t, int tStart, int tEnd, int bound) {
+        while (sStart < sEnd && tStart < tEnd && s.charAt(sStart) == t.charAt(tStart)) {
+            sStart++;
+            tStart++;
+        }
+        while (sEnd > sStart && tEnd > tStart && s.charAt(sEnd - 1) == t.charAt(tEnd - 1)) {
+            sEnd--;
+            tEnd--;
+        }
+        int n = sEnd - sStart;
+        int m = tEnd - tStart;
+        if (Math.abs(n - m) > bound) {
+            return exceeded(bound);
+        }
+        if (n == 0 || m == 0) {
+            return Math.max(n, m);
+        }
+        //the shorter string is the pattern, the longer one the text
+        if (n < m) {
+            return compute(s, sStart, n, t, tStart, m, bound);
+        }
+        return compute(t, tStart, m, s, sStart, n, bound);
+    }
+
+    private static int exceeded(int bound) {
+        return bound == Integer.MAX_VALUE ? bound : bound + 1;
+    }
+
+    private static int compute(CharSequence pattern, int patternStart, int m, CharSequence text, int textStart, int n, int bound) {
+        Buffers buffers = BUFFERS.get();
+        int blocks = (m + WORD_SIZE - 1) / WORD_SIZE;
+        if (blocks > 1 && bound < Integer.MAX_VALUE && 2L * bound + 1 < 4L * blocks) {
+            return banded(pattern, patternStart, m, text, textStart, n, bound, buffers);
+        }
+        int sigma = buffers.buildPeq(pattern, patternStart, m, blocks);
+        try {
+            if (blocks == 1) {
+                return myers(text, textStart, n, m, bound, buffers);
+            }
+            return blockMyers(text, textStart, n, m, blocks, bound, buffers);
+        } finally {
+            buffers.clearPeq(sigma);
+        }
+    }
+
+    private static int myers(CharSequence text, int textStart, int n, int m, int bound, Buffers buffers) {
+        int[] charIndex = buffers.charIndex;
+        long[] peq = buffers.peq;
+        long last = 1L << (m - 1);
+        long pv = -1L;
+        long mv = 0;
+        int score = m;
+        for (int j = 0; j < n; j++) {
+            int index = charIndex[text.charAt(textStart + j)];
+            long eq = index == 0 ? 0 : peq[index - 1];
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+            ph = (ph << 1) | 1;
+            mh <<= 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+            if (score - (n - 1 - j) > bound) {
+                return exceeded(bound);
+            }
+        }
+        return score;
+    }
+
+    private static int blockMyers(CharSequence text, int textStart, int n, int m, int blocks, int bound, Buffers buffers) {
+        int[] charIndex = buffers.charIndex;
+        long[] peq = buffers.peq;
+        long[] pvs = buffers.words(blocks);
+        long[] mvs = buffers.mvs;
+        for (int b = 0; b < blocks; b++) {
+            pvs[b] = -1L;
+            mvs[b] = 0;
+        }
+        long last = 1L << ((m - 1) % WORD_SIZE);
+        int score = m;
+        for (int j = 0; j < n; j++) {
+            int index = charIndex[text.charAt(textStart + j)];
+            int base = (index - 1) * blocks;
+            int hin = 1;
+            for (int b = 0; b < blocks; b++) {
+                long eq = index == 0 ? 0 : peq[base + b];
+                long pv = pvs[b];
+                long mv = mvs[b];
+                long hinIsNegative = hin < 0 ? 1 : 0;
+                long xv = eq | mv;
+                eq |= hinIsNegative;
+                long xh = (((eq & pv) + pv) ^ pv) | eq;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+                long outBit = b == blocks - 1 ? last : HIGH_BIT;
+                int hout = (ph & outBit) != 0 ? 1 : ((mh & outBit) != 0 ? -1 : 0);
+                ph <<= 1;
+                mh = (mh << 1) | hinIsNegative;
+                if (hin > 0) {
+                    ph |= 1;
+                }
+                pvs[b] = mh | ~(xv | ph);
+                mvs[b] = ph & xv;
+                hin = hout;
+            }
+            score += hin;
+            if (score - (n - 1 - j) > bound) {
+                return exceeded(bound);
+            }
+        }
+        return score;
+    }
+
+    private static int banded(CharSequence pattern, int patternStart, int m, CharSequence text, int textStart, int n, int bound, Buffers buffers) {
+        int infinity = bound + 1;
+        int[] previous = buffers.rows(m + 1);
+        int[] current = buffers.current;
+        for (int j = 0; j <= m; j++) {
+            previous[j] = j <= bound ? j : infinity;
+        }
+        for (int i = 1; i <= n; i++) {
+            int low = Math.max(1, i - bound);
+            int high = Math.min(m, i + bound);
+            current[low - 1] = low == 1 && i <= bound ? i : infinity;
+            int rowMinimum = current[low - 1];
+            char c = text.charAt(textStart + i - 1);
+            for (int j = low; j <= high; j++) {
+                int value = previous[j - 1] + (c == pattern.charAt(patternStart + j - 1) ? 0 : 1);
+                value = Math.min(value, previous[j] + 1);
+                value = Math.min(value, current[j - 1] + 1);
+                if (value > infinity) {
+                    value = infinity;
+                }
+                current[j] = value;
+                if (value < rowMinimum) {
+                    rowMinimum = value;
+                }
+            }
+            if (high < m) {
+                current[high + 1] = infinity;
+            }
+            if (rowMinimum > bound) {
+                return infinity;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return Math.min(previous[m], infinity);
+    }
+
+    private static class Buffers {
+
+        //index + 1 in the pattern alphabet of each char, 0 when the char is not in the pattern
+        private final int[] charIndex = new int[Character.MAX_VALUE + 1];
+        private char[] alphabet = new char[WORD_SIZE];
+        private long[] peq = new long[WORD_SIZE];
+        private long[] pvs = new long[4];
+        private long[] mvs = new long[4];
+        private int[] previous = new int[WORD_SIZE];
+        private int[] current = new int[WORD_SIZE];
+
+        /**
+         * Builds the match bit-vectors of the pattern, one row of blocks words
+         * for each distinct char: the table grows with the pattern alphabet,
+         * not with the pattern length.
+         * @return the size of the pattern alphabet
+         */
+        int buildPeq(CharSequence pattern, int start, int m, int blocks) {
+            int maxSigma = Math.min(m, Character.MAX_VALUE + 1);
+            if (alphabet.length < maxSigma) {
+                alphabet = new char[maxSigma];
+            }
+            int sigma = 0;
+            for (int i = 0; i < m; i++) {
+                char c = pattern.charAt(start + i);
+                if (charIndex[c] == 0) {
+                    alphabet[sigma] = c;
+                    sigma++;
+                    charIndex[c] = sigma;
+                }
+            }
+            int size = sigma * blocks;
+            if (peq.length < size) {
+                peq = new long[size];
+            } else {
+                Arrays.fill(peq, 0, size, 0);
+            }
+            for (int i = 0; i < m; i++) {
+                int index = charIndex[pattern.charAt(start + i)];
+                peq[(index - 1) * blocks + i / WORD_SIZE] |= 1L << (i % WORD_SIZE);
+            }
+            return sigma;
+        }
+
+        void clearPeq(int sigma) {
+            for (int i = 0; i < sigma; i++) {
+                charIndex[alphabet[i]] = 0;
+            }
+        }
+
+        long[] words(int blocks) {
+            if (pvs.length < blocks) {
+                pvs = new long[blocks];
+                mvs = new long[blocks];
+            }
+            return pvs;
+        }
+
+        int[] rows(int size) {
+            if (previous.length < size) {
+                previous = new int[size];
+                current = new int[size];
+            }
+            return previous;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pareto sorting of a fitness matrix, one row per individual, all the
+ * objectives are minimized. An individual dominates another when it is not
+ * worse in any objective and it is better in at least one; individuals with
+ * the same fitness do not dominate each other.
+ * The fronts are computed with the fast non-dominated sort (Deb et al.): each
+ * pair is compared once and the fronts are peeled by decrementing the
+ * domination counters, instead of searching the first front of the remaining
+ * individuals over and over.
+ */
+public class NonDominatedSorting {
+
+    private NonDominatedSorting() {
+    }
+
+    /**
+     * @param a the fitness of the first individual
+     * @param b the fitness of the second individual
+     * @return -1 when a dominates b, 1 when b dominates a, 0 otherwise
+     */
+    public static int compare(double[] a, double[] b) {
+        boolean aBetter = false;
+        boolean bBetter = false;
+        for (int k = 0; k < a.length; k++) {
+            if (a[k] < b[k]) {
+                aBetter = true;
+            } else if (a[k] > b[k]) {
+                bBetter = true;
+            }
+            if (aBetter && bBetter) {
+                return 0;
+            }
+        }
+        if (aBetter) {
+            return -1;
+        }
+        return bBetter ? 1 : 0;
+    }
+
+    /**
+     * @param fitness the fitness matrix
+     * @return the indexes of the non dominated rows, in ascending order
+     */
+    public static int[] firstFront(double[][] fitness) {
+        int[] front = new int[fitness.length];
+        int size = 0;
+        for (int i = 0; i < fitness.length; i++) {
+            boolean dominated = false;
+            for (int j = 0; j < fitness.length && !dominated; j++) {
+                dominated = j != i && compare(fitness[j], fitness[i]) < 0;
+            }
+            if (!dominated) {
+                front[size++] = i;
+            }
+        }
+        return Arrays.copyOf(front, size);
+    }
+
+    /**
+     * Sorts all the rows in Pareto fronts.
+     * @param fitness the fitness matrix
+     * @return the fronts, the first one is the non dominated one; the indexes of
+     * a front are in ascending order
+     */
+    public static List<int[]> fronts(double[][] fitness) {
+        int objectives = fitness.length == 0 ? 0 : fitness[0].length;
+        double[] flat = new double[fitness.length * objectives];
+        for (int i = 0; i < fitness.length; i++) {
+            System.arraycopy(fitness[i], 0, flat, i * objectives, objectives);
+        }
+        return fronts(flat, fitness.length, objectives);
+    }
+
+    /**
+     * Sorts all the rows of a row-major fitness matrix in Pareto fronts.
+     * @param fitness the fitness values, objectives values for each row
+     * @param size the number of rows
+     * @param objectives the number of objectives
+     * @return the fronts, the first one is the non dominated one; the indexes of
+     * a front are in ascending order
+     */
+    public static List<int[]> fronts(double[] fitness, int size, int objectives) {
+        int n = size;
+        int[] dominationCount = new int[n];
+        int[][] dominated = new int[n][];
+        int[] dominatedSize = new int[n];
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                int relation = compare(fitness, i * objectives, j * objectives, objectives);
+                if (relation < 0) {
+                    append(dominated, dominatedSize, i, j);
+                    dominationCount[j]++;
+                } else if (relation > 0) {
+                    append(dominated, dominatedSize, j, i);
+                    dominationCount[i]++;
+                }
+            }
+        }
+
+        List<int[]> fronts = new ArrayList<>();
+        int[] front = new int[n];
+        int frontSize = 0;
+        for (int i = 0; i < n; i++) {
+            if (dominationCount[i] == 0) {
+                front[frontSize++] = i;
+            }
+        }
+        int[] next = new int[n];
+        while (frontSize > 0) {
+            fronts.add(Arrays.copyOf(front, frontSize));
+            int nextSize = 0;
+            for (int f = 0; f < frontSize; f++) {
+                int p = front[f];
+                for (int d = 0; d < dominatedSize[p]; d++) {
+                    int q = dominated[p][d];
+                    if (--dominationCount[q] == 0) {
+                        next[nextSize++] = q;
+                    }
+                }
+            }
+            Arrays.sort(next, 0, nextSize);
+            int[] swap = front;
+            front = next;
+            next = swap;
+            frontSize = nextSize;
+        }
+        return fronts;
+    }
+
+    private static int compare(double[] fitness, int a, int b, int objectives) {
+        boolean aBetter = false;
+        boolean bBetter = false;
+        for (int k = 0; k < objectives; k++) {
+            if (fitness[a + k] < fitness[b + k]) {
+                aBetter = true;
+            } else if (fitness[a + k] > fitness[b + k]) {
+                bBetter = true;
+            }
+            if (aBetter && bBetter) {
+                return 0;
+            }
+        }
+        if (aBetter) {
+            return -1;
+        }
+        return bBetter ? 1 : 0;
+    }
+
+    private static void append(int[][] lists, int[] sizes, int list, int value) {
+        int[] values = lists[list];
+        if (values == null) {
+            values = new int[8];
+            lists[list] = values;
+        } else if (sizes[list] == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+            lists[list] = values;
+        }
+        values[sizes[list]++] = value;
+    }
+
+    /**
+     * Crowding distance (NSGA-II) of the individuals of a front: the sum over
+     * the objectives of the normalized distance between the two neighbours.
+     * The extremes of each objective have an infinite distance.
+     * @param fitness the fitness matrix
+     * @param front the row indexes of the front
+     * @return the distances, in the same order of front
+     */
+    public static double[] crowdingDistance(double[][] fitness, int[] front) {
+        double[] distance = new double[front.length];
+        if (front.length == 0) {
+            return distance;
+        }
+        int objectives = fitness[front[0]].length;
+        Integer[] order = new Integer[front.length];
+        for (int k = 0; k < objectives; k++) {
+            final int objective = k;
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (o1, o2) -> Double.compare(fitness[front[o1]][objective], fitness[front[o2]][objective]));
+            double min = fitness[front[order[0]]][k];
+            double max = fitness[front[order[order.length - 1]]][k];
+            distance[order[0]] = Double.POSITIVE_INFINITY;
+            distance[order[order.length - 1]] = Double.POSITIVE_INFINITY;
+            if (!(max - min > 0) || Double.isInfinite(max - min)) {
+                continue;
+            }
+            for (int i = 1; i < order.length - 1; i++) {
+                double delta = fitness[front[order[i + 1]]][k] - fitness[front[order[i - 1]]][k];
+                distance[order[i]] += delta / (max - min);
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.utils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Bounded cache of compiled regex Patterns, keyed by the regex text.
+ * The same search regex is paired with many replacement expressions and elites
+ * survive across generations, so compiled patterns are shared by all the
+ * ReplaceEvaluator implementations.
+ * Entries are split into lock-striped segments, each one evicts its least
+ * recently used pattern when full. Patterns are immutable and thread safe, the
+ * Matchers are not and have to be created by the callers.
+ */
+public class PatternCache implements CacheInterface {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 10000;
+    private static final int SEGMENTS = 16;
+    private static final PatternCache instance = new PatternCache(DEFAULT_MAXIMUM_SIZE);
+
+    private final Segment[] segments;
+    private final AtomicLong hit = new AtomicLong(0);
+    private final AtomicLong miss = new AtomicLong(0);
+    private final AtomicLong evictions = new AtomicLong(0);
+
+    /**
+     * Returns the cache shared by the evaluators that have not been configured
+     * with a dedicated one.
+     * @return the shared instance
+     */
+    public static PatternCache getInstance() {
+        return instance;
+    }
+
+    public PatternCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Pattern cache size must be positive: " + maximumSize);
+        }
+        int segmentSize = Math.max(1, (maximumSize + SEGMENTS - 1) / SEGMENTS);
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            this.segments[i] = new Segment(segmentSize);
+        }
+    }
+
+    /**
+     * Returns the compiled version of regex, compiling it only when it is not
+     * already in cache. Patterns with syntax errors are not cached.
+     * @param regex the regex text
+     * @return the compiled Pattern
+     * @throws PatternSyntaxException when regex is not a valid Java regex
+     */
+    public Pattern compile(String regex) throws PatternSyntaxException {
+        Segment segment = segmentFor(regex);
+        Pattern pattern;
+        synchronized (segment) {
+            pattern = segment.get(regex);
+        }
+        if (pattern != null) {
+            hit.incrementAndGet();
+            return pattern;
+        }
+        miss.incrementAndGet();
+        //compiled outside the lock, two threads may compile the same regex and the last one wins
+        pattern = Pattern.compile(regex);
+        synchronized (segment) {
+            segment.put(regex, pattern);
+        }
+        return pattern;
+    }
+
+    private Segment segmentFor(String regex) {
+        int hash = regex.hashCode();
+        hash ^= (hash >>> 16);
+        return segments[hash & (SEGMENTS - 1)];
+    }
+
+    public long getHits() {
+        return hit.get();
+    }
+
+    public long getMisses() {
+        return miss.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    @Override
+    public double getRatio() {
+        return (double) hit.get() / (hit.get() + miss.get());
+    }
+
+    /**
+     * Rough estimation: the key chars plus a Pattern whose node graph is
+     * considered proportional to the regex length.
+     * @return the estimated size in bytes
+     */
+    @Override
+    public long getCacheSizeBytes() {
+        long cacheSize = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                for (String regex : segment.keySet()) {
+                    cacheSize += (regex.length() * 2 + 45) + (regex.length() * 32 + 80);
+                }
+            }
+        }
+        return cacheSize;
+    }
+
+    @Override
+    public int getCacheSize() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public Object getCache() {
+        return segments;
+    }
+
+    private class Segment extends LinkedHashMap<String, Pattern> {
+
+        private final int maximumSize;
+
+        Segment(int maximumSize) {
+            super(16, 0.75f, true);
+            this.maximumSize = maximumSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Pattern> eldest) {
+            if (size() > maximumSize) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
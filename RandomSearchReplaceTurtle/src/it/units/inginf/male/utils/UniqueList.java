@@ -18,40 +18,139 @@
 package it.units.inginf.male.utils;
 
 
+import java.util.AbstractList;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.RandomAccess;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
+ * Elements are considered duplicates when they have the same key, by default
+ * the toString() value; trees and rankings use their fingerprint.
+ * A map from keys to positions makes contains, indexOf and the lookup of
+ * remove constant time; positions after a removal are refreshed lazily. Bulk
+ * removals work in a single pass.
+ * add(E) ignores duplicates, positional insertions and set reject them with
+ * an IllegalArgumentException because they cannot report them.
  * @author andrea
  */
-public class UniqueList<E> extends ArrayList<E> {
+public class UniqueList<E> extends AbstractList<E> implements RandomAccess {
 
-    private Set<String> hashes = new HashSet<>();
+    private final ArrayList<E> elements;
+    private final ArrayList<Object> keys;
+    private final Map<Object, Integer> positions;
+    //positions of the elements before this index are up to date
+    private int validPositions = 0;
+    private final Function<? super E, ?> keyFunction;
 
     
     public UniqueList() {
-        
+        this(10);
     }
     
     public UniqueList(int initialCapacity) {
-        super(initialCapacity);
+        this(initialCapacity, Object::toString);
+    }
+
+    public UniqueList(int initialCapacity, Function<? super E, ?> keyFunction) {
+        this.elements = new ArrayList<>(initialCapacity);
+        this.keys = new ArrayList<>(initialCapacity);
+        this.positions = new HashMap<>(Math.max(16, initialCapacity * 4 / 3 + 1));
+        this.keyFunction = keyFunction;
     }
 
     public UniqueList(Collection<? extends E> c) {
-        super(c.size());
+        this(c, Object::toString);
+    }
+
+    public UniqueList(Collection<? extends E> c, Function<? super E, ?> keyFunction) {
+        this(c.size(), keyFunction);
         this.addAll(c);
     }
 
+    @SuppressWarnings("unchecked")
+    private Object keyOf(Object o) {
+        return keyFunction.apply((E) o);
+    }
+
+    private int positionOf(Object key) {
+        Integer position = positions.get(key);
+        if (position == null) {
+            return -1;
+        }
+        if (position < validPositions) {
+            return position;
+        }
+        for (int i = validPositions; i < keys.size(); i++) {
+            positions.put(keys.get(i), i);
+        }
+        validPositions = keys.size();
+        return positions.get(key);
+    }
+
+    @Override
+    public E get(int index) {
+        return elements.get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements.size();
+    }
+
     @Override
     public boolean add(E e) {
-        String hash = e.toString();
-        if (hashes.contains(hash)) {
+        Object key = keyOf(e);
+        if (positions.containsKey(key)) {
             return false;
         }
-        hashes.add(hash);
-        return super.add(e);
+        positions.put(key, elements.size());
+        if (validPositions == elements.size()) {
+            validPositions++;
+        }
+        elements.add(e);
+        keys.add(key);
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public void add(int index, E e) {
+        if (index == elements.size()) {
+            if (!add(e)) {
+                throw new IllegalArgumentException("Duplicate element: " + e);
+            }
+            return;
+        }
+        Object key = keyOf(e);
+        if (positions.containsKey(key)) {
+            throw new IllegalArgumentException("Duplicate element: " + e);
+        }
+        elements.add(index, e);
+        keys.add(index, key);
+        positions.put(key, index);
+        validPositions = Math.min(validPositions, index);
+        modCount++;
+    }
+
+    @Override
+    public E set(int index, E e) {
+        Object key = keyOf(e);
+        Object oldKey = keys.get(index);
+        if (!key.equals(oldKey)) {
+            if (positions.containsKey(key)) {
+                throw new IllegalArgumentException("Duplicate element: " + e);
+            }
+            positions.remove(oldKey);
+            positions.put(key, index);
+            keys.set(index, key);
+        }
+        return elements.set(index, e);
     }
 
     @Override
@@ -65,41 +164,134 @@ public class UniqueList<E> extends ArrayList<E> {
 
     @Override
     public void clear() {
-        super.clear();
-        this.hashes.clear();
+        elements.clear();
+        keys.clear();
+        positions.clear();
+        validPositions = 0;
+        modCount++;
     }
 
     @Override
     public boolean contains(Object o) {
-        return this.hashes.contains(o.toString()); 
+        return positions.containsKey(keyOf(o));
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return positionOf(keyOf(o));
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
     }
 
     @Override
     public boolean remove(Object o) {
-        boolean isRemoved = super.remove(o);
-        if(isRemoved && (o != null)){
-            this.hashes.remove(o.toString());
+        int index = positionOf(keyOf(o));
+        if (index < 0) {
+            return false;
         }
-        return isRemoved; 
+        remove(index);
+        return true;
     }
 
     @Override
     public E remove(int i) {
-        E removed = super.remove(i);
-        if(removed != null){
-            this.hashes.remove(removed.toString());
+        E removed = elements.remove(i);
+        positions.remove(keys.remove(i));
+        validPositions = Math.min(validPositions, i);
+        modCount++;
+        return removed;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            positions.remove(keys.get(i));
         }
-        return removed;  
+        elements.subList(fromIndex, toIndex).clear();
+        keys.subList(fromIndex, toIndex).clear();
+        validPositions = Math.min(validPositions, fromIndex);
+        modCount++;
     }
 
     @Override
     public boolean removeAll(Collection<?> clctn) {
+        Set<Object> removedKeys = new HashSet<>();
         for (Object object : clctn) {
-            if(object != null){
-                this.hashes.remove(object.toString());
+            if (object != null) {
+                Object key = keyOf(object);
+                if (positions.containsKey(key)) {
+                    removedKeys.add(key);
+                }
             }
         }
-        return super.removeAll(clctn); 
+        return !removedKeys.isEmpty() && removeKeys(removedKeys::contains);
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> clctn) {
+        Set<Object> retainedKeys = new HashSet<>();
+        for (Object object : clctn) {
+            if (object != null) {
+                retainedKeys.add(keyOf(object));
+            }
+        }
+        return removeKeys(key -> !retainedKeys.contains(key));
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        int kept = 0;
+        int firstRemoved = -1;
+        for (int i = 0; i < elements.size(); i++) {
+            E element = elements.get(i);
+            if (filter.test(element)) {
+                positions.remove(keys.get(i));
+                if (firstRemoved < 0) {
+                    firstRemoved = i;
+                }
+            } else {
+                elements.set(kept, element);
+                keys.set(kept, keys.get(i));
+                kept++;
+            }
+        }
+        return truncate(kept, firstRemoved);
+    }
+
+    /**
+     * Removes, in a single pass, the elements whose key is accepted by
+     * removed.
+     */
+    private boolean removeKeys(Predicate<Object> removed) {
+        int kept = 0;
+        int firstRemoved = -1;
+        for (int i = 0; i < elements.size(); i++) {
+            Object key = keys.get(i);
+            if (removed.test(key)) {
+                positions.remove(key);
+                if (firstRemoved < 0) {
+                    firstRemoved = i;
+                }
+            } else {
+                elements.set(kept, elements.get(i));
+                keys.set(kept, key);
+                kept++;
+            }
+        }
+        return truncate(kept, firstRemoved);
+    }
+
+    private boolean truncate(int kept, int firstRemoved) {
+        if (firstRemoved < 0) {
+            return false;
+        }
+        elements.subList(kept, elements.size()).clear();
+        keys.subList(kept, keys.size()).clear();
+        validPositions = Math.min(validPositions, firstRemoved);
+        modCount++;
+        return true;
     }
-    
 }
@@ -34,6 +34,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
@@ -86,71 +87,25 @@ public class Utils {
         return regex;
     }
 
+    /**
+     * Levenshtein distance between s and t, see {@link EditDistance}.
+     */
     public static int computeLevenshteinDistance(String s, String t) {
         if (s == null || t == null) {
             throw new IllegalArgumentException("Strings must not be null s: " + s + " t: " + t);
         }
+        return EditDistance.distance(s, t);
+    }
 
-        /*
-        The difference between this impl. and the previous is that, rather
-        than creating and retaining a matrix of size s.length()+1 by t.length()+1,
-        we maintain two single-dimensional arrays of length s.length()+1.  The first, d,
-        is the 'current working' distance array that maintains the newest distance cost
-        counts as we iterate through the characters of String s.  Each time we increment
-        the index of String t we are comparing, d is copied to p, the second int[].  Doing so
-        allows us to retain the previous cost counts as required by the algorithm (taking
-        the minimum of the cost count to the left, up one, and diagonally up and to the left
-        of the current cost count being calculated).  (Note that the arrays aren't really
-        copied anymore, just switched...this is clearly much better than cloning an array
-        or doing a System.arraycopy() each time  through the outer loop.)
-
-        Effectively, the difference between the two implementations is this one does not
-        cause an out of memory condition when calculating the LD over two very large strings.
-         */
-        int n = s.length(); // length of s
-        int m = t.length(); // length of t
-
-        if (n == 0) {
-            return m;
-        } else if (m == 0) {
-            return n;
-        }
-
-        int p[] = new int[n + 1]; //'previous' cost array, horizontally
-        int d[] = new int[n + 1]; // cost array, horizontally
-        int _d[]; //placeholder to assist in swapping p and d
-
-        // indexes into strings s and t
-        int i; // iterates through s
-        int j; // iterates through t
-
-        char t_j; // jth character of t
-
-        int cost; // cost
-
-        for (i = 0; i <= n; i++) {
-            p[i] = i;
-        }
-
-        for (j = 1; j <= m; j++) {
-            t_j = t.charAt(j - 1);
-            d[0] = j;
-
-            for (i = 1; i <= n; i++) {
-                cost = s.charAt(i - 1) == t_j ? 0 : 1;
-                // minimum of cell to the left+1, to the top+1, diagonally left and up +cost
-                d[i] = Math.min(Math.min(d[i - 1] + 1, p[i] + 1), p[i - 1] + cost);
-            }
-
-            // copy current distance counts to 'previous row' distance counts
-            _d = p;
-            p = d;
-            d = _d;
+    /**
+     * Bounded Levenshtein distance between s and t, see {@link EditDistance}.
+     * @return the distance when it is not greater than bound, otherwise bound + 1
+     */
+    public static int computeLevenshteinDistance(String s, String t, int bound) {
+        if (s == null || t == null) {
+            throw new IllegalArgumentException("Strings must not be null s: " + s + " t: " + t);
         }
-
-        // our last action in the above loop was to switch d and p, so p now
-        // actually has the most recent cost counts
-        return p[n];
+        return EditDistance.distance(s, t, bound);
     }
 
     public static float[] calculateMeanFitness(List<Ranking> population) {
@@ -180,24 +135,40 @@ public class Utils {
     }
 
     public static List<Ranking> getFirstParetoFront(List<Ranking> tmp) {
-        List<Ranking> front = new LinkedList<>();
+        List<Ranking> front = new ArrayList<>();
+        for (int index : NonDominatedSorting.firstFront(fitnessMatrix(tmp))) {
+            front.add(tmp.get(index));
+        }
+        return front;
+    }
 
-        for (Ranking r1 : tmp) {
-            boolean isDominate = false;
-            for (Ranking r2 : tmp) {
-                if (r1.equals(r2)) {
-                    continue;
-                }
-                if (Utils.isAParetoDominateByB(r1.getFitness(), r2.getFitness())) {
-                    isDominate = true;
-                    break;
-                }
-            }
-            if (!isDominate) {
-                front.add(r1);
+    /**
+     * Sorts the rankings in Pareto fronts, in a single pass.
+     *
+     * @param rankings the rankings to sort
+     * @return the fronts, starting from the non dominated one; each front keeps
+     * the order the rankings have in the argument list
+     */
+    public static List<List<Ranking>> getParetoFronts(List<Ranking> rankings) {
+        List<int[]> indexes = NonDominatedSorting.fronts(fitnessMatrix(rankings));
+        List<List<Ranking>> fronts = new ArrayList<>(indexes.size());
+        for (int[] frontIndexes : indexes) {
+            List<Ranking> front = new ArrayList<>(frontIndexes.length);
+            for (int index : frontIndexes) {
+                front.add(rankings.get(index));
             }
+            fronts.add(front);
         }
-        return front;
+        return fronts;
+    }
+
+    private static double[][] fitnessMatrix(List<Ranking> rankings) {
+        double[][] fitness = new double[rankings.size()][];
+        int i = 0;
+        for (Ranking ranking : rankings) {
+            fitness[i++] = ranking.getFitness();
+        }
+        return fitness;
     }
 
     public static String cpuInfo() throws IOException {
@@ -218,9 +189,9 @@ public class Utils {
     }
 
     public static double diversity(List<Ranking> population) {
-        Set<String> tmp = new HashSet<>();
+        Set<Long> tmp = new HashSet<>();
         for (Ranking r : population) {
-            tmp.add(r.getDescription());
+            tmp.add(r.getFingerprint());
         }
         return 100 * tmp.size() / (double) population.size();
     }
@@ -234,13 +205,13 @@ public class Utils {
      * @return
      */
     public static double intraPopulationsDiversity(List<Ranking> populationA, List<Ranking> populationB) {
-        Set<String> regexInASet = new HashSet<>();
+        Set<Long> regexInASet = new HashSet<>();
         for (Ranking r : populationA) {
-            regexInASet.add(r.getDescription());
+            regexInASet.add(r.getFingerprint());
         }
         int newRegexesCount = 0;
         for (Ranking r : populationB) {
-            if (!regexInASet.contains(r.getDescription())) {
+            if (!regexInASet.contains(r.getFingerprint())) {
                 newRegexesCount++;
             }
         }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.coevolution;
+
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Concatenator;
+import it.units.inginf.male.tree.operator.MatchOneOrMore;
+import it.units.inginf.male.tree.operator.Or;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ForestTest {
+
+    private static Node concat(Node left, Node right) {
+        Node node = new Concatenator();
+        left.setParent(node);
+        right.setParent(node);
+        node.getChildrens().add(left);
+        node.getChildrens().add(right);
+        return node;
+    }
+
+    private static String describe(Node node) {
+        StringBuilder builder = new StringBuilder();
+        node.describe(builder);
+        return builder.toString();
+    }
+
+    @Test
+    public void testStructuralFingerprint() {
+        Node a = concat(concat(new Constant("a"), new Constant("b")), new Constant("c"));
+        Node b = concat(new Constant("a"), concat(new Constant("b"), new Constant("c")));
+        assertEquals(describe(a), describe(b));
+        assertTrue(a.getFingerprint() != b.getFingerprint());
+        assertTrue(concat(new Constant("a"), new Constant("b")).getFingerprint() != new Constant("ab").getFingerprint());
+        assertEquals(a.getFingerprint(), a.cloneTree().getFingerprint());
+        assertEquals(a.getFingerprint(), concat(concat(new Constant("a"), new Constant("b")), new Constant("c")).getFingerprint());
+
+        Forest forest = new Forest(a, new Constant("$1"));
+        assertEquals(forest.getFingerprint(), new Forest(a.cloneTree(), new Constant("$1")).getFingerprint());
+        assertTrue(forest.getFingerprint() != new Forest(b, new Constant("$1")).getFingerprint());
+        assertTrue(forest.getFingerprint() != new Forest(new Constant("$1"), a).getFingerprint());
+    }
+
+    @Test
+    public void testFingerprintInvalidation() {
+        Node left = concat(new Constant("a"), new Constant("b"));
+        Node root = concat(left, new Constant("c"));
+        long before = root.getFingerprint();
+
+        Node replacement = new Constant("x");
+        replacement.setParent(left);
+        left.getChildrens().set(0, replacement);
+        assertEquals(concat(concat(new Constant("x"), new Constant("b")), new Constant("c")).getFingerprint(), root.getFingerprint());
+        assertTrue(before != root.getFingerprint());
+    }
+
+    @Test
+    public void testFingerprintIgnoresParent() {
+        Node or = new Or();
+        Node left = new Constant("a");
+        Node right = new Constant("b");
+        left.setParent(or);
+        right.setParent(or);
+        or.getChildrens().add(left);
+        or.getChildrens().add(right);
+        long free = or.getFingerprint();
+        String description = describe(or);
+
+        //the description changes under a quantifier, the structure does not
+        Node quantifier = new MatchOneOrMore();
+        or.setParent(quantifier);
+        quantifier.getChildrens().add(or);
+        assertTrue(!description.equals(describe(or)));
+        assertEquals(free, or.getFingerprint());
+        assertEquals(free, quantifier.cloneTree().getChildrens().get(0).getFingerprint());
+    }
+}
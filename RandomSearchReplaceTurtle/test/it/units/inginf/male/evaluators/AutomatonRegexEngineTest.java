@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AutomatonRegexEngineTest {
+
+    private static final String[] ATOMS = {"a", "b", "1", "\\d", "\\w", "\\s", "\\W", ".", "[ab]", "[^a]", "[a-c1]", "[\\d-]", "\\.", "-", "^", "$", "\\b", "\\B"};
+    private static final String[] QUANTIFIERS = {"*", "+", "?", "{1,2}", "{0,3}", "{2}", "*+", "++", "?+", "{1,3}+", "{0,2}+"};
+    private static final String ALPHABET = "ab1 .-_\n\rc2";
+
+    private static void assertSameMatch(Pattern pattern, RegexEngine.Regex regex, String text) {
+        Matcher matcher = pattern.matcher(text);
+        RegexEngine.Finder finder = regex.finder();
+        boolean found = matcher.find();
+        assertEquals(pattern + " on \"" + text + "\"", found, finder.find(text));
+        if (found) {
+            for (int group = 0; group <= matcher.groupCount(); group++) {
+                assertEquals(pattern + " on \"" + text + "\" group " + group, matcher.start(group), finder.start(group));
+                assertEquals(pattern + " on \"" + text + "\" group " + group, matcher.end(group), finder.end(group));
+            }
+        }
+    }
+
+    @Test
+    public void testSupportedRegexes() {
+        String[] regexes = {"\\d++(\\.)\\d{1,2}+", "(\\w+)@(\\w+)\\.com", "^(?:ab|a)c$", "a|ab|abc", "(a|ab)(c|bcd)(d*)",
+            "[^\\s,]++", "\\d++\\b", "(?:\\d\\.)++", "[a-z-]+", "\\\\\\{\\}", "x*", "(a?)b", "(?:a|)?b", "$"};
+        String[] texts = {"", "ab", "abcd", "12.345 ore 1.2", "mail@host.com", "a-b-c", "\\{}", "x\n", "b", "1.2.3."};
+        AutomatonRegexEngine engine = new AutomatonRegexEngine();
+        for (String regex : regexes) {
+            Pattern pattern = Pattern.compile(regex);
+            RegexEngine.Regex compiled = engine.compile(null, pattern);
+            assertTrue(regex, compiled instanceof AutomatonProgram);
+            for (String text : texts) {
+                assertSameMatch(pattern, compiled, text);
+            }
+        }
+        assertEquals(regexes.length, engine.getAutomata());
+    }
+
+    @Test
+    public void testUnsupportedRegexes() {
+        String[] regexes = {"(a)\\1", "(?=a)b", "(?<!a)b", "a*?", "(a*)*", "((a))*", "(a)*+", "(?:ab|a)++", "(?:a*)++", "[a[b]]", "\\p{L}", "(?i)a"};
+        AutomatonRegexEngine engine = new AutomatonRegexEngine();
+        for (String regex : regexes) {
+            assertFalse(regex, engine.compile(null, Pattern.compile(regex)) instanceof AutomatonProgram);
+        }
+        assertEquals(regexes.length, engine.getFallbacks());
+    }
+
+    @Test
+    public void testFallbackTexts() {
+        Pattern pattern = Pattern.compile("\\b\\w+\\b");
+        RegexEngine.Regex regex = new AutomatonRegexEngine().compile(null, pattern);
+        assertTrue(regex instanceof AutomatonProgram);
+        for (String text : new String[]{"perch\u00e9 s\u00ec", "x\uD83D\uDE00y", "citt\u00e0"}) {
+            assertSameMatch(pattern, regex, text);
+        }
+        pattern = Pattern.compile("[^a]b");
+        regex = new AutomatonRegexEngine().compile(null, pattern);
+        assertSameMatch(pattern, regex, "\uD83D\uDE00b");
+    }
+
+    private static String randomRegex(Random random, int depth) {
+        int choice = depth == 0 ? 0 : random.nextInt(6);
+        switch (choice) {
+            case 0:
+                return ATOMS[random.nextInt(ATOMS.length)];
+            case 1:
+                return randomRegex(random, depth - 1) + randomRegex(random, depth - 1);
+            case 2:
+                return "(?:" + randomRegex(random, depth - 1) + "|" + randomRegex(random, depth - 1) + ")";
+            case 3:
+                return "(" + randomRegex(random, depth - 1) + ")";
+            default:
+                String quantified = random.nextBoolean() ? ATOMS[random.nextInt(ATOMS.length)] : "(" + randomRegex(random, depth - 1) + ")";
+                return quantified + QUANTIFIERS[random.nextInt(QUANTIFIERS.length)];
+        }
+    }
+
+    @Test
+    public void testRandomRegexes() {
+        Random random = new Random(17);
+        AutomatonRegexEngine engine = new AutomatonRegexEngine();
+        int automata = 0;
+        for (int r = 0; r < 5000; r++) {
+            String regex = randomRegex(random, 4);
+            Pattern pattern;
+            try {
+                pattern = Pattern.compile(regex);
+            } catch (PatternSyntaxException ex) {
+                continue;
+            }
+            RegexEngine.Regex compiled = engine.compile(null, pattern);
+            if (!(compiled instanceof AutomatonProgram)) {
+                continue;
+            }
+            automata++;
+            for (int t = 0; t < 10; t++) {
+                StringBuilder text = new StringBuilder();
+                int length = random.nextInt(12);
+                for (int i = 0; i < length; i++) {
+                    text.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                }
+                assertSameMatch(pattern, compiled, text.toString());
+            }
+        }
+        assertTrue("automata: " + automata, automata > 2000);
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.tree.Anchor;
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Concatenator;
+import it.units.inginf.male.tree.operator.Group;
+import it.units.inginf.male.tree.operator.MatchOneOrMore;
+import it.units.inginf.male.tree.operator.MatchOneOrMoreGreedy;
+import it.units.inginf.male.tree.operator.MatchZeroOrMoreGreedy;
+import it.units.inginf.male.tree.operator.PositiveLookbehind;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RegexAnalyzerTest {
+
+    private static Node node(Node node, Node... children) {
+        for (Node child : children) {
+            node.getChildrens().add(child);
+        }
+        return node;
+    }
+
+    @Test
+    public void testEmptyMatch() {
+        RegexAnalyzer analyzer = new RegexAnalyzer();
+        Node empty = node(new Concatenator(), new Constant(""), node(new Group(), new Constant("")));
+        Node anchored = node(new Concatenator(), new Constant(""), new Anchor("^"));
+        Node boundary = node(new Concatenator(), new Constant(""), new Constant("\\b"));
+        Node constant = node(new Concatenator(), new Constant(""), new Constant("a"));
+        assertTrue(analyzer.isFlagged(empty, RegexAnalyzer.Reason.EMPTY_MATCH));
+        assertFalse(analyzer.isFlagged(anchored, RegexAnalyzer.Reason.EMPTY_MATCH));
+        assertFalse(analyzer.isFlagged(boundary, RegexAnalyzer.Reason.EMPTY_MATCH));
+        assertFalse(analyzer.isFlagged(constant, RegexAnalyzer.Reason.EMPTY_MATCH));
+        assertEquals(RegexAnalyzer.Verdict.SKIP, analyzer.filter(empty));
+        assertEquals(RegexAnalyzer.Verdict.EVALUATE, analyzer.filter(constant));
+        assertEquals(1, analyzer.getCount(RegexAnalyzer.Reason.EMPTY_MATCH));
+    }
+
+    @Test
+    public void testNestedQuantifiers() {
+        RegexAnalyzer analyzer = new RegexAnalyzer();
+        Node nested = node(new MatchOneOrMoreGreedy(), node(new Group(),
+                node(new MatchZeroOrMoreGreedy(), node(new Group(),
+                        node(new MatchOneOrMoreGreedy(), new Constant("a"))))));
+        Node possessive = node(new MatchOneOrMore(), node(new Group(),
+                node(new MatchZeroOrMoreGreedy(), node(new Group(),
+                        node(new MatchOneOrMoreGreedy(), new Constant("a"))))));
+        assertTrue(analyzer.isFlagged(nested, RegexAnalyzer.Reason.NESTED_QUANTIFIERS));
+        assertFalse(analyzer.isFlagged(possessive, RegexAnalyzer.Reason.NESTED_QUANTIFIERS));
+        assertEquals(RegexAnalyzer.Verdict.PENALIZE, analyzer.analyze(nested));
+        assertEquals(0, analyzer.getCount(RegexAnalyzer.Reason.NESTED_QUANTIFIERS));
+
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put(RegexAnalyzer.MAX_QUANTIFIER_NESTING_KEY, "3");
+        assertFalse(new RegexAnalyzer(parameters).isFlagged(nested, RegexAnalyzer.Reason.NESTED_QUANTIFIERS));
+        parameters.put(RegexAnalyzer.MAX_QUANTIFIER_NESTING_KEY, "1");
+        parameters.put(RegexAnalyzer.Reason.NESTED_QUANTIFIERS.getParameter(), "skip");
+        assertEquals(RegexAnalyzer.Verdict.SKIP, new RegexAnalyzer(parameters).analyze(possessive));
+    }
+
+    @Test
+    public void testUnboundedLookbehind() {
+        RegexAnalyzer analyzer = new RegexAnalyzer();
+        Node unbounded = node(new Concatenator(), node(new PositiveLookbehind(), node(new MatchOneOrMore(), new Constant("a"))), new Constant("b"));
+        Node bounded = node(new Concatenator(), node(new PositiveLookbehind(), new Constant("a")), node(new MatchOneOrMore(), new Constant("b")));
+        assertTrue(analyzer.isFlagged(unbounded, RegexAnalyzer.Reason.UNBOUNDED_LOOKBEHIND));
+        assertFalse(analyzer.isFlagged(bounded, RegexAnalyzer.Reason.UNBOUNDED_LOOKBEHIND));
+        assertEquals(RegexAnalyzer.Verdict.PENALIZE, analyzer.filter(unbounded));
+        assertEquals(RegexAnalyzer.Verdict.EVALUATE, analyzer.filter(bounded));
+    }
+}
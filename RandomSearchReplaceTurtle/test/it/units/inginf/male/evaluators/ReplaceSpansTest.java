@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.evaluators;
+
+import it.units.inginf.male.inputs.ExampleReplace;
+import it.units.inginf.male.utils.Utils;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReplaceSpansTest {
+
+    private static final String[] STRINGS = {"", "abc", "2017-10-26 ore 12:30", "a1b22c333", "nessuna cifra", "x\\y$z"};
+
+    @Test
+    public void testTemplateExpansion() {
+        String[][] cases = {
+            {"\\d+", "<$0>"},
+            {"(\\d)(\\d)?", "$2$1"},
+            {"(\\w)(\\w)(\\w)(\\w)(\\w)(\\w)(\\w)(\\w)(\\w)(\\w)(\\w)", "$11-$12"},
+            {"(\\w)", "$10"},
+            {"[a-z]+", "\\$1"},
+            {"\\s", ""},
+            {"(x)|(y)", "[$1$2]"}
+        };
+        List<ExampleReplace> examples = new ArrayList<>();
+        for (String string : STRINGS) {
+            examples.add(new ExampleReplace(string, string));
+        }
+        for (String[] replaceCase : cases) {
+            Pattern regex = Pattern.compile(replaceCase[0]);
+            ReplacementTemplate template = ReplacementTemplate.compile(replaceCase[1], regex.matcher("").groupCount());
+            MatchSpans matchSpans = MatchSpans.match(regex, examples, 0, MatchBudget.DEFAULT);
+            for (int i = 0; i < STRINGS.length; i++) {
+                String string = STRINGS[i];
+                Matcher matcher = regex.matcher(string);
+                assertEquals(matcher.find(), matchSpans.isMatched(i));
+                if (matchSpans.isMatched(i)) {
+                    String replaced = string.substring(0, matcher.start()) + template.expand(matcher, string) + string.substring(matcher.end());
+                    assertEquals(regex.matcher(string).replaceFirst(replaceCase[1]), replaced);
+                    assertEquals(matcher.start(), matchSpans.getStart(i, 0));
+                    assertEquals(matcher.end(), matchSpans.getEnd(i, 0));
+                    assertEquals(template.expand(matcher, string), template.expand(matchSpans, i, string));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testBatchMatching() {
+        List<ExampleReplace> examples = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            String string = STRINGS[i % STRINGS.length] + i;
+            examples.add(new ExampleReplace(string, string));
+        }
+        Pattern[] regexes = {Pattern.compile("(\\d)(\\d)?"), Pattern.compile("[a-z]+"), Pattern.compile("(x)|(y)"), Pattern.compile("\\d+$")};
+        for (int threshold : new int[]{0, 1}) {
+            MatchSpans[] batch = MatchSpans.match(regexes, examples, threshold, MatchBudget.DEFAULT);
+            for (int r = 0; r < regexes.length; r++) {
+                MatchSpans single = MatchSpans.match(regexes[r], examples, 0, MatchBudget.DEFAULT);
+                assertEquals(single.getGroupCount(), batch[r].getGroupCount());
+                for (int i = 0; i < examples.size(); i++) {
+                    assertEquals(single.isMatched(i), batch[r].isMatched(i));
+                    for (int group = 0; single.isMatched(i) && group <= single.getGroupCount(); group++) {
+                        assertEquals(single.getStart(i, group), batch[r].getStart(i, group));
+                        assertEquals(single.getEnd(i, group), batch[r].getEnd(i, group));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testMatchBudget() {
+        List<ExampleReplace> examples = new ArrayList<>();
+        examples.add(new ExampleReplace("aab", "aab"));
+        examples.add(new ExampleReplace("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaac", "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaac"));
+        examples.add(new ExampleReplace("ab", "ab"));
+        //the back reference disables the memoization of the nested loops
+        Pattern[] regexes = {Pattern.compile("(a+)+(b)\\2"), Pattern.compile("a*b")};
+        MatchSpans[] spans = MatchSpans.match(regexes, examples, 0, new MatchBudget(100000, 0));
+        assertTrue(spans[0].isAborted());
+        assertTrue(!spans[1].isAborted());
+        assertTrue(spans[1].isMatched(0));
+        assertTrue(!spans[1].isMatched(1));
+        assertEquals(2, spans[1].getEnd(2, 0));
+        //without the catastrophic example the budget is enough
+        assertTrue(!MatchSpans.match(regexes[0], examples.subList(2, 3), 0, new MatchBudget(100000, 0)).isAborted());
+    }
+
+    private static List<ExampleReplace> longExample(int length) {
+        StringBuilder builder = new StringBuilder(length + 5);
+        //the only match is at the end, the regexes scan the whole example
+        while (builder.length() < length) {
+            builder.append("abc ");
+        }
+        builder.append("(42) ");
+        List<ExampleReplace> examples = new ArrayList<>();
+        examples.add(new ExampleReplace(builder.toString(), builder.toString()));
+        return examples;
+    }
+
+    @Test
+    public void testLinearRegexOnLongExample() {
+        List<ExampleReplace> examples = longExample(1200000);
+        Pattern[] regexes = {Pattern.compile("\\d++"), Pattern.compile("\\(\\d++\\)\\s")};
+        for (MatchSpans spans : MatchSpans.match(regexes, examples, 0, MatchBudget.DEFAULT)) {
+            assertTrue(!spans.isAborted());
+            assertTrue(spans.isMatched(0));
+        }
+        //so does the budget of the regexes penalized for their shape
+        for (MatchSpans spans : MatchSpans.match(regexes, examples, 0, MatchBudget.penalizedFromParameters(null))) {
+            assertTrue(!spans.isAborted());
+        }
+        assertTrue(!MatchSpans.match(regexes[1], longExample(120000), 0, MatchBudget.penalizedFromParameters(null)).isAborted());
+        //a budget which does not grow with the example aborts the same scan
+        assertTrue(MatchSpans.match(regexes[0], examples, 0, new MatchBudget(MatchBudget.DEFAULT_STEP_BUDGET, 0)).isAborted());
+    }
+
+    @Test
+    public void testTemplateFallback() {
+        assertNull(ReplacementTemplate.compile("$", 1));
+        assertNull(ReplacementTemplate.compile("a\\", 1));
+        assertNull(ReplacementTemplate.compile("$2", 1));
+        assertNull(ReplacementTemplate.compile("${name}", 1));
+        assertNull(ReplacementTemplate.compile("$x", 1));
+    }
+
+    @Test
+    public void testSpans() {
+        List<ExampleReplace> examples = new ArrayList<>();
+        for (String string : STRINGS) {
+            examples.add(new ExampleReplace(string, string.replaceAll("\\d", "#")));
+        }
+        Pattern regex = Pattern.compile("\\d+");
+        ReplaceSpans spans = new ReplaceSpans(examples);
+        for (int i = 0; i < examples.size(); i++) {
+            Matcher matcher = regex.matcher(examples.get(i).getString());
+            if (matcher.find()) {
+                spans.set(i, matcher.start(), matcher.end(), "#");
+            } else {
+                spans.set(i, 0, 0, "");
+            }
+        }
+        ReplaceResults results = ReplaceResults.of(spans, examples);
+        assertTrue(results == spans);
+        for (int i = 0; i < examples.size(); i++) {
+            ExampleReplace example = examples.get(i);
+            String expected = regex.matcher(example.getString()).replaceFirst("#");
+            ReplaceResult result = spans.get(i);
+            assertEquals(expected, result.getReplacedString());
+            assertEquals(spans.getStart(i), result.getBounds().start);
+            assertEquals(spans.getEnd(i), result.getBounds().end);
+            assertEquals(Utils.computeLevenshteinDistance(example.targetString, expected), spans.getEditDistance(i, Integer.MAX_VALUE));
+            assertEquals(example.getEditDistance(result, Integer.MAX_VALUE), spans.getEditDistance(i, Integer.MAX_VALUE));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.inputs;
+
+import it.units.inginf.male.utils.Range;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class DataSetReplaceTest {
+
+    private static DataSetReplace build(int size) {
+        DataSetReplace dataSet = new DataSetReplace("test");
+        for (int i = 0; i < size; i++) {
+            dataSet.getExamples().add(new ExampleReplace("s" + i, "t" + i));
+        }
+        return dataSet;
+    }
+
+    @Test
+    public void testSubDatasetViews() {
+        DataSetReplace dataSet = build(10);
+        DataSetReplace training = dataSet.subDataset("training", Arrays.asList(new Range(0, 2), new Range(6, 7)));
+        DataSetReplace validation = dataSet.subDataset("validation", Arrays.asList(new Range(3, 5)));
+        assertEquals(5, training.getNumberExamples());
+        assertSame(dataSet.getExample(6), training.getExample(3));
+
+        DataSetReplace nested = training.subDataset("nested", Arrays.asList(new Range(2, 3)));
+        assertSame(dataSet.getExample(2), nested.getExample(0));
+        assertSame(dataSet.getExample(6), nested.getExample(1));
+
+        DataSetReplace learning = DataSetReplace.concat("learning", training, validation);
+        assertEquals(8, learning.getNumberExamples());
+        assertSame(dataSet.getExample(7), learning.getExample(4));
+        assertSame(dataSet.getExample(3), learning.getExample(5));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testViewsAreReadOnly() {
+        DataSetReplace training = build(4).subDataset("training", Arrays.asList(new Range(0, 1)));
+        training.getExamples().add(new ExampleReplace("a", "b"));
+    }
+}
@@ -17,7 +17,10 @@
  */
 package it.units.inginf.male.inputs;
 
+import it.units.inginf.male.evaluators.ReplaceResult;
 import it.units.inginf.male.utils.Pair;
+import it.units.inginf.male.utils.Utils;
+import java.util.Random;
 import junit.framework.TestCase;
 
 /**
@@ -77,4 +80,32 @@ public class ExampleReplaceTest extends TestCase {
     }
 
     
+    /**
+     * Test of getEditDistance method with a replaced span, of class ExampleReplace.
+     */
+    public void testGetEditDistance_replacedSpan() {
+        Random random = new Random(9);
+        for (int i = 0; i < 2000; i++) {
+            String string = randomString(random, 12);
+            String target = randomString(random, 12);
+            ExampleReplace instance = new ExampleReplace(string, target);
+            int start = random.nextInt(string.length() + 1);
+            int end = start + random.nextInt(string.length() - start + 1);
+            String replacement = randomString(random, 4);
+            String replaced = string.substring(0, start) + replacement + string.substring(end);
+            ReplaceResult result = new ReplaceResult(replaced, start, end, true);
+            int expected = Utils.computeLevenshteinDistance(target, replaced);
+            assertEquals(expected, instance.getEditDistance(result, Integer.MAX_VALUE));
+            assertEquals(Math.min(expected, 3), instance.getEditDistance(result, 2));
+        }
+    }
+
+    private static String randomString(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(3)));
+        }
+        return builder.toString();
+    }
 }
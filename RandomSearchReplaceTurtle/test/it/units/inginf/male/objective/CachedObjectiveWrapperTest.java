@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.objective;
+
+import com.google.gson.Gson;
+import it.units.inginf.male.coevolution.Forest;
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.evaluators.CoevolutionaryEvaluator;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Concatenator;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CachedObjectiveWrapperTest {
+
+    /**
+     * Counts the evaluations, the fitness is the number of nodes.
+     */
+    private static class NodeCountObjective implements Objective {
+
+        private int evaluations = 0;
+
+        @Override
+        public void setup(Context context) {
+        }
+
+        @Override
+        public double[] fitness(Node individual) {
+            evaluations++;
+            return new double[]{0, count(individual)};
+        }
+
+        private static int count(Node node) {
+            int count = 1;
+            for (Node child : node.getChildrens()) {
+                count += count(child);
+            }
+            return count;
+        }
+
+        @Override
+        public CoevolutionaryEvaluator getTreeEvaluator() {
+            return null;
+        }
+
+        @Override
+        public Objective cloneObjective() {
+            return new NodeCountObjective();
+        }
+    }
+
+    private static Node concat(Node left, Node right) {
+        Node node = new Concatenator();
+        left.setParent(node);
+        right.setParent(node);
+        node.getChildrens().add(left);
+        node.getChildrens().add(right);
+        return node;
+    }
+
+    private static String describe(Node node) {
+        StringBuilder builder = new StringBuilder();
+        node.describe(builder);
+        return builder.toString();
+    }
+
+    @Test
+    public void testSameDescriptionDifferentStructure() {
+        NodeCountObjective counter = new NodeCountObjective();
+        CachedObjectiveWrapper objective = new CachedObjectiveWrapper(counter) {
+            @Override
+            public Objective cloneObjective() {
+                return this;
+            }
+        };
+        Configuration configuration = new Gson().fromJson("{}", Configuration.class);
+        objective.setup(new Context(Context.EvaluationPhases.TRAINING, configuration));
+
+        Forest constant = new Forest(new Constant("ab"), new Constant("$1"));
+        Forest concatenation = new Forest(concat(new Constant("a"), new Constant("b")), new Constant("$1"));
+        assertEquals(describe(constant), describe(concatenation));
+
+        //same description, different complexity: they must not share a cached fitness
+        assertTrue(Arrays.equals(new double[]{0, 3}, objective.fitness(constant)));
+        assertTrue(Arrays.equals(new double[]{0, 5}, objective.fitness(concatenation)));
+        assertEquals(2, counter.evaluations);
+
+        //a tree with the same structure hits the cache
+        Forest copy = new Forest(concat(new Constant("a"), new Constant("b")), new Constant("$1"));
+        assertTrue(Arrays.equals(new double[]{0, 5}, objective.fitness(copy)));
+        assertEquals(2, counter.evaluations);
+    }
+}
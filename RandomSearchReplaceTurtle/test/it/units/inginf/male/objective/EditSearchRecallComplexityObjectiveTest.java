@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.objective;
+
+import com.google.gson.Gson;
+import it.units.inginf.male.coevolution.Forest;
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Concatenator;
+import it.units.inginf.male.tree.operator.Group;
+import it.units.inginf.male.tree.operator.MatchOneOrMore;
+import it.units.inginf.male.utils.NonDominatedSorting;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EditSearchRecallComplexityObjectiveTest {
+
+    private static Node add(Node parent, Node... children) {
+        for (Node child : children) {
+            child.setParent(parent);
+            parent.getChildrens().add(child);
+        }
+        return parent;
+    }
+
+    @Test
+    public void testOverTheBoundStillNonDominated() throws IOException {
+        Configuration configuration;
+        try (Reader reader = Files.newBufferedReader(Paths.get("configurations/example_configuration.json"), StandardCharsets.UTF_8)) {
+            configuration = new Gson().fromJson(reader, Configuration.class);
+        }
+        configuration.setOutputFolderName(Files.createTempDirectory("objective").toString());
+        configuration.setup();
+        Context context = new Context(Context.EvaluationPhases.TRAINING, configuration);
+        EditSearchRecallComplexityObjective objective = new EditSearchRecallComplexityObjective();
+        objective.setup(context);
+
+        //\((\d++)\)\s replaced by $1\-
+        Node regex = add(new Concatenator(), new Constant("\\("),
+                add(new Concatenator(), add(new Group(), add(new MatchOneOrMore(), new Constant("\\d"))), new Constant("\\)\\s")));
+        Forest kept = new Forest(regex, add(new Concatenator(), new Constant("$1"), new Constant("\\-")));
+        Forest simple = new Forest(new Constant("\\s"), new Constant("\\-"));
+        double[] keptFitness = objective.fitness(kept);
+        double[] simpleFitness = objective.fitness(simple);
+        assertTrue(simpleFitness[0] > keptFitness[0]);
+        assertTrue(simpleFitness[2] < keptFitness[2]);
+
+        //only the edit fitness is given up over the bound
+        objective.setEditBound(keptFitness[0]);
+        double[] bounded = objective.fitness(simple);
+        assertEquals(Double.POSITIVE_INFINITY, bounded[0], 0);
+        assertEquals(simpleFitness[1], bounded[1], 0);
+        assertEquals(simpleFitness[2], bounded[2], 0);
+        assertTrue(Arrays.equals(keptFitness, objective.fitness(kept)));
+
+        //the simpler individual is still on the first front
+        assertTrue(Arrays.equals(new int[]{0, 1}, NonDominatedSorting.firstFront(new double[][]{keptFitness, bounded})));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.objective;
+
+import it.units.inginf.male.coevolution.Forest;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.strategy.GenerationStatistics;
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Concatenator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class GenerationalFitnessCacheTest {
+
+    private final List<Node> evaluated = new ArrayList<>();
+
+    private double[][] evaluate(List<Node> individuals) {
+        evaluated.addAll(individuals);
+        double[][] fitness = new double[individuals.size()][];
+        for (int i = 0; i < individuals.size(); i++) {
+            StringBuilder builder = new StringBuilder();
+            individuals.get(i).describe(builder);
+            String value = builder.toString();
+            fitness[i] = value.startsWith("pruned") ? new double[]{Double.POSITIVE_INFINITY, 0} : new double[]{value.length(), value.hashCode()};
+        }
+        return fitness;
+    }
+
+    @Test
+    public void testEvaluate() {
+        GenerationalFitnessCache cache = new GenerationalFitnessCache(0);
+        List<Node> individuals = Arrays.<Node>asList(new Constant("a"), new Constant("bb"), new Constant("a"), new Constant("pruned"));
+        double[][] fitness = cache.evaluate(individuals, Context.EvaluationPhases.TRAINING, this::evaluate);
+        assertEquals(3, evaluated.size());
+        assertTrue(Arrays.equals(new double[]{1, "a".hashCode()}, fitness[0]));
+        assertTrue(Arrays.equals(new double[]{2, "bb".hashCode()}, fitness[1]));
+        assertTrue(Arrays.equals(fitness[0], fitness[2]));
+        assertEquals(Double.POSITIVE_INFINITY, fitness[3][0], 0);
+
+        //same generation: hits, but pruned individuals are evaluated again
+        evaluated.clear();
+        fitness = cache.evaluate(individuals, Context.EvaluationPhases.TRAINING, this::evaluate);
+        assertEquals(Arrays.asList(individuals.get(3)), evaluated);
+        assertTrue(Arrays.equals(new double[]{2, "bb".hashCode()}, fitness[1]));
+
+        //phases are cached separately
+        evaluated.clear();
+        cache.evaluate(individuals.subList(0, 1), Context.EvaluationPhases.VALIDATION, this::evaluate);
+        assertEquals(1, evaluated.size());
+
+        GenerationStatistics statistics = new GenerationStatistics();
+        cache.endGeneration(statistics);
+        assertEquals(9, statistics.getFitnessLookups());
+        assertEquals(5, statistics.getFitnessEvaluations());
+        assertEquals(4, statistics.getFitnessCacheHits());
+        //nothing was alive
+        assertEquals(0, statistics.getFitnessCacheSize());
+    }
+
+    @Test
+    public void testRetention() {
+        GenerationalFitnessCache cache = new GenerationalFitnessCache(1);
+        Node a = new Constant("a");
+        Node b = new Constant("b");
+        cache.evaluate(Arrays.asList(a, b), Context.EvaluationPhases.TRAINING, this::evaluate);
+        cache.markAlive(a.getFingerprint());
+        cache.endGeneration(null);
+        assertEquals(2, cache.getCacheSize());
+
+        //a leaves the rankings, b has been out for too long
+        cache.endGeneration(null);
+        assertEquals(1, cache.getCacheSize());
+        evaluated.clear();
+        cache.evaluate(Arrays.asList(a, b), Context.EvaluationPhases.TRAINING, this::evaluate);
+        assertEquals(Arrays.asList(b), evaluated);
+        cache.endGeneration(null);
+        cache.endGeneration(null);
+        assertEquals(0, cache.getCacheSize());
+    }
+
+    private static Node concat(Node left, Node right) {
+        Node node = new Concatenator();
+        left.setParent(node);
+        right.setParent(node);
+        node.getChildrens().add(left);
+        node.getChildrens().add(right);
+        return node;
+    }
+
+    private static int count(Node node) {
+        int count = 1;
+        for (Node child : node.getChildrens()) {
+            count += count(child);
+        }
+        return count;
+    }
+
+    @Test
+    public void testSameDescriptionDifferentStructure() {
+        GenerationalFitnessCache cache = new GenerationalFitnessCache(1);
+        Forest constant = new Forest(new Constant("ab"), new Constant("$1"));
+        Forest concatenation = new Forest(concat(new Constant("a"), new Constant("b")), new Constant("$1"));
+        StringBuilder constantDescription = new StringBuilder();
+        StringBuilder concatenationDescription = new StringBuilder();
+        constant.describe(constantDescription);
+        concatenation.describe(concatenationDescription);
+        assertEquals(constantDescription.toString(), concatenationDescription.toString());
+
+        //the complexity depends on the structure
+        Function<List<Node>, double[][]> complexity = individuals -> {
+            evaluated.addAll(individuals);
+            double[][] fitness = new double[individuals.size()][];
+            for (int i = 0; i < individuals.size(); i++) {
+                fitness[i] = new double[]{0, count(individuals.get(i))};
+            }
+            return fitness;
+        };
+        cache.evaluate(Arrays.asList(constant), Context.EvaluationPhases.TRAINING, complexity);
+        cache.markAlive(constant.getFingerprint());
+        cache.endGeneration(null);
+
+        evaluated.clear();
+        double[][] fitness = cache.evaluate(Arrays.asList(concatenation, constant), Context.EvaluationPhases.TRAINING, complexity);
+        assertEquals(Arrays.<Node>asList(concatenation), evaluated);
+        assertTrue(Arrays.equals(new double[]{0, 5}, fitness[0]));
+        assertTrue(Arrays.equals(new double[]{0, 3}, fitness[1]));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.objective;
+
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.utils.NonDominatedSorting;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ParetoArchiveTest {
+
+    @Test
+    public void testIncrementalFronts() {
+        Random random = new Random(1);
+        for (int round = 0; round < 50; round++) {
+            ParetoArchive archive = new ParetoArchive(1000);
+            List<double[]> added = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                double[] fitness = {random.nextInt(8), random.nextInt(8), random.nextInt(8)};
+                assertTrue(archive.add(new Constant("c" + i), fitness));
+                added.add(fitness);
+            }
+            List<int[]> fronts = NonDominatedSorting.fronts(added.toArray(new double[0][]));
+            assertEquals(fronts.size(), archive.getFrontCount());
+            RankingTable.View view = archive.snapshot();
+            int position = 0;
+            for (int f = 0; f < fronts.size(); f++) {
+                assertEquals(fronts.get(f).length, archive.getFrontSize(f));
+                for (int i = 0; i < fronts.get(f).length; i++, position++) {
+                    //the archived individual is in the same front of the full sort
+                    int index = Integer.parseInt(view.getTree(position).toString().substring(1));
+                    assertTrue(contains(fronts.get(f), index));
+                    if (i > 0) {
+                        assertTrue(compare(view.get(position - 1).getFitness(), view.get(position).getFitness()) <= 0);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testCapacity() {
+        Random random = new Random(2);
+        ParetoArchive archive = new ParetoArchive(20);
+        List<double[]> added = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            double[] fitness = {random.nextDouble(), random.nextDouble()};
+            archive.add(new Constant("c" + i), fitness);
+            added.add(fitness);
+            assertTrue(archive.size() <= 20);
+        }
+        //the non dominated individuals are never dropped while they fit
+        int[] first = NonDominatedSorting.firstFront(added.toArray(new double[0][]));
+        assertTrue(first.length <= 20);
+        for (int index : first) {
+            assertTrue(archive.contains(new Constant("c" + index).getFingerprint()));
+        }
+        assertEquals(first.length, archive.getFrontSize(0));
+    }
+
+    @Test
+    public void testDuplicatesAndDrops() {
+        ParetoArchive archive = new ParetoArchive(2);
+        assertTrue(archive.add(new Constant("a"), new double[]{1, 1}));
+        assertFalse(archive.add(new Constant("a"), new double[]{0, 0}));
+        assertTrue(archive.add(new Constant("b"), new double[]{2, 2}));
+        //dominated by both, it is dropped at once
+        assertFalse(archive.add(new Constant("c"), new double[]{3, 3}));
+        assertTrue(archive.add(new Constant("d"), new double[]{0, 0}));
+        assertEquals(2, archive.size());
+        assertFalse(archive.contains(new Constant("b").getFingerprint()));
+        assertEquals("d", archive.getBest().toString());
+        assertEquals(2, archive.getFrontCount());
+    }
+
+    private static boolean contains(int[] front, int index) {
+        for (int i : front) {
+            if (i == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int compare(double[] a, double[] b) {
+        for (int k = 0; k < a.length; k++) {
+            int compare = Double.compare(a[k], b[k]);
+            if (compare != 0) {
+                return compare;
+            }
+        }
+        return 0;
+    }
+}
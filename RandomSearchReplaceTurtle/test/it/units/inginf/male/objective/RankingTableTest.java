@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.objective;
+
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.operator.Concatenator;
+import it.units.inginf.male.utils.Utils;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class RankingTableTest {
+
+    private static final Comparator<Node> BY_DESCRIPTION = (tree1, tree2) -> {
+        StringBuilder description1 = new StringBuilder();
+        tree1.describe(description1);
+        StringBuilder description2 = new StringBuilder();
+        tree2.describe(description2);
+        return -description1.toString().compareTo(description2.toString());
+    };
+
+    @Test
+    public void testDeduplication() {
+        RankingTable table = new RankingTable(2);
+        assertTrue(table.add(new Constant("a"), new double[]{1, 2}));
+        assertFalse(table.add(new Constant("a"), new double[]{0, 0}));
+        for (int i = 0; i < 100; i++) {
+            assertTrue(table.add(new Constant("c" + i), new double[]{i, -i}));
+        }
+        assertEquals(101, table.size());
+        assertTrue(table.contains(new Constant("c50").getFingerprint()));
+        assertEquals(2.0, table.getFitness(0, 1), 0);
+        assertEquals(-50.0, table.getFitness(51, 1), 0);
+
+        String description = table.getDescription(51);
+        RankingTable copy = new RankingTable(4);
+        copy.add(table.getTree(51), table, 51);
+        assertEquals(50.0, copy.getFitness(0, 0), 0);
+        assertSame(description, copy.getDescription(0));
+        assertEquals("c50", copy.getDescription(0));
+    }
+
+    @Test
+    public void testRankingDescriptionFollowsTree() {
+        Node tree = new Concatenator();
+        tree.getChildrens().add(new Constant("a"));
+        tree.getChildrens().add(new Constant("b"));
+        Ranking ranking = new Ranking(tree, new double[]{0});
+        assertSame(ranking.getDescription(), ranking.getDescription());
+        tree.getChildrens().set(1, new Constant("c"));
+        assertEquals("ac", ranking.getDescription());
+    }
+
+    @Test
+    public void testSortLikeFrontsAndComparator() {
+        Random random = new Random(3);
+        for (int test = 0; test < 50; test++) {
+            RankingTable table = new RankingTable(8);
+            List<Ranking> rankings = new ArrayList<>();
+            int size = random.nextInt(80);
+            for (int i = 0; i < size; i++) {
+                Node tree = new Constant("n" + random.nextInt(40));
+                double[] fitness = {random.nextInt(5), random.nextInt(5), random.nextInt(3)};
+                if (table.add(tree, fitness)) {
+                    rankings.add(new Ranking(tree, fitness));
+                }
+            }
+            List<Ranking> expected = new ArrayList<>();
+            for (List<Ranking> front : Utils.getParetoFronts(rankings)) {
+                Collections.sort(front, (o1, o2) -> {
+                    for (int k = 0; k < o1.getFitness().length; k++) {
+                        int compare = Double.compare(o1.getFitness()[k], o2.getFitness()[k]);
+                        if (compare != 0) {
+                            return compare;
+                        }
+                    }
+                    return BY_DESCRIPTION.compare(o1.getTree(), o2.getTree());
+                });
+                expected.addAll(front);
+            }
+
+            RankingTable.View sorted = table.sort();
+            assertEquals(expected.size(), sorted.size());
+            for (int i = 0; i < expected.size(); i++) {
+                assertSame(expected.get(i).getTree(), sorted.getTree(i));
+                assertSame(sorted.get(i), sorted.get(i));
+            }
+            RankingTable.View head = sorted.head(5);
+            assertEquals(Math.min(5, expected.size()), head.size());
+        }
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy;
+
+import it.units.inginf.male.coevolution.Forest;
+import it.units.inginf.male.coevolution.ReplacementGroup;
+import it.units.inginf.male.objective.RankingTable;
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import it.units.inginf.male.tree.RegexRange;
+import it.units.inginf.male.tree.operator.Backreference;
+import it.units.inginf.male.tree.operator.Concatenator;
+import it.units.inginf.male.tree.operator.Group;
+import it.units.inginf.male.tree.operator.ListMatch;
+import it.units.inginf.male.tree.operator.MatchOneOrMore;
+import it.units.inginf.male.tree.operator.Or;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CheckpointTest {
+
+    private static Node node(Node parent, Node... children) {
+        for (Node child : children) {
+            child.setParent(parent);
+            parent.getChildrens().add(child);
+        }
+        return parent;
+    }
+
+    private static String describe(Node tree) {
+        StringBuilder builder = new StringBuilder();
+        tree.describe(builder);
+        return builder.toString();
+    }
+
+    @Test
+    public void testTrees() throws IOException {
+        Node search = node(new Concatenator(),
+                node(new Group(), node(new MatchOneOrMore(), node(new ListMatch(), new RegexRange("a-z")))),
+                node(new MatchOneOrMore(), node(new Or(), new Constant("\\d"), new Backreference(1))));
+        Node replace = node(new Concatenator(), node(new ReplacementGroup(), new Constant("1")), new Constant("-"));
+        Forest forest = new Forest(search, replace);
+
+        CheckpointOutput out = new CheckpointOutput();
+        out.writeTrees(Arrays.asList(search, replace));
+        out.writeTree(forest);
+        out.writeTree(null);
+        out.writeTrees(null);
+
+        CheckpointInput in = new CheckpointInput(out.toByteBuffer());
+        List<Node> population = in.readTrees();
+        Forest restored = (Forest) in.readTree();
+        assertNull(in.readTree());
+        assertNull(in.readTrees());
+        assertTrue(in.isConsumed());
+
+        assertEquals(describe(search), describe(population.get(0)));
+        assertEquals(describe(replace), describe(population.get(1)));
+        assertEquals(forest.getFingerprint(), restored.getFingerprint());
+        //shared trees stay shared, the forest holds the population trees
+        assertSame(population.get(0), restored.get(0));
+        assertSame(population.get(1), restored.get(1));
+        assertNull(restored.get(0).getParent());
+        Node or = population.get(0).getChildrens().get(1).getChildrens().get(0);
+        assertSame(or, or.getChildrens().get(1).getParent());
+        assertTrue(or.getChildrens().get(1) instanceof Backreference);
+    }
+
+    @Test
+    public void testRanking() throws IOException {
+        RankingTable table = new RankingTable(4);
+        table.add(new Constant("a"), new double[]{2, 1});
+        table.add(new Constant("b"), new double[]{1, Double.NaN});
+        table.add(new Constant("c"), new double[]{0, Double.POSITIVE_INFINITY});
+        RankingTable.View sorted = table.sort().head(2);
+
+        CheckpointOutput out = new CheckpointOutput();
+        out.writeRanking(sorted);
+        out.writeFitness(new double[]{-0.0, 3.5});
+        out.writeFitness(null);
+
+        CheckpointInput in = new CheckpointInput(out.toByteBuffer());
+        RankingTable.View restored = in.readRanking();
+        assertEquals(2, restored.size());
+        for (int r = 0; r < sorted.size(); r++) {
+            assertEquals(sorted.getFingerprint(r), restored.getFingerprint(r));
+            assertTrue(Arrays.equals(sorted.get(r).getFitness(), restored.get(r).getFitness()));
+        }
+        assertTrue(Arrays.equals(new double[]{-0.0, 3.5}, in.readFitness()));
+        assertNull(in.readFitness());
+    }
+
+    @Test
+    public void testRandomAndValues() throws IOException {
+        Random random = new Random(42);
+        random.nextInt();
+        random.nextGaussian();
+
+        CheckpointOutput out = new CheckpointOutput();
+        out.writeRandom(random);
+        out.writeInt(0);
+        out.writeInt(Integer.MAX_VALUE);
+        out.writeLong(-1);
+        out.writeBoolean(true);
+        out.writeString("àé\\w");
+        out.writeBytes(null);
+
+        CheckpointInput in = new CheckpointInput(out.toByteBuffer());
+        Random restored = in.readRandom();
+        assertEquals(0, in.readInt());
+        assertEquals(Integer.MAX_VALUE, in.readInt());
+        assertEquals(-1, in.readLong());
+        assertTrue(in.readBoolean());
+        assertEquals("àé\\w", in.readString());
+        assertNull(in.readBytes());
+        assertTrue(in.isConsumed());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(random.nextGaussian(), restored.nextGaussian(), 0);
+            assertEquals(random.nextLong(), restored.nextLong());
+        }
+    }
+
+    @Test
+    public void testMalformed() throws IOException {
+        try {
+            new CheckpointInput(ByteBuffer.wrap(new byte[]{1, 2}));
+            fail();
+        } catch (IOException x) {
+        }
+        CheckpointOutput out = new CheckpointOutput();
+        out.writeTree(new Constant("a"));
+        ByteBuffer data = out.toByteBuffer();
+        data.limit(data.limit() - 1);
+        CheckpointInput in = new CheckpointInput(data);
+        try {
+            in.readTree();
+            fail();
+        } catch (IOException x) {
+        }
+    }
+
+    @Test
+    public void testInterval() {
+        CheckpointStore checkpoints = new CheckpointStore(new File("checkpoints"), 5);
+        assertTrue(checkpoints.isCheckpointGeneration(10, false));
+        assertFalse(checkpoints.isCheckpointGeneration(11, false));
+        assertTrue(checkpoints.isCheckpointGeneration(11, true));
+        assertFalse(new CheckpointStore(new File("checkpoints"), 0).isCheckpointGeneration(11, true));
+        assertFalse(new CheckpointStore(null, 5).isEnabled());
+    }
+}
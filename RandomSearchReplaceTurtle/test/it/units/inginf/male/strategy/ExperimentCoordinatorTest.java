@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ExperimentCoordinatorTest {
+
+    @Test
+    public void testStop() {
+        ExperimentCoordinator coordinator = new ExperimentCoordinator();
+        AtomicInteger calls = new AtomicInteger();
+        Runnable removed = calls::incrementAndGet;
+        coordinator.addStopListener(calls::incrementAndGet);
+        coordinator.addStopListener(removed);
+        coordinator.removeStopListener(removed);
+        assertFalse(coordinator.isStopRequested());
+        assertTrue(coordinator.requestStop());
+        assertFalse(coordinator.requestStop());
+        assertTrue(coordinator.isStopRequested());
+        assertEquals(1, calls.get());
+        //late listeners run at once
+        coordinator.addStopListener(calls::incrementAndGet);
+        assertEquals(2, calls.get());
+        //a new experiment starts clean
+        assertFalse(new ExperimentCoordinator().isStopRequested());
+    }
+
+    @Test
+    public void testBoard() {
+        ExperimentCoordinator coordinator = new ExperimentCoordinator();
+        assertNull(coordinator.getBestFitness());
+        assertFalse(coordinator.isHopeless(0, new double[]{100, 0, 0}, 2));
+        assertTrue(coordinator.postBest(0, 1, new double[]{10, 1, 5}));
+        assertFalse(coordinator.postBest(1, 1, new double[]{10, 1, 5}));
+        assertTrue(coordinator.postBest(1, 2, new double[]{10, 0, 9}));
+        assertTrue(Arrays.equals(new double[]{10, 0, 9}, coordinator.getBestFitness()));
+        assertEquals(1, coordinator.getBestJobId());
+        assertEquals(2, coordinator.getBestGeneration());
+        assertTrue(coordinator.isHopeless(0, new double[]{21, 0, 0}, 2));
+        assertFalse(coordinator.isHopeless(0, new double[]{20, 0, 0}, 2));
+        //the best job is never hopeless
+        assertFalse(coordinator.isHopeless(1, new double[]{21, 0, 0}, 2));
+    }
+
+    @Test
+    public void testPolicy() {
+        ExperimentCoordinator coordinator = new ExperimentCoordinator();
+        coordinator.postBest(1, 1, new double[]{1, 0});
+        ExperimentCoordinator.Policy disabled = new ExperimentCoordinator.Policy(null);
+        assertFalse(disabled.isStopWhenPerfect());
+        assertFalse(disabled.isHopeless(coordinator, 0, 100, new double[]{50, 0}));
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put(ExperimentCoordinator.GLOBAL_STOP_WHEN_PERFECT_KEY, "true");
+        parameters.put(ExperimentCoordinator.HOPELESS_GENERATIONS_KEY, "10");
+        parameters.put(ExperimentCoordinator.HOPELESS_RATIO_KEY, "3");
+        ExperimentCoordinator.Policy policy = new ExperimentCoordinator.Policy(parameters);
+        assertTrue(policy.isStopWhenPerfect());
+        assertFalse(policy.isHopeless(coordinator, 0, 9, new double[]{50, 0}));
+        assertTrue(policy.isHopeless(coordinator, 0, 10, new double[]{50, 0}));
+        assertFalse(policy.isHopeless(coordinator, 0, 10, new double[]{3, 0}));
+        assertTrue(ExperimentCoordinator.isPerfect(new double[]{0.00001, 0}));
+        assertFalse(ExperimentCoordinator.isPerfect(new double[]{0.001, 0}));
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import it.units.inginf.male.objective.RankingTable;
+import it.units.inginf.male.tree.Constant;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class CoevolutionaryStrategyFix3Test {
+
+    @Test
+    public void testWorstEditFitness() {
+        RankingTable table = new RankingTable(4);
+        assertEquals(Double.POSITIVE_INFINITY, CoevolutionaryStrategyFix3.worstEditFitness(table.view()), 0);
+
+        //only pruned individuals: no bound, not a bound of 0
+        table.add(new Constant("a"), new double[]{Double.POSITIVE_INFINITY, 1});
+        table.add(new Constant("b"), new double[]{Double.POSITIVE_INFINITY, 2});
+        assertEquals(Double.POSITIVE_INFINITY, CoevolutionaryStrategyFix3.worstEditFitness(table.view()), 0);
+
+        table.add(new Constant("c"), new double[]{0, 3});
+        assertEquals(0, CoevolutionaryStrategyFix3.worstEditFitness(table.view()), 0);
+        table.add(new Constant("d"), new double[]{12.5, 0});
+        assertEquals(12.5, CoevolutionaryStrategyFix3.worstEditFitness(table.view()), 0);
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.strategy.ExecutionListener;
+import it.units.inginf.male.strategy.MigratingStrategy;
+import it.units.inginf.male.strategy.MigrationChannel;
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class IslandModelStrategyTest {
+
+    /**
+     * Island 0 stops after 3 generations, the others after 9; island 2 is
+     * late at generation 3, so island 1 runs ahead of it. Each island sends
+     * one individual naming itself and the generation, and records what it
+     * receives.
+     */
+    public static class ScriptedIsland implements MigratingStrategy {
+
+        static final Map<Integer, Map<Integer, List<String>>> RECEIVED = new ConcurrentHashMap<>();
+        private Configuration configuration;
+        private ExecutionListener listener;
+        private MigrationChannel channel;
+
+        @Override
+        public void setup(Configuration configuration, ExecutionListener executionListener) {
+            this.configuration = configuration;
+            this.listener = executionListener;
+        }
+
+        @Override
+        public void setMigrationChannel(MigrationChannel channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public Void call() throws InterruptedException {
+            int island = configuration.getJobId();
+            int generations = island == 0 ? 3 : 9;
+            Map<Integer, List<String>> received = new TreeMap<>();
+            try {
+                for (int generation = 1; generation <= generations; generation++) {
+                    if (island == 2 && generation == 3) {
+                        Thread.sleep(300);
+                    }
+                    if (channel.isMigrationGeneration(generation)) {
+                        List<List<Node>> emigrants = new ArrayList<>();
+                        emigrants.add(new ArrayList<Node>(Collections.singletonList(new Constant(island + "@" + generation))));
+                        List<String> immigrants = new ArrayList<>();
+                        for (Node immigrant : channel.migrate(generation, emigrants).get(0)) {
+                            StringBuilder builder = new StringBuilder();
+                            immigrant.describe(builder);
+                            immigrants.add(builder.toString());
+                        }
+                        received.put(generation, immigrants);
+                    }
+                }
+            } finally {
+                channel.retire();
+                RECEIVED.put(island, received);
+            }
+            return null;
+        }
+
+        @Override
+        public Configuration getConfiguration() {
+            return configuration;
+        }
+
+        @Override
+        public ExecutionListener getExecutionListener() {
+            return listener;
+        }
+
+        @Override
+        public Context getContext() {
+            return null;
+        }
+    }
+
+    private static Map<String, String> parameters(String runStrategy, String topology) {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("runStrategy", runStrategy);
+        parameters.put(IslandModelStrategy.MIGRATION_INTERVAL_KEY, "2");
+        parameters.put(IslandModelStrategy.MIGRATION_SIZE_KEY, "2");
+        parameters.put(IslandModelStrategy.MIGRATION_TOPOLOGY_KEY, topology);
+        return parameters;
+    }
+
+    @Test(timeout = 60000)
+    public void testSynchronousMailboxes() throws Exception {
+        ScriptedIsland.RECEIVED.clear();
+        new IslandModelStrategy().execute(JobTraces.smallConfiguration(3, 9, parameters(ScriptedIsland.class.getName(), "ring")), new JobTraces());
+
+        //ring: 0 sends to 1, 1 to 2, 2 to 0
+        Map<Integer, List<String>> island0 = new TreeMap<>();
+        island0.put(2, Arrays.asList("2@2"));
+        Map<Integer, List<String>> island1 = new TreeMap<>();
+        island1.put(2, Arrays.asList("0@2"));
+        //island 0 has retired, island 1 does not wait for it
+        island1.put(4, Collections.<String>emptyList());
+        island1.put(6, Collections.<String>emptyList());
+        island1.put(8, Collections.<String>emptyList());
+        //island 1 runs ahead and retires first, its emigrants are received at their generation
+        Map<Integer, List<String>> island2 = new TreeMap<>();
+        island2.put(2, Arrays.asList("1@2"));
+        island2.put(4, Arrays.asList("1@4"));
+        island2.put(6, Arrays.asList("1@6"));
+        island2.put(8, Arrays.asList("1@8"));
+        assertEquals(island0, ScriptedIsland.RECEIVED.get(0));
+        assertEquals(island1, ScriptedIsland.RECEIVED.get(1));
+        assertEquals(island2, ScriptedIsland.RECEIVED.get(2));
+    }
+
+    @Test(timeout = 300000)
+    public void testRunDependsOnlyOnSeeds() throws Exception {
+        Map<String, String> parameters = parameters(CoevolutionaryStrategyFix3.class.getName(), "random");
+        JobTraces first = new JobTraces();
+        new IslandModelStrategy().execute(JobTraces.smallConfiguration(3, 6, parameters), first);
+        JobTraces second = new JobTraces();
+        new IslandModelStrategy().execute(JobTraces.smallConfiguration(3, 6, parameters), second);
+
+        assertEquals(3, first.getTraces().size());
+        assertEquals(first.getTraces(), second.getTraces());
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import com.google.gson.Gson;
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.configuration.SubConfiguration;
+import it.units.inginf.male.evaluators.TreeEvaluationException;
+import it.units.inginf.male.objective.Ranking;
+import it.units.inginf.male.strategy.ExecutionListener;
+import it.units.inginf.male.strategy.ExecutionListenerFactory;
+import it.units.inginf.male.strategy.ExecutionStrategy;
+import it.units.inginf.male.strategy.RunStrategy;
+import it.units.inginf.male.tree.Node;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records, for each job, the best individual and its fitness at every
+ * generation; jobs whose traces are equal evolved the same way.
+ */
+class JobTraces implements ExecutionListenerFactory {
+
+    private final Map<Integer, List<String>> traces = new TreeMap<>();
+
+    /**
+     * The example configuration with small populations.
+     * @param jobs the jobs
+     * @param generations the generations of each job
+     * @param strategyParameters replace the ones of the example
+     * @return the configuration, set up
+     */
+    static Configuration smallConfiguration(int jobs, int generations, Map<String, String> strategyParameters) throws IOException {
+        Configuration configuration;
+        try (Reader reader = Files.newBufferedReader(Paths.get("configurations/example_configuration.json"), StandardCharsets.UTF_8)) {
+            configuration = new Gson().fromJson(reader, Configuration.class);
+        }
+        configuration.setOutputFolderName(Files.createTempDirectory("jobs").toString());
+        configuration.setJobs(jobs);
+        configuration.setGenerations(generations);
+        configuration.setStrategyParameters(strategyParameters);
+        for (SubConfiguration subConfiguration : configuration.getSubConfigurations()) {
+            subConfiguration.getEvolutionParameters().setPopulationSize(subConfiguration.getEvolutionParameters().getPopulationSize() / 20);
+        }
+        configuration.setup();
+        return configuration;
+    }
+
+    synchronized Map<Integer, List<String>> getTraces() {
+        return new TreeMap<>(traces);
+    }
+
+    private synchronized void trace(RunStrategy strategy, String line) {
+        int jobId = strategy.getConfiguration().getJobId();
+        List<String> trace = traces.get(jobId);
+        if (trace == null) {
+            trace = Collections.synchronizedList(new ArrayList<String>());
+            traces.put(jobId, trace);
+        }
+        trace.add(line);
+    }
+
+    private static String describe(Node node) {
+        StringBuilder builder = new StringBuilder();
+        if (node != null) {
+            node.describe(builder);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public void register(ExecutionStrategy strategy) {
+    }
+
+    @Override
+    public ExecutionListener getNewListener() {
+        return new ExecutionListener() {
+
+            @Override
+            public void evolutionStarted(RunStrategy strategy) {
+                trace(strategy, "started");
+            }
+
+            @Override
+            public void logGeneration(RunStrategy strategy, int generation, Node best, double[] fitness, List<Ranking> population) {
+                trace(strategy, generation + " " + describe(best) + " " + Arrays.toString(fitness));
+            }
+
+            @Override
+            public void evolutionComplete(RunStrategy strategy, int generation, Node best, List<Ranking> population) {
+                trace(strategy, "complete " + generation + " " + describe(best));
+            }
+
+            @Override
+            public void evolutionFailed(RunStrategy strategy, TreeEvaluationException cause) {
+                trace(strategy, "failed " + cause);
+            }
+        };
+    }
+}
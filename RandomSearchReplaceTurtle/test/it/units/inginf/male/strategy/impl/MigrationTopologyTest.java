@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MigrationTopologyTest {
+
+    @Test
+    public void testRing() {
+        assertArrayEquals(new int[]{1}, MigrationTopology.RING.targets(0, 4, 10, 0));
+        assertArrayEquals(new int[]{0}, MigrationTopology.RING.targets(3, 4, 10, 0));
+        assertArrayEquals(new int[]{3}, MigrationTopology.RING.sources(0, 4, 10, 0));
+    }
+
+    @Test
+    public void testStar() {
+        assertArrayEquals(new int[]{1, 2, 3}, MigrationTopology.STAR.targets(0, 4, 10, 0));
+        assertArrayEquals(new int[]{0}, MigrationTopology.STAR.targets(2, 4, 10, 0));
+        assertArrayEquals(new int[]{1, 2, 3}, MigrationTopology.STAR.sources(0, 4, 10, 0));
+        assertArrayEquals(new int[]{0}, MigrationTopology.STAR.sources(3, 4, 10, 0));
+    }
+
+    @Test
+    public void testRandomIsAPermutation() {
+        for (int generation = 10; generation < 200; generation += 10) {
+            boolean[] received = new boolean[7];
+            for (int island = 0; island < 7; island++) {
+                int[] targets = MigrationTopology.RANDOM.targets(island, 7, generation, 42);
+                assertEquals(1, targets.length);
+                assertTrue(targets[0] != island);
+                assertTrue(!received[targets[0]]);
+                received[targets[0]] = true;
+                assertArrayEquals(new int[]{island}, MigrationTopology.RANDOM.sources(targets[0], 7, generation, 42));
+                //every island computes the same ring
+                assertArrayEquals(targets, MigrationTopology.RANDOM.targets(island, 7, generation, 42));
+            }
+        }
+    }
+
+    @Test
+    public void testSingleIsland() {
+        for (MigrationTopology topology : MigrationTopology.values()) {
+            assertEquals(0, topology.targets(0, 1, 10, 0).length);
+            assertEquals(0, topology.sources(0, 1, 10, 0).length);
+        }
+        assertEquals(MigrationTopology.STAR, MigrationTopology.fromString("star"));
+        assertTrue(Arrays.asList(MigrationTopology.values()).contains(MigrationTopology.fromString("Random")));
+    }
+}
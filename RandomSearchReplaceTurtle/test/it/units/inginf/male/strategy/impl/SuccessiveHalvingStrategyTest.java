@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.strategy.impl;
+
+import it.units.inginf.male.configuration.Configuration;
+import it.units.inginf.male.evaluators.CoevolutionaryEvaluator;
+import it.units.inginf.male.inputs.Context;
+import it.units.inginf.male.objective.Objective;
+import it.units.inginf.male.strategy.ExecutionListener;
+import it.units.inginf.male.strategy.ExperimentCoordinator;
+import it.units.inginf.male.strategy.SteppableStrategy;
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SuccessiveHalvingStrategyTest {
+
+    /**
+     * A job whose best has always the same score, it logs its generations.
+     */
+    private static class FixedScoreJob implements SteppableStrategy {
+
+        private final int jobId;
+        private final double score;
+        private final int generations;
+        private final List<String> log;
+        private int generation = 0;
+
+        FixedScoreJob(int jobId, double score, int generations, List<String> log) {
+            this.jobId = jobId;
+            this.score = score;
+            this.generations = generations;
+            this.log = log;
+        }
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public boolean step() {
+            generation++;
+            log.add(String.valueOf(jobId));
+            return generation < generations;
+        }
+
+        @Override
+        public void finish() {
+            log.add("end " + jobId);
+        }
+
+        @Override
+        public int getGeneration() {
+            return generation;
+        }
+
+        @Override
+        public Node getBest() {
+            return new Constant(String.valueOf(score));
+        }
+
+        @Override
+        public void setup(Configuration configuration, ExecutionListener executionListener) {
+        }
+
+        @Override
+        public Configuration getConfiguration() {
+            return null;
+        }
+
+        @Override
+        public ExecutionListener getExecutionListener() {
+            return null;
+        }
+
+        @Override
+        public Context getContext() {
+            return null;
+        }
+
+        @Override
+        public Void call() {
+            return null;
+        }
+    }
+
+    /**
+     * The score of a FixedScoreJob best.
+     */
+    private static class ConstantObjective implements Objective {
+
+        @Override
+        public void setup(Context context) {
+        }
+
+        @Override
+        public double[] fitness(Node individual) {
+            StringBuilder builder = new StringBuilder();
+            individual.describe(builder);
+            return new double[]{Double.parseDouble(builder.toString())};
+        }
+
+        @Override
+        public CoevolutionaryEvaluator getTreeEvaluator() {
+            return null;
+        }
+
+        @Override
+        public Objective cloneObjective() {
+            return this;
+        }
+    }
+
+    private static Map<String, String> parameters(String... keyValues) {
+        Map<String, String> parameters = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            parameters.put(keyValues[i], keyValues[i + 1]);
+        }
+        return parameters;
+    }
+
+    @Test
+    public void testRungs() {
+        SuccessiveHalvingStrategy strategy = new SuccessiveHalvingStrategy();
+        strategy.readParameters(parameters(SuccessiveHalvingStrategy.RUNG_GENERATIONS_KEY, "2", SuccessiveHalvingStrategy.REDUCTION_FACTOR_KEY, "3"));
+        assertEquals(2, strategy.rung(0));
+        assertEquals(6, strategy.rung(1));
+        assertEquals(18, strategy.rung(2));
+        assertEquals(Integer.MAX_VALUE, strategy.rung(40));
+    }
+
+    @Test
+    public void testPromote() {
+        SuccessiveHalvingStrategy strategy = new SuccessiveHalvingStrategy();
+        strategy.readParameters(parameters(SuccessiveHalvingStrategy.REDUCTION_FACTOR_KEY, "3"));
+        //in the best third of the jobs which reached the rung so far, rounded up
+        assertTrue(strategy.promote(0, 5));
+        assertTrue(strategy.promote(0, 3));
+        assertFalse(strategy.promote(0, 4));
+        assertTrue(strategy.promote(0, 1));
+        assertFalse(strategy.promote(0, 6));
+        //ties do not count as better
+        assertTrue(strategy.promote(0, 3));
+        //each rung has its own scores
+        assertTrue(strategy.promote(1, 100));
+        assertFalse(strategy.promote(1, 200));
+    }
+
+    @Test
+    public void testPauseAndResumeOrder() {
+        SuccessiveHalvingStrategy strategy = new SuccessiveHalvingStrategy();
+        strategy.readParameters(parameters(SuccessiveHalvingStrategy.SLICE_GENERATIONS_KEY, "2",
+                SuccessiveHalvingStrategy.RUNG_GENERATIONS_KEY, "2", SuccessiveHalvingStrategy.REDUCTION_FACTOR_KEY, "2"));
+        List<String> log = new ArrayList<>();
+        double[] scores = {3, 1, 2};
+        List<SuccessiveHalvingStrategy.ScheduledJob> jobs = new ArrayList<>();
+        for (int i = 0; i < scores.length; i++) {
+            jobs.add(new SuccessiveHalvingStrategy.ScheduledJob(new FixedScoreJob(i, scores[i], 6, log), i, new ConstantObjective()));
+        }
+        strategy.schedule(jobs, new ExperimentCoordinator());
+        strategy.work();
+
+        assertEquals(Arrays.asList(
+                //every job reaches the first rung, in seed order, and is promoted
+                "0", "0", "1", "1", "2", "2",
+                //the best job goes on to the second rung and to its end
+                "1", "1", "1", "1", "end 1",
+                //the others reach the second rung and are paused: they are resumed best first
+                "2", "2", "0", "0", "2", "2", "end 2", "0", "0", "end 0"), log);
+    }
+
+    @Test
+    public void testWithoutBudgetSameAsMultithread() throws Exception {
+        Map<String, String> parameters = parameters(MultithreadStrategy.THREADS_KEY, "2",
+                "runStrategy", CoevolutionaryStrategyFix3.class.getName(),
+                SuccessiveHalvingStrategy.SLICE_GENERATIONS_KEY, "1",
+                SuccessiveHalvingStrategy.RUNG_GENERATIONS_KEY, "2",
+                SuccessiveHalvingStrategy.REDUCTION_FACTOR_KEY, "2");
+        JobTraces multithread = new JobTraces();
+        new MultithreadStrategy().execute(JobTraces.smallConfiguration(3, 6, parameters), multithread);
+        JobTraces halving = new JobTraces();
+        new SuccessiveHalvingStrategy().execute(JobTraces.smallConfiguration(3, 6, parameters), halving);
+
+        assertEquals(3, multithread.getTraces().size());
+        for (List<String> trace : multithread.getTraces().values()) {
+            //started, the generations, complete
+            assertEquals(8, trace.size());
+        }
+        assertEquals(multithread.getTraces(), halving.getTraces());
+    }
+}
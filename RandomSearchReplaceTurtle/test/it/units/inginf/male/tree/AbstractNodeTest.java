@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.tree;
+
+import it.units.inginf.male.tree.Node.RegexFlavour;
+import it.units.inginf.male.tree.operator.Backreference;
+import it.units.inginf.male.tree.operator.Concatenator;
+import it.units.inginf.male.tree.operator.MatchOneOrMore;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class AbstractNodeTest {
+
+    private static Node add(Node parent, Node child) {
+        child.setParent(parent);
+        parent.getChildrens().add(child);
+        return parent;
+    }
+
+    private static String describe(Node node, DescriptionContext context, RegexFlavour flavour) {
+        StringBuilder builder = new StringBuilder();
+        node.describe(builder, context, flavour);
+        return builder.toString();
+    }
+
+    @Test
+    public void testCachedDescriptionKeepsGroupNumbering() {
+        Node root = add(add(new Concatenator(), add(new MatchOneOrMore(), new Constant("ab"))), new Backreference(1));
+
+        assertEquals("(?:ab)++\\1", describe(root, new DescriptionContext(), RegexFlavour.JAVA));
+        for (int i = 0; i < 2; i++) {
+            DescriptionContext context = new DescriptionContext();
+            assertEquals("(?=((?:ab)+))\\1\\2", describe(root, context, RegexFlavour.JS));
+            assertEquals(1, context.getGroups());
+            assertEquals(1, context.getExpansionGroups());
+        }
+
+        DescriptionContext shifted = new DescriptionContext();
+        shifted.incGroups();
+        shifted.incExpansionGroups();
+        assertEquals("(?=((?:ab)+))\\2\\3", describe(root, shifted, RegexFlavour.JS));
+        assertEquals("(?:ab)++\\1", describe(root, shifted, RegexFlavour.JAVA));
+        assertEquals(3, shifted.getGroups());
+    }
+
+    @Test
+    public void testCachedDescriptionInvalidation() {
+        Node quantifier = add(new MatchOneOrMore(), new Constant("ab"));
+        Node root = add(new Concatenator(), quantifier);
+        root = add(root, new Constant("c"));
+        assertEquals("(?:ab)++c", describe(root, new DescriptionContext(), RegexFlavour.JAVA));
+
+        Node clone = root.cloneTree();
+        Node replacement = new Constant("x");
+        replacement.setParent(quantifier);
+        quantifier.getChildrens().set(0, replacement);
+        assertEquals("x++c", describe(root, new DescriptionContext(), RegexFlavour.JAVA));
+        assertEquals("(?:ab)++c", describe(clone, new DescriptionContext(), RegexFlavour.JAVA));
+    }
+}
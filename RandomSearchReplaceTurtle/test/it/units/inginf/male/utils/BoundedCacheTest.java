@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+        BoundedCache<String, String> cache = new BoundedCache<>(1 << 20, (key, value) -> BoundedCache.sizeOf(key) + BoundedCache.sizeOf(value));
+        assertNull(cache.get("a"));
+        cache.put("a", "first");
+        cache.put("a", "second");
+        assertEquals("first", cache.get("a"));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(BoundedCache.sizeOf("a") + BoundedCache.sizeOf("first"), cache.getCacheSizeBytes());
+    }
+
+    @Test
+    public void testByteBudget() {
+        long budget = 16 * 1000;
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(budget, (key, value) -> 100);
+        for (int i = 0; i < 10000; i++) {
+            cache.put(i, i);
+        }
+        assertTrue(cache.getCacheSizeBytes() <= budget);
+        assertEquals(100L * cache.getCacheSize(), cache.getCacheSizeBytes());
+        assertEquals(10000 - cache.getCacheSize(), cache.getEvictions());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        //one entry per segment: the budget of every segment holds two entries
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(16 * 200, (key, value) -> 100);
+        cache.put(0, 0);
+        cache.put(16, 16);
+        cache.get(0);
+        cache.put(32, 32);
+        assertEquals(Integer.valueOf(0), cache.get(0));
+        assertNull(cache.get(16));
+    }
+}
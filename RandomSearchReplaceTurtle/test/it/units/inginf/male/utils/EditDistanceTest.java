@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.utils;
+
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class EditDistanceTest {
+
+    private static int reference(String s, String t) {
+        int[][] d = new int[s.length() + 1][t.length() + 1];
+        for (int i = 0; i <= s.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= t.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= s.length(); i++) {
+            for (int j = 1; j <= t.length(); j++) {
+                int cost = s.charAt(i - 1) == t.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[s.length()][t.length()];
+    }
+
+    private static String randomString(Random random, int length, String alphabet) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void testExactDistance() {
+        assertEquals(0, EditDistance.distance("", ""));
+        assertEquals(5, EditDistance.distance("prova", ""));
+        assertEquals(3, EditDistance.distance("kitten", "sitting"));
+        Random random = new Random(42);
+        for (int round = 0; round < 2000; round++) {
+            String s = randomString(random, random.nextInt(200), round % 2 == 0 ? "ab" : "abcdefgh\u00e8\u4e2d");
+            String t = randomString(random, random.nextInt(200), round % 2 == 0 ? "ab" : "abcdefgh\u00e8\u4e2d");
+            assertEquals(s + " " + t, reference(s, t), EditDistance.distance(s, t));
+        }
+    }
+
+    @Test
+    public void testBoundedDistance() {
+        Random random = new Random(7);
+        for (int round = 0; round < 2000; round++) {
+            String s = randomString(random, random.nextInt(300), "abc");
+            StringBuilder t = new StringBuilder(s);
+            int edits = random.nextInt(20);
+            for (int i = 0; i < edits && t.length() > 0; i++) {
+                t.setCharAt(random.nextInt(t.length()), 'd');
+                if (random.nextBoolean()) {
+                    t.insert(random.nextInt(t.length()), 'e');
+                }
+            }
+            int expected = reference(s, t.toString());
+            int bound = random.nextInt(25);
+            int distance = EditDistance.distance(s, t, bound);
+            assertEquals(s + " " + t + " " + bound, expected <= bound ? expected : bound + 1, distance);
+        }
+    }
+
+    @Test
+    public void testLongStrings() {
+        Random random = new Random(11);
+        String s = randomString(random, 120000, "abcd\u00e8");
+        StringBuilder t = new StringBuilder(s);
+        //chars which are not in s, each one costs exactly one edit
+        int edits = 0;
+        for (int i = 10; i < t.length(); i += 997) {
+            t.setCharAt(i, 'x');
+            edits++;
+        }
+        for (int i = 500; i < t.length(); i += 9973) {
+            t.insert(i, 'y');
+            edits++;
+        }
+        assertEquals(edits, EditDistance.distance(s, t));
+        assertEquals(edits, EditDistance.distance(t, s, 2 * edits));
+        assertEquals(edits / 2 + 1, EditDistance.distance(s, t, edits / 2));
+    }
+}
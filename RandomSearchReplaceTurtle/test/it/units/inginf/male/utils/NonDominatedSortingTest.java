@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.utils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class NonDominatedSortingTest {
+
+    /**
+     * Peels the first front of the remaining rows until none is left.
+     */
+    private static List<int[]> referenceFronts(double[][] fitness) {
+        List<Integer> remaining = new ArrayList<>();
+        for (int i = 0; i < fitness.length; i++) {
+            remaining.add(i);
+        }
+        List<int[]> fronts = new ArrayList<>();
+        while (!remaining.isEmpty()) {
+            List<Integer> front = new ArrayList<>();
+            for (int i : remaining) {
+                boolean dominated = false;
+                for (int j : remaining) {
+                    if (i != j && Utils.isAParetoDominateByB(fitness[i], fitness[j])) {
+                        dominated = true;
+                        break;
+                    }
+                }
+                if (!dominated) {
+                    front.add(i);
+                }
+            }
+            remaining.removeAll(front);
+            int[] indexes = new int[front.size()];
+            for (int i = 0; i < indexes.length; i++) {
+                indexes[i] = front.get(i);
+            }
+            fronts.add(indexes);
+        }
+        return fronts;
+    }
+
+    private static double[][] randomFitness(Random random, int size, int objectives) {
+        double[][] fitness = new double[size][objectives];
+        for (double[] row : fitness) {
+            for (int k = 0; k < objectives; k++) {
+                //few distinct values, plenty of ties and duplicated rows
+                row[k] = random.nextInt(6);
+            }
+            if (random.nextInt(20) == 0) {
+                Arrays.fill(row, Double.POSITIVE_INFINITY);
+            }
+        }
+        return fitness;
+    }
+
+    @Test
+    public void testFronts() {
+        Random random = new Random(11);
+        for (int test = 0; test < 200; test++) {
+            double[][] fitness = randomFitness(random, random.nextInt(60), 2 + random.nextInt(3));
+            List<int[]> expected = referenceFronts(fitness);
+            List<int[]> fronts = NonDominatedSorting.fronts(fitness);
+            assertEquals(expected.size(), fronts.size());
+            for (int f = 0; f < expected.size(); f++) {
+                assertArrayEquals(expected.get(f), fronts.get(f));
+            }
+            int[] first = expected.isEmpty() ? new int[0] : expected.get(0);
+            assertArrayEquals(first, NonDominatedSorting.firstFront(fitness));
+        }
+    }
+
+    @Test
+    public void testCrowdingDistance() {
+        double[][] fitness = {{0, 4}, {1, 3}, {3, 1}, {4, 0}, {2, 2}};
+        int[] front = {0, 1, 2, 3, 4};
+        double[] distance = NonDominatedSorting.crowdingDistance(fitness, front);
+        assertTrue(Double.isInfinite(distance[0]));
+        assertTrue(Double.isInfinite(distance[3]));
+        assertEquals(1.0, distance[1], 1e-9);
+        assertEquals(1.0, distance[2], 1e-9);
+        assertEquals(1.0, distance[4], 1e-9);
+    }
+}
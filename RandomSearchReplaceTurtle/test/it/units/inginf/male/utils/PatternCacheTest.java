@@ -0,0 +1,48 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.utils;
+
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PatternCacheTest {
+
+    @Test
+    public void testCompileHitAndMiss() {
+        PatternCache cache = new PatternCache(100);
+        Pattern first = cache.compile("a(b+)c");
+        Pattern second = cache.compile("a(b+)c");
+        assertSame(first, second);
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getCacheSize());
+    }
+
+    @Test
+    public void testBoundedSize() {
+        PatternCache cache = new PatternCache(16);
+        for (int i = 0; i < 1000; i++) {
+            cache.compile("x{" + i + "}");
+        }
+        assertEquals(1000, cache.getMisses());
+        assertEquals(1000 - cache.getCacheSize(), cache.getEvictions());
+    }
+}
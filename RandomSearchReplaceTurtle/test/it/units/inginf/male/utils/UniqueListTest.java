@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2018 Machine Learning Lab - University of Trieste, 
+ * Italy (http://machinelearning.inginf.units.it/)  
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package it.units.inginf.male.utils;
+
+import it.units.inginf.male.tree.Constant;
+import it.units.inginf.male.tree.Node;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class UniqueListTest {
+
+    @Test
+    public void testFingerprintKeys() {
+        List<Node> list = new UniqueList<>(4, Node::getFingerprint);
+        assertTrue(list.add(new Constant("a")));
+        assertFalse(list.add(new Constant("a")));
+        assertTrue(list.add(new Constant("b")));
+        assertTrue(list.contains(new Constant("b")));
+        assertEquals(1, list.indexOf(new Constant("b")));
+        assertTrue(list.remove(new Constant("a")));
+        assertEquals(0, list.indexOf(new Constant("b")));
+        assertEquals(1, list.size());
+    }
+
+    @Test
+    public void testRemoveAllKeepsKeysOfMissingElements() {
+        List<String> list = new UniqueList<>(Arrays.asList("a", "b", "c"));
+        assertTrue(list.removeAll(Arrays.asList("b", "x")));
+        assertEquals(Arrays.asList("a", "c"), list);
+        assertFalse(list.removeAll(Arrays.asList("x")));
+        assertTrue(list.contains("a"));
+        assertFalse(list.add("c"));
+        assertTrue(list.add("b"));
+        assertEquals(Arrays.asList("a", "c", "b"), list);
+    }
+
+    @Test
+    public void testPositionalOperations() {
+        List<String> list = new UniqueList<>(Arrays.asList("a", "b", "c", "d"));
+        list.add(1, "x");
+        assertEquals(Arrays.asList("a", "x", "b", "c", "d"), list);
+        try {
+            list.add(0, "c");
+            fail();
+        } catch (IllegalArgumentException ex) {
+            //duplicates cannot be inserted at a position
+        }
+        list.set(0, "y");
+        assertFalse(list.contains("a"));
+        list.subList(3, 5).clear();
+        assertEquals(Arrays.asList("y", "x", "b"), list);
+        assertEquals(2, list.indexOf("b"));
+        assertTrue(list.add("d"));
+    }
+
+    @Test
+    public void testAgainstArrayList() {
+        Random random = new Random(5);
+        List<Integer> unique = new UniqueList<>(8, value -> value);
+        List<Integer> reference = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) {
+            Integer value = random.nextInt(50);
+            switch (random.nextInt(4)) {
+                case 0:
+                case 1:
+                    assertEquals(!reference.contains(value), unique.add(value));
+                    if (!reference.contains(value)) {
+                        reference.add(value);
+                    }
+                    break;
+                case 2:
+                    assertEquals(reference.remove(value), unique.remove(value));
+                    break;
+                default:
+                    List<Integer> removed = Arrays.asList(value, random.nextInt(50));
+                    assertEquals(reference.removeAll(removed), unique.removeAll(removed));
+                    break;
+            }
+            assertEquals(reference, unique);
+            assertEquals(reference.indexOf(value), unique.indexOf(value));
+        }
+    }
+}